@@ -0,0 +1,379 @@
+package kr.jm.utils;
+
+import kr.jm.utils.collections.JMLimitedQueue;
+import kr.jm.utils.exception.JMExceptionManager;
+import kr.jm.utils.helper.JMThread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The type Jm adaptive thread pool.
+ * <p>
+ * A max queue thread pool that resizes its worker threads between min and
+ * max with AIMD: every control interval the average queue wait and the
+ * throughput of the last interval are measured; a wait above the target
+ * grows the pool additively while throughput keeps improving, and a wait
+ * under a tenth of the target with an empty queue shrinks it
+ * multiplicatively. A resize is only applied after the same signal is seen
+ * for {@code hysteresisIntervals} consecutive intervals, and every decision
+ * is logged and kept in a bounded history.
+ */
+public class JMAdaptiveThreadPool extends ThreadPoolExecutor {
+
+    /**
+     * The constant DEFAULT_TARGET_QUEUE_WAIT_MILLIS.
+     */
+    public static final long DEFAULT_TARGET_QUEUE_WAIT_MILLIS = 50;
+    /**
+     * The constant DEFAULT_CONTROL_INTERVAL_MILLIS.
+     */
+    public static final long DEFAULT_CONTROL_INTERVAL_MILLIS = 1000;
+    /**
+     * The constant DEFAULT_HYSTERESIS_INTERVALS.
+     */
+    public static final int DEFAULT_HYSTERESIS_INTERVALS = 3;
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory
+            .getLogger(JMAdaptiveThreadPool.class);
+    private static final double DECREASE_FACTOR = 0.75;
+    private static final double LOW_WAIT_RATIO = 0.1;
+    private static final double MIN_THROUGHPUT_GAIN = 1.05;
+    private static final int DECISION_HISTORY_SIZE = 100;
+
+    private final int minWorkerThreads;
+    private final int maxWorkerThreads;
+    private final long targetQueueWaitNanos;
+    private final long controlIntervalMillis;
+    private final int hysteresisIntervals;
+    private final LongAdder queueWaitNanos;
+    private final LongAdder startedCount;
+    private final LongAdder completedCount;
+    private final JMLimitedQueue<ResizeDecision> resizeDecisionHistory;
+    private final ScheduledExecutorService controller;
+    private int signalStreak;
+    private boolean isLastResizeIncrease;
+    private double throughputBeforeLastIncrease;
+
+    /**
+     * Instantiates a new Jm adaptive thread pool.
+     *
+     * @param minWorkerThreads the min worker threads
+     * @param maxWorkerThreads the max worker threads
+     * @param waitingMillis    the waiting millis
+     * @param maxQueue         the max queue
+     */
+    public JMAdaptiveThreadPool(int minWorkerThreads, int maxWorkerThreads,
+            long waitingMillis, int maxQueue) {
+        this(minWorkerThreads, maxWorkerThreads, waitingMillis, maxQueue,
+                DEFAULT_TARGET_QUEUE_WAIT_MILLIS,
+                DEFAULT_CONTROL_INTERVAL_MILLIS, DEFAULT_HYSTERESIS_INTERVALS);
+    }
+
+    /**
+     * Instantiates a new Jm adaptive thread pool.
+     *
+     * @param minWorkerThreads      the min worker threads
+     * @param maxWorkerThreads      the max worker threads
+     * @param waitingMillis         the waiting millis
+     * @param maxQueue              the max queue
+     * @param targetQueueWaitMillis the target queue wait millis
+     * @param controlIntervalMillis the control interval millis
+     * @param hysteresisIntervals   the hysteresis intervals
+     */
+    public JMAdaptiveThreadPool(int minWorkerThreads, int maxWorkerThreads,
+            long waitingMillis, int maxQueue, long targetQueueWaitMillis,
+            long controlIntervalMillis, int hysteresisIntervals) {
+        super(minWorkerThreads, minWorkerThreads, 0L, TimeUnit.MILLISECONDS,
+                waitingMillis > 0 ? JMThread
+                        .getWaitingLimitedBlockingQueue(waitingMillis,
+                                maxQueue) : JMThread
+                        .getLimitedBlockingQueue(maxQueue));
+        if (minWorkerThreads < 1 || maxWorkerThreads < minWorkerThreads)
+            throw new IllegalArgumentException(
+                    "Wrong Worker Threads !!! - minWorkerThreads = " +
+                            minWorkerThreads + ", maxWorkerThreads = " +
+                            maxWorkerThreads);
+        this.minWorkerThreads = minWorkerThreads;
+        this.maxWorkerThreads = maxWorkerThreads;
+        this.targetQueueWaitNanos =
+                TimeUnit.MILLISECONDS.toNanos(targetQueueWaitMillis);
+        this.controlIntervalMillis = controlIntervalMillis;
+        this.hysteresisIntervals = Math.max(1, hysteresisIntervals);
+        this.queueWaitNanos = new LongAdder();
+        this.startedCount = new LongAdder();
+        this.completedCount = new LongAdder();
+        this.resizeDecisionHistory =
+                new JMLimitedQueue<>(DECISION_HISTORY_SIZE);
+        this.controller =
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable,
+                            "JMAdaptiveThreadPool-controller");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.controller.scheduleWithFixedDelay(this::control,
+                controlIntervalMillis, controlIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        log.info(
+                "JMAdaptiveThreadPool Start !!! - minWorkerThreads = {}, maxWorkerThreads = {}, maxQueue = {}, targetQueueWaitMillis = {}, controlIntervalMillis = {}, hysteresisIntervals = {}",
+                minWorkerThreads, maxWorkerThreads, maxQueue,
+                targetQueueWaitMillis, controlIntervalMillis,
+                hysteresisIntervals);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(new TimestampedRunnable(command));
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        if (r instanceof TimestampedRunnable)
+            queueWaitNanos.add(System.nanoTime() -
+                    ((TimestampedRunnable) r).submitNanos);
+        startedCount.increment();
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        completedCount.increment();
+    }
+
+    @Override
+    protected void terminated() {
+        controller.shutdown();
+    }
+
+    private void control() {
+        try {
+            long started = startedCount.sumThenReset();
+            long waitNanos = queueWaitNanos.sumThenReset();
+            long completed = completedCount.sumThenReset();
+            double throughput = completed * 1000d / controlIntervalMillis;
+            long avgQueueWaitNanos = started == 0 ? 0 : waitNanos / started;
+            int queueSize = getQueue().size();
+            int currentSize = getCorePoolSize();
+            int signal = decideSignal(avgQueueWaitNanos, queueSize);
+            signalStreak = signal == 0 ? 0 : Integer.signum(signalStreak) ==
+                    signal ? signalStreak + signal : signal;
+            if (isAtLimit(signal, currentSize))
+                signalStreak = 0;
+            else if (Math.abs(signalStreak) >= hysteresisIntervals) {
+                signalStreak = 0;
+                applyDecision(signal, currentSize, avgQueueWaitNanos,
+                        throughput, queueSize);
+            }
+        } catch (Exception e) {
+            JMExceptionManager.handleException(log, e, "control");
+        }
+    }
+
+    private boolean isAtLimit(int signal, int currentSize) {
+        return signal > 0 && currentSize >= maxWorkerThreads ||
+                signal < 0 && currentSize <= minWorkerThreads;
+    }
+
+    private int decideSignal(long avgQueueWaitNanos, int queueSize) {
+        if (avgQueueWaitNanos > targetQueueWaitNanos)
+            return 1;
+        if (avgQueueWaitNanos < targetQueueWaitNanos * LOW_WAIT_RATIO &&
+                queueSize == 0)
+            return -1;
+        return 0;
+    }
+
+    private void applyDecision(int signal, int currentSize,
+            long avgQueueWaitNanos, double throughput, int queueSize) {
+        int newSize;
+        String reason;
+        if (signal > 0) {
+            if (isLastResizeIncrease && throughput <
+                    throughputBeforeLastIncrease * MIN_THROUGHPUT_GAIN) {
+                newSize = currentSize;
+                reason = "Hold - No Throughput Gain From Last Increase";
+                isLastResizeIncrease = false;
+            } else {
+                newSize = Math.min(maxWorkerThreads, currentSize + 1);
+                reason = "Additive Increase - Queue Wait Over Target";
+                throughputBeforeLastIncrease = throughput;
+                isLastResizeIncrease = newSize > currentSize;
+            }
+        } else {
+            newSize = Math.max(minWorkerThreads,
+                    (int) (currentSize * DECREASE_FACTOR));
+            reason = "Multiplicative Decrease - Queue Idle";
+            isLastResizeIncrease = false;
+        }
+        ResizeDecision resizeDecision =
+                new ResizeDecision(System.currentTimeMillis(), currentSize,
+                        newSize, TimeUnit.NANOSECONDS
+                        .toMillis(avgQueueWaitNanos), throughput, queueSize,
+                        reason);
+        resizeDecisionHistory.add(resizeDecision);
+        log.info("Resize Decision !!! - {}", resizeDecision);
+        if (newSize != currentSize)
+            resize(newSize);
+    }
+
+    /**
+     * Resize.
+     *
+     * @param newSize the new size
+     */
+    public void resize(int newSize) {
+        int size = Math.max(minWorkerThreads,
+                Math.min(maxWorkerThreads, newSize));
+        synchronized (this) {
+            if (size > getMaximumPoolSize()) {
+                setMaximumPoolSize(size);
+                setCorePoolSize(size);
+            } else {
+                setCorePoolSize(size);
+                setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    /**
+     * Gets min worker threads.
+     *
+     * @return the min worker threads
+     */
+    public int getMinWorkerThreads() {
+        return minWorkerThreads;
+    }
+
+    /**
+     * Gets max worker threads.
+     *
+     * @return the max worker threads
+     */
+    public int getMaxWorkerThreads() {
+        return maxWorkerThreads;
+    }
+
+    /**
+     * Gets resize decision list.
+     *
+     * @return the resize decision list
+     */
+    public List<ResizeDecision> getResizeDecisionList() {
+        return new ArrayList<>(resizeDecisionHistory);
+    }
+
+    private static class TimestampedRunnable implements Runnable {
+        private final Runnable runnable;
+        private final long submitNanos;
+
+        private TimestampedRunnable(Runnable runnable) {
+            this.runnable = runnable;
+            this.submitNanos = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            runnable.run();
+        }
+    }
+
+    /**
+     * The type Resize decision.
+     */
+    public static class ResizeDecision {
+        private final long timestamp;
+        private final int fromSize;
+        private final int toSize;
+        private final long avgQueueWaitMillis;
+        private final double throughputPerSecond;
+        private final int queueSize;
+        private final String reason;
+
+        private ResizeDecision(long timestamp, int fromSize, int toSize,
+                long avgQueueWaitMillis, double throughputPerSecond,
+                int queueSize, String reason) {
+            this.timestamp = timestamp;
+            this.fromSize = fromSize;
+            this.toSize = toSize;
+            this.avgQueueWaitMillis = avgQueueWaitMillis;
+            this.throughputPerSecond = throughputPerSecond;
+            this.queueSize = queueSize;
+            this.reason = reason;
+        }
+
+        /**
+         * Gets timestamp.
+         *
+         * @return the timestamp
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Gets from size.
+         *
+         * @return the from size
+         */
+        public int getFromSize() {
+            return fromSize;
+        }
+
+        /**
+         * Gets to size.
+         *
+         * @return the to size
+         */
+        public int getToSize() {
+            return toSize;
+        }
+
+        /**
+         * Gets avg queue wait millis.
+         *
+         * @return the avg queue wait millis
+         */
+        public long getAvgQueueWaitMillis() {
+            return avgQueueWaitMillis;
+        }
+
+        /**
+         * Gets throughput per second.
+         *
+         * @return the throughput per second
+         */
+        public double getThroughputPerSecond() {
+            return throughputPerSecond;
+        }
+
+        /**
+         * Gets queue size.
+         *
+         * @return the queue size
+         */
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        /**
+         * Gets reason.
+         *
+         * @return the reason
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "ResizeDecision{" + "timestamp=" + timestamp +
+                    ", fromSize=" + fromSize + ", toSize=" + toSize +
+                    ", avgQueueWaitMillis=" + avgQueueWaitMillis +
+                    ", throughputPerSecond=" + throughputPerSecond +
+                    ", queueSize=" + queueSize + ", reason='" + reason +
+                    '\'' + '}';
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package kr.jm.utils;
+
+import kr.jm.utils.helper.JMThread;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * The type Jm async poller.
+ * <p>
+ * Non-blocking replacement for {@link JMThread#suspendWhenNull(long,
+ * Supplier)}. Each waiter re-polls its supplier on a shared scheduler with
+ * exponential backoff and jitter until the supplier returns non-null, the
+ * deadline passes or the returned future is cancelled; no thread is held
+ * between polls. A waiter registered with a signal key is woken by
+ * {@link #signal(Object)} of that key when its producer changed something:
+ * it re-polls immediately, instead of on its next backoff tick, and starts
+ * its backoff over. The waiters of other keys, or of none, are not polled.
+ */
+public class JMAsyncPoller {
+
+    /**
+     * The constant DEFAULT_INITIAL_INTERVAL_MILLIS.
+     */
+    public static final long DEFAULT_INITIAL_INTERVAL_MILLIS = 10;
+    /**
+     * The constant DEFAULT_MAX_INTERVAL_MILLIS.
+     */
+    public static final long DEFAULT_MAX_INTERVAL_MILLIS = 1000;
+
+    private final ScheduledExecutorService scheduler;
+    private final long initialIntervalMillis;
+    private final long maxIntervalMillis;
+    private final Set<Waiter<?>> waiterSet;
+    private final Map<Object, Set<Waiter<?>>> signalKeyWaiterMap;
+
+    /**
+     * Instantiates a new Jm async poller on
+     * {@link JMThread#getTimingWheelScheduler()}.
+     */
+    public JMAsyncPoller() {
+        this(JMThread.getTimingWheelScheduler(),
+                DEFAULT_INITIAL_INTERVAL_MILLIS, DEFAULT_MAX_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Instantiates a new Jm async poller.
+     *
+     * @param scheduler             the scheduler
+     * @param initialIntervalMillis the initial interval millis
+     * @param maxIntervalMillis     the max interval millis
+     */
+    public JMAsyncPoller(ScheduledExecutorService scheduler,
+            long initialIntervalMillis, long maxIntervalMillis) {
+        if (initialIntervalMillis < 1 ||
+                maxIntervalMillis < initialIntervalMillis)
+            throw new IllegalArgumentException(
+                    "Wrong Poll Interval !!! - initialIntervalMillis = " +
+                            initialIntervalMillis + ", maxIntervalMillis = " +
+                            maxIntervalMillis);
+        this.scheduler = scheduler;
+        this.initialIntervalMillis = initialIntervalMillis;
+        this.maxIntervalMillis = maxIntervalMillis;
+        this.waiterSet = ConcurrentHashMap.newKeySet();
+        this.signalKeyWaiterMap = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Poll when null completable future.
+     *
+     * @param <R>            the type parameter
+     * @param objectSupplier the object supplier
+     * @return the completable future
+     */
+    public <R> CompletableFuture<R> pollWhenNull(Supplier<R> objectSupplier) {
+        return pollWhenNull(Long.MAX_VALUE, objectSupplier);
+    }
+
+    /**
+     * Poll when null completable future.
+     *
+     * @param <R>            the type parameter
+     * @param timeoutMillis  the timeout millis, the future completes
+     *                       exceptionally with {@link TimeoutException}
+     *                       after it
+     * @param objectSupplier the object supplier
+     * @return the completable future
+     */
+    public <R> CompletableFuture<R> pollWhenNull(long timeoutMillis,
+            Supplier<R> objectSupplier) {
+        return pollWhenNull(timeoutMillis, objectSupplier, null);
+    }
+
+    /**
+     * Poll when null completable future.
+     *
+     * @param <R>            the type parameter
+     * @param timeoutMillis  the timeout millis, the future completes
+     *                       exceptionally with {@link TimeoutException}
+     *                       after it
+     * @param objectSupplier the object supplier
+     * @param signalKey      the key of {@link #signal(Object)} waking this
+     *                       waiter, null for none
+     * @return the completable future
+     */
+    public <R> CompletableFuture<R> pollWhenNull(long timeoutMillis,
+            Supplier<R> objectSupplier, Object signalKey) {
+        Waiter<R> waiter = new Waiter<>(objectSupplier, timeoutMillis);
+        waiterSet.add(waiter);
+        if (signalKey != null)
+            signalKeyWaiterMap.compute(signalKey, (key, keyWaiterSet) -> {
+                if (keyWaiterSet == null)
+                    keyWaiterSet = ConcurrentHashMap.newKeySet();
+                keyWaiterSet.add(waiter);
+                return keyWaiterSet;
+            });
+        waiter.future.whenComplete((result, throwable) -> {
+            waiterSet.remove(waiter);
+            if (signalKey != null)
+                signalKeyWaiterMap.computeIfPresent(signalKey,
+                        (key, keyWaiterSet) -> keyWaiterSet.remove(waiter) &&
+                                keyWaiterSet.isEmpty() ? null : keyWaiterSet);
+            waiter.cancelNextPoll();
+        });
+        waiter.poll();
+        return waiter.future;
+    }
+
+    /**
+     * Wakes the waiters of the signal key to re-poll now, with their backoff
+     * started over.
+     *
+     * @param signalKey the signal key
+     */
+    public void signal(Object signalKey) {
+        Set<Waiter<?>> keyWaiterSet = signalKeyWaiterMap.get(signalKey);
+        if (keyWaiterSet != null)
+            keyWaiterSet.forEach(Waiter::wake);
+    }
+
+    /**
+     * Gets waiter count.
+     *
+     * @return the waiter count
+     */
+    public int getWaiterCount() {
+        return waiterSet.size();
+    }
+
+    private long buildBackoffMillis(int attempt) {
+        long intervalMillis = initialIntervalMillis << Math.min(attempt, 30);
+        if (intervalMillis <= 0 || intervalMillis > maxIntervalMillis)
+            intervalMillis = maxIntervalMillis;
+        // equal jitter keeps at least half of the interval
+        long halfMillis = intervalMillis / 2;
+        return halfMillis + ThreadLocalRandom.current()
+                .nextLong(intervalMillis - halfMillis + 1);
+    }
+
+    private class Waiter<R> {
+        private final Supplier<R> objectSupplier;
+        private final boolean hasDeadline;
+        private final long startNanos;
+        private final long timeoutNanos;
+        private final CompletableFuture<R> future;
+        private int attempt;
+        private volatile ScheduledFuture<?> nextPoll;
+
+        // the remaining time is the timeout minus the elapsed time, which
+        // can't overflow as a start plus timeout deadline can
+        private Waiter(Supplier<R> objectSupplier, long timeoutMillis) {
+            this.objectSupplier = objectSupplier;
+            this.hasDeadline = timeoutMillis != Long.MAX_VALUE;
+            this.startNanos = System.nanoTime();
+            this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            this.future = new CompletableFuture<>();
+        }
+
+        private synchronized void poll() {
+            if (future.isDone())
+                return;
+            try {
+                R object = objectSupplier.get();
+                if (object != null) {
+                    future.complete(object);
+                    return;
+                }
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+                return;
+            }
+            long delayNanos = TimeUnit.MILLISECONDS
+                    .toNanos(buildBackoffMillis(attempt++));
+            if (hasDeadline) {
+                long remainingNanos =
+                        timeoutNanos - (System.nanoTime() - startNanos);
+                if (remainingNanos <= 0) {
+                    future.completeExceptionally(new TimeoutException(
+                            "Poll When Null Timeout !!!"));
+                    return;
+                }
+                delayNanos = Math.min(remainingNanos, delayNanos);
+            }
+            cancelNextPoll();
+            try {
+                nextPoll = scheduler
+                        .schedule(this::poll, delayNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        private synchronized void wake() {
+            if (future.isDone())
+                return;
+            attempt = 0;
+            cancelNextPoll();
+            try {
+                nextPoll = scheduler.schedule(this::poll, 0,
+                        TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        private void cancelNextPoll() {
+            Optional.ofNullable(nextPoll).ifPresent(
+                    scheduledFuture -> scheduledFuture.cancel(false));
+        }
+    }
+}
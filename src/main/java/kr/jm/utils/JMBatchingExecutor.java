@@ -0,0 +1,309 @@
+package kr.jm.utils;
+
+import kr.jm.utils.exception.JMExceptionManager;
+import kr.jm.utils.helper.JMThread;
+import kr.jm.utils.stats.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * The type Jm batching executor.
+ * <p>
+ * Coalesces submitted items into batches for one batch consumer. A batch is
+ * flushed when it reaches {@code maxBatchSize} items or when its first item
+ * has waited {@code maxLingerMillis}, whichever comes first. Items are
+ * buffered in {@link JMThread#getLimitedBlockingQueue(int)}, so
+ * {@link #submit(Object)} blocks while the buffer is full and the consumer
+ * falls behind. Batches are handed to the consumer one at a time, in
+ * submission order, on a single flusher thread.
+ * <p>
+ * Submissions hold the read lock of an admission lock that {@link #close()}
+ * takes for writing, so an item accepted before the close is always flushed
+ * and none is accepted after it.
+ *
+ * @param <T> the type parameter
+ */
+public class JMBatchingExecutor<T> implements AutoCloseable {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory
+            .getLogger(JMBatchingExecutor.class);
+    private static final long CLOSE_CHECK_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final BlockingQueue<T> buffer;
+    private final Consumer<List<T>> batchConsumer;
+    private final ExecutorService flusherPool;
+    private final LatencyHistogram batchSizeHistogram;
+    private final Map<FlushReason, LongAdder> flushReasonCountMap;
+    private final LongAdder submittedCount;
+    private final LongAdder failedBatchCount;
+    private final ReadWriteLock admissionLock;
+    private volatile boolean isClosed;
+
+    /**
+     * Instantiates a new Jm batching executor.
+     *
+     * @param maxBatchSize    the max batch size
+     * @param maxLingerMillis the max linger millis
+     * @param maxBufferSize   the max buffer size
+     * @param batchConsumer   the batch consumer
+     */
+    public JMBatchingExecutor(int maxBatchSize, long maxLingerMillis,
+            int maxBufferSize, Consumer<List<T>> batchConsumer) {
+        this(maxBatchSize, maxLingerMillis, maxBufferSize, batchConsumer,
+                JMThread.newSingleThreadPool());
+    }
+
+    /**
+     * Instantiates a new Jm batching executor.
+     *
+     * @param maxBatchSize    the max batch size
+     * @param maxLingerMillis the max linger millis
+     * @param maxBufferSize   the max buffer size
+     * @param batchConsumer   the batch consumer
+     * @param flusherPool     the flusher pool, one of its threads is kept for
+     *                        the flush loop until close
+     */
+    public JMBatchingExecutor(int maxBatchSize, long maxLingerMillis,
+            int maxBufferSize, Consumer<List<T>> batchConsumer,
+            ExecutorService flusherPool) {
+        if (maxBatchSize < 1 || maxLingerMillis < 0 || maxBufferSize < 1)
+            throw new IllegalArgumentException(
+                    "Wrong Batching Config !!! - maxBatchSize = " +
+                            maxBatchSize + ", maxLingerMillis = " +
+                            maxLingerMillis + ", maxBufferSize = " +
+                            maxBufferSize);
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerNanos = TimeUnit.MILLISECONDS.toNanos(maxLingerMillis);
+        this.buffer = JMThread.getLimitedBlockingQueue(maxBufferSize);
+        this.batchConsumer = batchConsumer;
+        this.flusherPool = flusherPool;
+        this.batchSizeHistogram = LatencyHistogram.of();
+        this.flushReasonCountMap = new EnumMap<>(FlushReason.class);
+        for (FlushReason flushReason : FlushReason.values())
+            flushReasonCountMap.put(flushReason, new LongAdder());
+        this.submittedCount = new LongAdder();
+        this.failedBatchCount = new LongAdder();
+        this.admissionLock = new ReentrantReadWriteLock();
+        flusherPool.execute(this::runFlushLoop);
+    }
+
+    /**
+     * Submit, blocking while the buffer is full.
+     *
+     * @param item the item
+     */
+    public void submit(T item) {
+        Lock readLock = admissionLock.readLock();
+        readLock.lock();
+        try {
+            checkClosed();
+            buffer.put(item);
+            submittedCount.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(e);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Try submit boolean.
+     *
+     * @param item          the item
+     * @param timeoutMillis the timeout millis
+     * @return false if the buffer stayed full for timeoutMillis
+     */
+    public boolean trySubmit(T item, long timeoutMillis) {
+        Lock readLock = admissionLock.readLock();
+        readLock.lock();
+        try {
+            checkClosed();
+            if (!buffer.offer(item, timeoutMillis, TimeUnit.MILLISECONDS))
+                return false;
+            submittedCount.increment();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void checkClosed() {
+        if (isClosed)
+            throw new RejectedExecutionException(
+                    "JMBatchingExecutor Was Closed !!!");
+    }
+
+    private void runFlushLoop() {
+        List<T> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!isClosed || !buffer.isEmpty()) {
+                T first = buffer.poll(CLOSE_CHECK_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                flush(batch, fillBatch(batch));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            buffer.drainTo(batch);
+            flush(batch, FlushReason.CLOSE);
+        }
+    }
+
+    private FlushReason fillBatch(List<T> batch) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + maxLingerNanos;
+        while (true) {
+            buffer.drainTo(batch, maxBatchSize - batch.size());
+            if (batch.size() >= maxBatchSize)
+                return FlushReason.SIZE;
+            if (isClosed)
+                return FlushReason.CLOSE;
+            long remainingNanos = deadlineNanos - System.nanoTime();
+            if (remainingNanos <= 0)
+                return FlushReason.LINGER;
+            T item = buffer.poll(Math.min(remainingNanos, CLOSE_CHECK_NANOS),
+                    TimeUnit.NANOSECONDS);
+            if (item != null)
+                batch.add(item);
+        }
+    }
+
+    private void flush(List<T> batch, FlushReason flushReason) {
+        if (batch.isEmpty())
+            return;
+        batchSizeHistogram.record(batch.size());
+        flushReasonCountMap.get(flushReason).increment();
+        try {
+            batchConsumer.accept(new ArrayList<>(batch));
+        } catch (Throwable throwable) {
+            failedBatchCount.increment();
+            JMExceptionManager.handleException(log, throwable, "flush",
+                    batch.size(), flushReason);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Gets buffer size.
+     *
+     * @return the buffer size
+     */
+    public int getBufferSize() {
+        return buffer.size();
+    }
+
+    /**
+     * Gets submitted count.
+     *
+     * @return the submitted count
+     */
+    public long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+
+    /**
+     * Gets failed batch count.
+     *
+     * @return the failed batch count
+     */
+    public long getFailedBatchCount() {
+        return failedBatchCount.sum();
+    }
+
+    /**
+     * Gets batch size histogram.
+     *
+     * @return a copy of the batch size histogram
+     */
+    public LatencyHistogram getBatchSizeHistogram() {
+        return batchSizeHistogram.copy();
+    }
+
+    /**
+     * Gets flush reason count map.
+     *
+     * @return the flush reason count map
+     */
+    public Map<FlushReason, Long> getFlushReasonCountMap() {
+        Map<FlushReason, Long> countMap = new EnumMap<>(FlushReason.class);
+        flushReasonCountMap.forEach((flushReason, count) -> countMap
+                .put(flushReason, count.sum()));
+        return Collections.unmodifiableMap(countMap);
+    }
+
+    /**
+     * Is closed boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+    /**
+     * Stops accepting items, flushes the buffered ones and waits for the
+     * flusher to finish. Submissions in progress, blocked on a full buffer
+     * included, are accepted first.
+     */
+    @Override
+    public void close() {
+        Lock writeLock = admissionLock.writeLock();
+        writeLock.lock();
+        try {
+            isClosed = true;
+        } finally {
+            writeLock.unlock();
+        }
+        flusherPool.shutdown();
+        JMThread.awaitTermination(flusherPool);
+    }
+
+    @Override
+    public String toString() {
+        return "JMBatchingExecutor{" + "maxBatchSize=" + maxBatchSize +
+                ", maxLingerMillis=" +
+                TimeUnit.NANOSECONDS.toMillis(maxLingerNanos) +
+                ", bufferSize=" + getBufferSize() + ", submittedCount=" +
+                getSubmittedCount() + ", flushReasonCountMap=" +
+                getFlushReasonCountMap() + '}';
+    }
+
+    /**
+     * The enum Flush reason.
+     */
+    public enum FlushReason {
+        /**
+         * The batch reached maxBatchSize.
+         */
+        SIZE,
+        /**
+         * The first item of the batch waited maxLingerMillis.
+         */
+        LINGER,
+        /**
+         * The executor was closed.
+         */
+        CLOSE
+    }
+}
@@ -0,0 +1,239 @@
+package kr.jm.utils;
+
+import kr.jm.utils.helper.JMThread;
+import kr.jm.utils.stats.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The type Jm hedged executor.
+ * <p>
+ * Runs a supplier on the executor and, if it has not succeeded after the
+ * hedge delay, starts one duplicate attempt. The first successful result
+ * completes the returned future and the other attempt is cancelled with
+ * interruption. An attempt failing before the hedge delay starts the
+ * duplicate at once; the future fails only when both attempts failed.
+ * <p>
+ * The hedge delay is either fixed or the measured percentile (p95 by
+ * default) of the successful attempt latencies, falling back to the fixed
+ * delay until {@link #MIN_SAMPLES} latencies were recorded. Hedging only
+ * suits idempotent suppliers.
+ */
+public class JMHedgedExecutor {
+
+    /**
+     * The constant DEFAULT_HEDGE_PERCENTILE.
+     */
+    public static final double DEFAULT_HEDGE_PERCENTILE = 95;
+    /**
+     * The constant MIN_SAMPLES.
+     */
+    public static final int MIN_SAMPLES = 20;
+
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+    private final long fallbackDelayNanos;
+    private final double hedgePercentile;
+    private final LatencyHistogram latencyHistogram;
+    private final LongAdder hedgedCount;
+    private final LongAdder hedgeWinCount;
+
+    /**
+     * Instantiates a new Jm hedged executor with a fixed hedge delay.
+     *
+     * @param executor         the executor
+     * @param hedgeDelayMillis the hedge delay millis
+     */
+    public JMHedgedExecutor(Executor executor, long hedgeDelayMillis) {
+        this(executor, hedgeDelayMillis, 0,
+                JMThread.getTimingWheelScheduler());
+    }
+
+    /**
+     * Instantiates a new Jm hedged executor.
+     *
+     * @param executor            the executor
+     * @param fallbackDelayMillis the hedge delay until enough latencies were
+     *                            measured, or always if hedgePercentile is 0
+     * @param hedgePercentile     the hedge percentile, 0 for a fixed delay
+     * @param scheduler           the scheduler
+     */
+    public JMHedgedExecutor(Executor executor, long fallbackDelayMillis,
+            double hedgePercentile, ScheduledExecutorService scheduler) {
+        if (fallbackDelayMillis < 0 || hedgePercentile < 0 ||
+                hedgePercentile > 100)
+            throw new IllegalArgumentException(
+                    "Wrong Hedge Delay !!! - fallbackDelayMillis = " +
+                            fallbackDelayMillis + ", hedgePercentile = " +
+                            hedgePercentile);
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.fallbackDelayNanos =
+                TimeUnit.MILLISECONDS.toNanos(fallbackDelayMillis);
+        this.hedgePercentile = hedgePercentile;
+        this.latencyHistogram = LatencyHistogram.of();
+        this.hedgedCount = new LongAdder();
+        this.hedgeWinCount = new LongAdder();
+    }
+
+    /**
+     * Of percentile jm hedged executor.
+     *
+     * @param executor            the executor
+     * @param fallbackDelayMillis the fallback delay millis
+     * @return the jm hedged executor hedging after the measured p95
+     */
+    public static JMHedgedExecutor ofPercentile(Executor executor,
+            long fallbackDelayMillis) {
+        return new JMHedgedExecutor(executor, fallbackDelayMillis,
+                DEFAULT_HEDGE_PERCENTILE, JMThread.getTimingWheelScheduler());
+    }
+
+    /**
+     * Gets hedge delay millis.
+     *
+     * @return the current hedge delay millis
+     */
+    public long getHedgeDelayMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(buildHedgeDelayNanos());
+    }
+
+    private long buildHedgeDelayNanos() {
+        return hedgePercentile > 0 &&
+                latencyHistogram.getCount() >= MIN_SAMPLES ?
+                latencyHistogram.getPercentile(hedgePercentile) :
+                fallbackDelayNanos;
+    }
+
+    /**
+     * Gets latency nanos histogram.
+     *
+     * @return a copy of the successful attempt latency histogram
+     */
+    public LatencyHistogram getLatencyNanosHistogram() {
+        return latencyHistogram.copy();
+    }
+
+    /**
+     * Gets hedged count.
+     *
+     * @return the number of duplicate attempts started
+     */
+    public long getHedgedCount() {
+        return hedgedCount.sum();
+    }
+
+    /**
+     * Gets hedge win count.
+     *
+     * @return the number of calls won by the duplicate attempt
+     */
+    public long getHedgeWinCount() {
+        return hedgeWinCount.sum();
+    }
+
+    /**
+     * Supply async completable future.
+     *
+     * @param <U>      the type parameter
+     * @param supplier the supplier
+     * @return the completable future
+     */
+    public <U> CompletableFuture<U> supplyAsync(Supplier<U> supplier) {
+        HedgedCall<U> hedgedCall = new HedgedCall<>(supplier);
+        hedgedCall.launch(false);
+        if (!hedgedCall.result.isDone()) {
+            ScheduledFuture<?> hedge = scheduler
+                    .schedule(hedgedCall::hedge, buildHedgeDelayNanos(),
+                            TimeUnit.NANOSECONDS);
+            hedgedCall.result
+                    .whenComplete((u, throwable) -> hedge.cancel(false));
+        }
+        return hedgedCall.result;
+    }
+
+    @Override
+    public String toString() {
+        return "JMHedgedExecutor{" + "hedgeDelayMillis=" +
+                getHedgeDelayMillis() + ", hedgedCount=" + getHedgedCount() +
+                ", hedgeWinCount=" + getHedgeWinCount() + '}';
+    }
+
+    private class HedgedCall<U> {
+        private final Supplier<U> supplier;
+        private final CompletableFuture<U> result;
+        private final List<Future<?>> attemptList;
+        private int runningCount;
+        private boolean isHedged;
+
+        private HedgedCall(Supplier<U> supplier) {
+            this.supplier = supplier;
+            this.result = new CompletableFuture<>();
+            this.attemptList = new ArrayList<>(2);
+            this.runningCount = 1;
+            result.whenComplete((u, throwable) -> cancelAttempts());
+        }
+
+        private void hedge() {
+            synchronized (this) {
+                if (result.isDone() || isHedged)
+                    return;
+                isHedged = true;
+                runningCount++;
+            }
+            hedgedCount.increment();
+            launch(true);
+        }
+
+        // the caller counts the attempt in runningCount first, and the
+        // executor is called outside the lock as it may block or run inline
+        private void launch(boolean isHedge) {
+            long startNanos = System.nanoTime();
+            FutureTask<Void> attempt = new FutureTask<>(() -> {
+                try {
+                    U u = supplier.get();
+                    latencyHistogram.record(System.nanoTime() - startNanos);
+                    if (result.complete(u) && isHedge)
+                        hedgeWinCount.increment();
+                } catch (Throwable throwable) {
+                    onFailure(throwable);
+                }
+            }, null);
+            synchronized (this) {
+                attemptList.add(attempt);
+            }
+            try {
+                executor.execute(attempt);
+            } catch (RejectedExecutionException e) {
+                onFailure(e);
+            }
+        }
+
+        private void onFailure(Throwable throwable) {
+            synchronized (this) {
+                if (--runningCount > 0 || result.isDone())
+                    return;
+                if (isHedged) {
+                    result.completeExceptionally(throwable);
+                    return;
+                }
+                isHedged = true;
+                runningCount++;
+            }
+            hedgedCount.increment();
+            launch(true);
+        }
+
+        private void cancelAttempts() {
+            List<Future<?>> attempts;
+            synchronized (this) {
+                attempts = new ArrayList<>(attemptList);
+            }
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+}
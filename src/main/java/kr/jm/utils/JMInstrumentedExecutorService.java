@@ -0,0 +1,406 @@
+package kr.jm.utils;
+
+import kr.jm.utils.collections.JMLimitedQueue;
+import kr.jm.utils.helper.JMOptional;
+import kr.jm.utils.stats.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The type Jm instrumented executor service.
+ * <p>
+ * Wraps an executor service and records the queue wait and the run time of
+ * every task in nanoseconds, the failure count and periodic queue depth
+ * samples. The queue depth is tracked as submitted minus started tasks so it
+ * works for any delegate, not only {@link ThreadPoolExecutor}.
+ */
+public class JMInstrumentedExecutorService extends AbstractExecutorService {
+
+    /**
+     * The constant DEFAULT_SAMPLE_INTERVAL_MILLIS.
+     */
+    public static final long DEFAULT_SAMPLE_INTERVAL_MILLIS = 1000;
+    /**
+     * The constant DEFAULT_SAMPLE_HISTORY_SIZE.
+     */
+    public static final int DEFAULT_SAMPLE_HISTORY_SIZE = 60;
+
+    /**
+     * The Delegate.
+     */
+    protected final ExecutorService delegate;
+    private final LatencyHistogram queueWaitHistogram;
+    private final LatencyHistogram runHistogram;
+    private final LatencyHistogram queueDepthHistogram;
+    private final JMLimitedQueue<Integer> queueDepthSamples;
+    private final LongAdder submittedCount;
+    private final LongAdder completedCount;
+    private final LongAdder failedCount;
+    private final AtomicInteger queueDepth;
+    private final ScheduledExecutorService sampler;
+
+    /**
+     * Instantiates a new Jm instrumented executor service.
+     *
+     * @param delegate the delegate
+     */
+    public JMInstrumentedExecutorService(ExecutorService delegate) {
+        this(delegate, DEFAULT_SAMPLE_INTERVAL_MILLIS,
+                DEFAULT_SAMPLE_HISTORY_SIZE);
+    }
+
+    /**
+     * Instantiates a new Jm instrumented executor service.
+     *
+     * @param delegate             the delegate
+     * @param sampleIntervalMillis the sample interval millis, no sampling if
+     *                             less than 1
+     * @param sampleHistorySize    the sample history size
+     */
+    public JMInstrumentedExecutorService(ExecutorService delegate,
+            long sampleIntervalMillis, int sampleHistorySize) {
+        this.delegate = delegate;
+        this.queueWaitHistogram = LatencyHistogram.of();
+        this.runHistogram = LatencyHistogram.of();
+        this.queueDepthHistogram = LatencyHistogram.of();
+        this.queueDepthSamples = new JMLimitedQueue<>(sampleHistorySize);
+        this.submittedCount = new LongAdder();
+        this.completedCount = new LongAdder();
+        this.failedCount = new LongAdder();
+        this.queueDepth = new AtomicInteger();
+        this.sampler = sampleIntervalMillis > 0 ? startSampler(
+                sampleIntervalMillis) : null;
+    }
+
+    private ScheduledExecutorService startSampler(long sampleIntervalMillis) {
+        ScheduledExecutorService sampler =
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable,
+                            "JMInstrumentedExecutorService-sampler");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        sampler.scheduleAtFixedRate(this::sampleQueueDepth,
+                sampleIntervalMillis, sampleIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        return sampler;
+    }
+
+    /**
+     * Sample queue depth int.
+     *
+     * @return the int
+     */
+    public int sampleQueueDepth() {
+        int depth = getQueueDepth();
+        queueDepthHistogram.record(depth);
+        queueDepthSamples.add(depth);
+        return depth;
+    }
+
+    /**
+     * Gets queue depth.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Gets delegate.
+     *
+     * @return the delegate
+     */
+    public ExecutorService getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Snapshot snapshot.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        List<Integer> samples = new ArrayList<>(queueDepthSamples);
+        return new Snapshot(submittedCount.longValue(),
+                completedCount.longValue(), failedCount.longValue(),
+                getQueueDepth(), queueWaitHistogram.copy(),
+                runHistogram.copy(), queueDepthHistogram.copy(),
+                Collections.unmodifiableList(samples));
+    }
+
+    /**
+     * Reset.
+     */
+    public void reset() {
+        queueWaitHistogram.reset();
+        runHistogram.reset();
+        queueDepthHistogram.reset();
+        queueDepthSamples.clear();
+        submittedCount.reset();
+        completedCount.reset();
+        failedCount.reset();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        long submitNanos = System.nanoTime();
+        recordSubmitted();
+        queueDepth.incrementAndGet();
+        try {
+            delegate.execute(buildInstrumentedRunnable(submitNanos, command));
+        } catch (RejectedExecutionException e) {
+            queueDepth.decrementAndGet();
+            failedCount.increment();
+            throw e;
+        }
+    }
+
+    private Runnable buildInstrumentedRunnable(long submitNanos,
+            Runnable command) {
+        return () -> {
+            long startNanos = System.nanoTime();
+            queueDepth.decrementAndGet();
+            recordQueueWait(startNanos - submitNanos);
+            runAndRecord(command, startNanos);
+        };
+    }
+
+    /**
+     * Record queue wait.
+     *
+     * @param queueWaitNanos the queue wait nanos
+     */
+    protected void recordQueueWait(long queueWaitNanos) {
+        queueWaitHistogram.record(queueWaitNanos);
+    }
+
+    /**
+     * Run and record.
+     *
+     * @param command    the command
+     * @param startNanos the start nanos
+     */
+    protected void runAndRecord(Runnable command, long startNanos) {
+        try {
+            command.run();
+        } catch (RuntimeException | Error e) {
+            failedCount.increment();
+            throw e;
+        } finally {
+            recordRun(startNanos);
+        }
+    }
+
+    /**
+     * Call and record t.
+     *
+     * @param <T>        the type parameter
+     * @param callable   the callable
+     * @param startNanos the start nanos
+     * @return the t
+     * @throws Exception the exception
+     */
+    protected <T> T callAndRecord(Callable<T> callable, long startNanos)
+            throws Exception {
+        try {
+            return callable.call();
+        } catch (Exception | Error e) {
+            failedCount.increment();
+            throw e;
+        } finally {
+            recordRun(startNanos);
+        }
+    }
+
+    private void recordRun(long startNanos) {
+        runHistogram.record(System.nanoTime() - startNanos);
+        completedCount.increment();
+    }
+
+    /**
+     * Record submitted.
+     */
+    protected void recordSubmitted() {
+        submittedCount.increment();
+    }
+
+    private void recordFailure() {
+        failedCount.increment();
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new FailureCountingFutureTask<>(
+                Executors.callable(runnable, value));
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new FailureCountingFutureTask<>(callable);
+    }
+
+    private class FailureCountingFutureTask<T> extends FutureTask<T> {
+        FailureCountingFutureTask(Callable<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            recordFailure();
+            super.setException(t);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        JMOptional.ifNotNull(sampler, ExecutorService::shutdown);
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        JMOptional.ifNotNull(sampler, ExecutorService::shutdownNow);
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return "JMInstrumentedExecutorService{" + "delegate=" + delegate +
+                ", snapshot=" + snapshot() + '}';
+    }
+
+    /**
+     * The type Snapshot.
+     */
+    public static class Snapshot {
+        private final long submittedCount;
+        private final long completedCount;
+        private final long failedCount;
+        private final int queueDepth;
+        private final LatencyHistogram queueWaitNanosHistogram;
+        private final LatencyHistogram runNanosHistogram;
+        private final LatencyHistogram queueDepthHistogram;
+        private final List<Integer> queueDepthSampleList;
+
+        private Snapshot(long submittedCount, long completedCount,
+                long failedCount, int queueDepth,
+                LatencyHistogram queueWaitNanosHistogram,
+                LatencyHistogram runNanosHistogram,
+                LatencyHistogram queueDepthHistogram,
+                List<Integer> queueDepthSampleList) {
+            this.submittedCount = submittedCount;
+            this.completedCount = completedCount;
+            this.failedCount = failedCount;
+            this.queueDepth = queueDepth;
+            this.queueWaitNanosHistogram = queueWaitNanosHistogram;
+            this.runNanosHistogram = runNanosHistogram;
+            this.queueDepthHistogram = queueDepthHistogram;
+            this.queueDepthSampleList = queueDepthSampleList;
+        }
+
+        /**
+         * Gets submitted count.
+         *
+         * @return the submitted count
+         */
+        public long getSubmittedCount() {
+            return submittedCount;
+        }
+
+        /**
+         * Gets completed count.
+         *
+         * @return the completed count
+         */
+        public long getCompletedCount() {
+            return completedCount;
+        }
+
+        /**
+         * Gets failed count.
+         *
+         * @return the failed count
+         */
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        /**
+         * Gets queue depth.
+         *
+         * @return the queue depth
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * Gets queue wait nanos histogram.
+         *
+         * @return the queue wait nanos histogram
+         */
+        public LatencyHistogram getQueueWaitNanosHistogram() {
+            return queueWaitNanosHistogram;
+        }
+
+        /**
+         * Gets run nanos histogram.
+         *
+         * @return the run nanos histogram
+         */
+        public LatencyHistogram getRunNanosHistogram() {
+            return runNanosHistogram;
+        }
+
+        /**
+         * Gets queue depth histogram.
+         *
+         * @return the queue depth histogram
+         */
+        public LatencyHistogram getQueueDepthHistogram() {
+            return queueDepthHistogram;
+        }
+
+        /**
+         * Gets queue depth sample list.
+         *
+         * @return the queue depth sample list
+         */
+        public List<Integer> getQueueDepthSampleList() {
+            return queueDepthSampleList;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{" + "submittedCount=" + submittedCount +
+                    ", completedCount=" + completedCount + ", failedCount=" +
+                    failedCount + ", queueDepth=" + queueDepth +
+                    ", queueWaitNanosHistogram=" + queueWaitNanosHistogram +
+                    ", runNanosHistogram=" + runNanosHistogram +
+                    ", queueDepthSampleList=" + queueDepthSampleList + '}';
+        }
+    }
+}
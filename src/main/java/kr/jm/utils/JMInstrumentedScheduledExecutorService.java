@@ -0,0 +1,101 @@
+package kr.jm.utils;
+
+import java.util.concurrent.*;
+
+/**
+ * The type Jm instrumented scheduled executor service.
+ * <p>
+ * For scheduled tasks the queue wait is the lateness of each run against its
+ * due time (fixed rate: previous due time plus period, fixed delay: previous
+ * end plus delay).
+ */
+public class JMInstrumentedScheduledExecutorService extends
+        JMInstrumentedExecutorService implements ScheduledExecutorService {
+
+    private final ScheduledExecutorService scheduledDelegate;
+
+    /**
+     * Instantiates a new Jm instrumented scheduled executor service.
+     *
+     * @param delegate the delegate
+     */
+    public JMInstrumentedScheduledExecutorService(
+            ScheduledExecutorService delegate) {
+        this(delegate, DEFAULT_SAMPLE_INTERVAL_MILLIS,
+                DEFAULT_SAMPLE_HISTORY_SIZE);
+    }
+
+    /**
+     * Instantiates a new Jm instrumented scheduled executor service.
+     *
+     * @param delegate             the delegate
+     * @param sampleIntervalMillis the sample interval millis
+     * @param sampleHistorySize    the sample history size
+     */
+    public JMInstrumentedScheduledExecutorService(
+            ScheduledExecutorService delegate, long sampleIntervalMillis,
+            int sampleHistorySize) {
+        super(delegate, sampleIntervalMillis, sampleHistorySize);
+        this.scheduledDelegate = delegate;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay,
+            TimeUnit unit) {
+        recordSubmitted();
+        long dueNanos = System.nanoTime() + unit.toNanos(delay);
+        return scheduledDelegate.schedule(() -> {
+            long startNanos = System.nanoTime();
+            recordQueueWait(startNanos - dueNanos);
+            runAndRecord(command, startNanos);
+        }, delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay,
+            TimeUnit unit) {
+        recordSubmitted();
+        long dueNanos = System.nanoTime() + unit.toNanos(delay);
+        return scheduledDelegate.schedule(() -> {
+            long startNanos = System.nanoTime();
+            recordQueueWait(startNanos - dueNanos);
+            return callAndRecord(callable, startNanos);
+        }, delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command,
+            long initialDelay, long period, TimeUnit unit) {
+        recordSubmitted();
+        return scheduledDelegate.scheduleAtFixedRate(
+                buildPeriodicRunnable(command, unit.toNanos(initialDelay),
+                        unit.toNanos(period), true), initialDelay, period,
+                unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command,
+            long initialDelay, long delay, TimeUnit unit) {
+        recordSubmitted();
+        return scheduledDelegate.scheduleWithFixedDelay(
+                buildPeriodicRunnable(command, unit.toNanos(initialDelay),
+                        unit.toNanos(delay), false), initialDelay, delay,
+                unit);
+    }
+
+    private Runnable buildPeriodicRunnable(Runnable command,
+            long initialDelayNanos, long periodNanos, boolean isFixedRate) {
+        long[] dueNanos = {System.nanoTime() + initialDelayNanos};
+        return () -> {
+            long startNanos = System.nanoTime();
+            recordQueueWait(startNanos - dueNanos[0]);
+            try {
+                runAndRecord(command, startNanos);
+            } finally {
+                dueNanos[0] = isFixedRate ? dueNanos[0] + periodNanos :
+                        System.nanoTime() + periodNanos;
+            }
+        };
+    }
+
+}
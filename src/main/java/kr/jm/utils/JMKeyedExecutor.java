@@ -0,0 +1,254 @@
+package kr.jm.utils;
+
+import kr.jm.utils.exception.JMExceptionManager;
+import kr.jm.utils.helper.JMThread;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The type Jm keyed executor.
+ * <p>
+ * Hashes every key onto one of a fixed number of serial lanes. Tasks of the
+ * same key run one at a time in submission order, while different lanes are
+ * drained in parallel on a shared worker pool. Bounded lanes use
+ * {@link JMThread#getLimitedBlockingQueue(int)} or
+ * {@link JMThread#getWaitingLimitedBlockingQueue(long, int)}, so a producer
+ * blocks when its lane is full.
+ *
+ * @param <K> the type parameter
+ */
+public class JMKeyedExecutor<K> implements AutoCloseable {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory
+            .getLogger(JMKeyedExecutor.class);
+    private static final int MAX_DRAIN_PER_RUN = 64;
+
+    private final ExecutorService workerPool;
+    private final List<Lane> laneList;
+
+    /**
+     * Instantiates a new Jm keyed executor.
+     *
+     * @param numOfLanes   the num of lanes
+     * @param numOfThreads the num of threads
+     */
+    public JMKeyedExecutor(int numOfLanes, int numOfThreads) {
+        this(numOfLanes, JMThread.newThreadPool(numOfThreads));
+    }
+
+    /**
+     * Instantiates a new Jm keyed executor with unbounded lanes.
+     *
+     * @param numOfLanes the num of lanes
+     * @param workerPool the worker pool
+     */
+    public JMKeyedExecutor(int numOfLanes, ExecutorService workerPool) {
+        this(numOfLanes, workerPool, LinkedBlockingQueue::new);
+    }
+
+    /**
+     * Instantiates a new Jm keyed executor with bounded lanes.
+     *
+     * @param numOfLanes    the num of lanes
+     * @param maxLaneQueue  the max lane queue
+     * @param waitingMillis the waiting millis
+     * @param workerPool    the worker pool
+     */
+    public JMKeyedExecutor(int numOfLanes, int maxLaneQueue,
+            long waitingMillis, ExecutorService workerPool) {
+        this(numOfLanes, workerPool, () -> waitingMillis > 0 ? JMThread
+                .getWaitingLimitedBlockingQueue(waitingMillis,
+                        maxLaneQueue) : JMThread
+                .getLimitedBlockingQueue(maxLaneQueue));
+    }
+
+    private JMKeyedExecutor(int numOfLanes, ExecutorService workerPool,
+            Supplier<BlockingQueue<Runnable>> laneQueueSupplier) {
+        if (numOfLanes < 1)
+            throw new IllegalArgumentException(
+                    "Wrong Number Of Lanes !!! - numOfLanes = " + numOfLanes);
+        this.workerPool = workerPool;
+        this.laneList = IntStream.range(0, numOfLanes)
+                .mapToObj(i -> new Lane(laneQueueSupplier.get()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets num of lanes.
+     *
+     * @return the num of lanes
+     */
+    public int getNumOfLanes() {
+        return laneList.size();
+    }
+
+    /**
+     * Gets lane index.
+     *
+     * @param key the key
+     * @return the lane index
+     */
+    public int getLaneIndex(K key) {
+        int hash = key == null ? 0 : key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), laneList.size());
+    }
+
+    /**
+     * Gets lane queue size.
+     *
+     * @param laneIndex the lane index
+     * @return the lane queue size
+     */
+    public int getLaneQueueSize(int laneIndex) {
+        return laneList.get(laneIndex).queue.size();
+    }
+
+    /**
+     * Gets lane queue size list.
+     *
+     * @return the lane queue size list
+     */
+    public List<Integer> getLaneQueueSizeList() {
+        return IntStream.range(0, laneList.size()).map(this::getLaneQueueSize)
+                .boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * Gets worker pool.
+     *
+     * @return the worker pool
+     */
+    public ExecutorService getWorkerPool() {
+        return workerPool;
+    }
+
+    /**
+     * Execute.
+     *
+     * @param key      the key
+     * @param runnable the runnable
+     */
+    public void execute(K key, Runnable runnable) {
+        laneList.get(getLaneIndex(key)).add(runnable);
+    }
+
+    /**
+     * Run async completable future.
+     *
+     * @param key      the key
+     * @param runnable the runnable
+     * @return the completable future
+     */
+    public CompletableFuture<Void> runAsync(K key, Runnable runnable) {
+        return supplyAsync(key, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Supply async completable future.
+     *
+     * @param <U>      the type parameter
+     * @param key      the key
+     * @param supplier the supplier
+     * @return the completable future
+     */
+    public <U> CompletableFuture<U> supplyAsync(K key, Supplier<U> supplier) {
+        CompletableFuture<U> completableFuture = new CompletableFuture<>();
+        execute(key, () -> {
+            try {
+                completableFuture.complete(supplier.get());
+            } catch (Throwable throwable) {
+                completableFuture.completeExceptionally(throwable);
+            }
+        });
+        return completableFuture;
+    }
+
+    /**
+     * Shutdown.
+     */
+    public void shutdown() {
+        workerPool.shutdown();
+    }
+
+    /**
+     * Is shutdown boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isShutdown() {
+        return workerPool.isShutdown();
+    }
+
+    @Override
+    public void close() {
+        shutdown();
+        JMThread.awaitTermination(workerPool);
+    }
+
+    private class Lane implements Runnable {
+        private final BlockingQueue<Runnable> queue;
+        private final AtomicBoolean isScheduled;
+
+        private Lane(BlockingQueue<Runnable> queue) {
+            this.queue = queue;
+            this.isScheduled = new AtomicBoolean();
+        }
+
+        private void add(Runnable runnable) {
+            if (isShutdown())
+                throw new RejectedExecutionException(
+                        "JMKeyedExecutor Was Shutdown !!!");
+            if (queue.offer(runnable))
+                schedule();
+            else
+                throw new RejectedExecutionException(
+                        "Lane Queue Offer Failed !!!");
+        }
+
+        private void schedule() {
+            if (isScheduled.compareAndSet(false, true)) {
+                try {
+                    workerPool.execute(this);
+                } catch (RejectedExecutionException e) {
+                    isScheduled.set(false);
+                    throw e;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            drain(MAX_DRAIN_PER_RUN);
+            // the worker pool rejects new drains after shutdown
+            if (isShutdown())
+                drain(Integer.MAX_VALUE);
+            isScheduled.set(false);
+            if (!queue.isEmpty() && !isShutdown())
+                schedule();
+        }
+
+        private void drain(int maxDrain) {
+            Runnable runnable;
+            for (int i = 0; i < maxDrain && (runnable = queue.poll()) != null;
+                    i++)
+                runSafely(runnable);
+        }
+
+        private void runSafely(Runnable runnable) {
+            try {
+                runnable.run();
+            } catch (Throwable e) {
+                JMExceptionManager.handleException(log, e, "runSafely",
+                        runnable);
+            }
+        }
+    }
+}
@@ -0,0 +1,572 @@
+package kr.jm.utils;
+
+import kr.jm.utils.exception.JMExceptionManager;
+import kr.jm.utils.helper.JMThread;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The type Jm pipeline.
+ * <p>
+ * Immutable builder of a multi-stage pipeline: one source, any number of
+ * transform stages each with its own parallelism and a sink. Stages are
+ * connected by {@link JMThread#getLimitedBlockingQueue(int)} queues, so a
+ * slow stage blocks the stages before it down to the source instead of
+ * buffering without bound. A transform returning null drops the item, a
+ * failing transform is logged and drops it too.
+ * <p>
+ * In ordered mode the sink receives items in source order, restored from the
+ * source sequence numbers; in unordered mode they reach the sink as soon as
+ * they are done. The sink is called from a single thread. The ordered mode
+ * lets at most queue size times the largest stage parallelism items leave
+ * the source ahead of the next one the sink waits for, so a stalled item
+ * blocks the source instead of growing the reorder buffer without bound.
+ * <pre>{@code
+ * JMPipeline.fromStdIn().map("parse", 4, Integer::valueOf)
+ *         .map("square", 2, i -> i * i).ordered()
+ *         .start("print", System.out::println).awaitCompletion();
+ * }</pre>
+ *
+ * @param <T> the type parameter
+ * @see StdInLineConsumer
+ */
+public class JMPipeline<T> {
+
+    /**
+     * The constant DEFAULT_QUEUE_SIZE.
+     */
+    public static final int DEFAULT_QUEUE_SIZE = 1024;
+
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(JMPipeline.class);
+    private static final Item END = new Item(-1, null);
+
+    private final String sourceName;
+    private final Supplier<Stream<?>> sourceSupplier;
+    private final List<StageSpec> stageSpecList;
+    private final int queueSize;
+    private final boolean isOrdered;
+
+    private JMPipeline(String sourceName, Supplier<Stream<?>> sourceSupplier,
+            List<StageSpec> stageSpecList, int queueSize, boolean isOrdered) {
+        this.sourceName = sourceName;
+        this.sourceSupplier = sourceSupplier;
+        this.stageSpecList = Collections.unmodifiableList(stageSpecList);
+        this.queueSize = queueSize;
+        this.isOrdered = isOrdered;
+    }
+
+    /**
+     * From source jm pipeline.
+     *
+     * @param <T>            the type parameter
+     * @param sourceName     the source name
+     * @param streamSupplier the stream supplier, the stream is closed when
+     *                       drained
+     * @return the jm pipeline
+     */
+    public static <T> JMPipeline<T> fromSource(String sourceName,
+            Supplier<Stream<T>> streamSupplier) {
+        return new JMPipeline<>(sourceName, streamSupplier::get,
+                new ArrayList<>(), DEFAULT_QUEUE_SIZE, false);
+    }
+
+    /**
+     * From std in jm pipeline. Reads until the end of stdin, which is not
+     * closed.
+     *
+     * @return the jm pipeline
+     */
+    public static JMPipeline<String> fromStdIn() {
+        return fromSource("stdIn", () -> new BufferedReader(
+                new InputStreamReader(System.in)).lines());
+    }
+
+    /**
+     * From file lines jm pipeline.
+     *
+     * @param path the path
+     * @return the jm pipeline
+     */
+    public static JMPipeline<String> fromFileLines(Path path) {
+        return fromSource(path.toString(), () -> {
+            try {
+                return Files.lines(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * From input stream jm pipeline. The input stream is not closed.
+     *
+     * @param inputStream the input stream
+     * @return the jm pipeline
+     */
+    public static JMPipeline<String> fromInputStream(InputStream inputStream) {
+        return fromInputStream(inputStream, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * From input stream jm pipeline. The input stream is not closed.
+     *
+     * @param inputStream the input stream
+     * @param charset     the charset
+     * @return the jm pipeline
+     */
+    public static JMPipeline<String> fromInputStream(InputStream inputStream,
+            Charset charset) {
+        return fromSource("inputStream", () -> new BufferedReader(
+                new InputStreamReader(inputStream, charset)).lines());
+    }
+
+    /**
+     * Add a transform stage.
+     *
+     * @param <R>         the type parameter
+     * @param stageName   the stage name
+     * @param parallelism the parallelism
+     * @param function    the function, null drops the item
+     * @return the jm pipeline
+     */
+    @SuppressWarnings("unchecked")
+    public <R> JMPipeline<R> map(String stageName, int parallelism,
+            Function<T, R> function) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException(
+                    "Wrong Parallelism !!! - " + stageName + " = " +
+                            parallelism);
+        List<StageSpec> newStageSpecList = new ArrayList<>(stageSpecList);
+        newStageSpecList.add(new StageSpec(stageName, parallelism,
+                (Function<Object, Object>) function));
+        return new JMPipeline<>(sourceName, sourceSupplier, newStageSpecList,
+                queueSize, isOrdered);
+    }
+
+    /**
+     * With queue size jm pipeline.
+     *
+     * @param queueSize the size of every queue between stages
+     * @return the jm pipeline
+     */
+    public JMPipeline<T> withQueueSize(int queueSize) {
+        if (queueSize < 1)
+            throw new IllegalArgumentException(
+                    "Wrong Queue Size !!! - queueSize = " + queueSize);
+        return new JMPipeline<>(sourceName, sourceSupplier, stageSpecList,
+                queueSize, isOrdered);
+    }
+
+    /**
+     * Ordered jm pipeline.
+     *
+     * @return the jm pipeline delivering items to the sink in source order
+     */
+    public JMPipeline<T> ordered() {
+        return new JMPipeline<>(sourceName, sourceSupplier, stageSpecList,
+                queueSize, true);
+    }
+
+    /**
+     * Unordered jm pipeline.
+     *
+     * @return the jm pipeline delivering items to the sink when done
+     */
+    public JMPipeline<T> unordered() {
+        return new JMPipeline<>(sourceName, sourceSupplier, stageSpecList,
+                queueSize, false);
+    }
+
+    /**
+     * Start execution.
+     *
+     * @param sinkName the sink name
+     * @param sink     the sink
+     * @return the execution
+     */
+    @SuppressWarnings("unchecked")
+    public Execution start(String sinkName, Consumer<T> sink) {
+        return new Execution(sinkName, (Consumer<Object>) sink);
+    }
+
+    private static class StageSpec {
+        private final String name;
+        private final int parallelism;
+        private final Function<Object, Object> function;
+
+        private StageSpec(String name, int parallelism,
+                Function<Object, Object> function) {
+            this.name = name;
+            this.parallelism = parallelism;
+            this.function = function;
+        }
+    }
+
+    private static class Item {
+        private final long sequence;
+        private final Object value;
+
+        private Item(long sequence, Object value) {
+            this.sequence = sequence;
+            this.value = value;
+        }
+    }
+
+    /**
+     * The type Execution.
+     */
+    public class Execution implements AutoCloseable {
+        private final List<Stage> stageList;
+        private final CountDownLatch completedLatch;
+        private final Semaphore reorderWindow;
+        private final long startNanos;
+
+        private Execution(String sinkName, Consumer<Object> sink) {
+            this.completedLatch = new CountDownLatch(1);
+            this.reorderWindow = isOrdered ? new Semaphore(queueSize *
+                    stageSpecList.stream().mapToInt(spec -> spec.parallelism)
+                            .max().orElse(1)) : null;
+            this.startNanos = System.nanoTime();
+            this.stageList = new ArrayList<>();
+            Stage source = new Stage(sourceName, 1, null);
+            stageList.add(source);
+            BlockingQueue<Item> queue = JMThread.getLimitedBlockingQueue(
+                    queueSize);
+            source.outputQueue = queue;
+            for (StageSpec stageSpec : stageSpecList) {
+                Stage stage = new Stage(stageSpec.name,
+                        stageSpec.parallelism, queue);
+                stageList.add(stage);
+                stage.outputQueue =
+                        queue = JMThread.getLimitedBlockingQueue(queueSize);
+                stage.start(worker -> worker.transform(stageSpec.function));
+            }
+            Stage sinkStage = new Stage(sinkName, 1, queue);
+            stageList.add(sinkStage);
+            sinkStage.start(worker -> worker.sink(sink));
+            source.start(Stage::emitSource);
+        }
+
+        /**
+         * Await completion.
+         *
+         * @param timeoutMillis the timeout millis
+         * @return true if the sink received the end of the source
+         */
+        public boolean awaitCompletion(long timeoutMillis) {
+            try {
+                return completedLatch
+                        .await(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        /**
+         * Await completion without timeout.
+         */
+        public void awaitCompletion() {
+            while (!awaitCompletion(Long.MAX_VALUE)) {
+                if (Thread.currentThread().isInterrupted())
+                    return;
+            }
+        }
+
+        /**
+         * Is completed boolean.
+         *
+         * @return the boolean
+         */
+        public boolean isCompleted() {
+            return completedLatch.getCount() == 0;
+        }
+
+        /**
+         * Gets stage stats list.
+         *
+         * @return the stats of the source, every stage and the sink
+         */
+        public List<StageStats> getStageStatsList() {
+            double elapsedSeconds = Math.max(1,
+                    System.nanoTime() - startNanos) / 1_000_000_000d;
+            return stageList.stream()
+                    .map(stage -> stage.buildStats(elapsedSeconds))
+                    .collect(Collectors.toList());
+        }
+
+        /**
+         * Stops every stage, dropping the items in flight.
+         */
+        @Override
+        public void close() {
+            stageList.forEach(stage -> stage.pool.shutdownNow());
+        }
+
+        @Override
+        public String toString() {
+            return "Execution{" + "isOrdered=" + isOrdered +
+                    ", stageStatsList=" + getStageStatsList() + '}';
+        }
+
+        private class Stage {
+            private final String name;
+            private final int parallelism;
+            private final BlockingQueue<Item> inputQueue;
+            private final LongAdder processedCount;
+            private final LongAdder failedCount;
+            private final AtomicInteger activeWorkers;
+            private final AtomicInteger outputQueueHighWaterMark;
+            private BlockingQueue<Item> outputQueue;
+            private ExecutorService pool;
+
+            private Stage(String name, int parallelism,
+                    BlockingQueue<Item> inputQueue) {
+                this.name = name;
+                this.parallelism = parallelism;
+                this.inputQueue = inputQueue;
+                this.processedCount = new LongAdder();
+                this.failedCount = new LongAdder();
+                this.activeWorkers = new AtomicInteger(parallelism);
+                this.outputQueueHighWaterMark = new AtomicInteger();
+            }
+
+            private void start(Consumer<Stage> worker) {
+                this.pool = JMThread.newThreadPool(parallelism);
+                for (int i = 0; i < parallelism; i++)
+                    pool.execute(() -> worker.accept(this));
+                pool.shutdown();
+            }
+
+            private void put(Item item) throws InterruptedException {
+                outputQueue.put(item);
+                outputQueueHighWaterMark
+                        .accumulateAndGet(outputQueue.size(), Math::max);
+            }
+
+            private void emitSource() {
+                long sequence = 0;
+                try (Stream<?> stream = sourceSupplier.get()) {
+                    Iterator<?> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        Object value = iterator.next();
+                        if (reorderWindow != null)
+                            reorderWindow.acquire();
+                        put(new Item(sequence++, value));
+                        processedCount.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    failedCount.increment();
+                    JMExceptionManager.handleException(log, e, "emitSource",
+                            name);
+                } finally {
+                    finish();
+                }
+            }
+
+            private void transform(Function<Object, Object> function) {
+                try {
+                    Item item;
+                    while ((item = inputQueue.take()) != END) {
+                        Object value = null;
+                        try {
+                            value = function.apply(item.value);
+                            processedCount.increment();
+                        } catch (Exception e) {
+                            failedCount.increment();
+                            JMExceptionManager.handleException(log, e,
+                                    "transform", name, item.value);
+                        }
+                        // ordered mode keeps dropped items as gaps to skip
+                        if (value != null || isOrdered)
+                            put(new Item(item.sequence, value));
+                    }
+                    inputQueue.put(END);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finish();
+                }
+            }
+
+            private void finish() {
+                if (activeWorkers.decrementAndGet() > 0)
+                    return;
+                try {
+                    put(END);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            private void sink(Consumer<Object> sink) {
+                Map<Long, Item> reorderMap = new HashMap<>();
+                long nextSequence = 0;
+                try {
+                    Item item;
+                    while ((item = inputQueue.take()) != END) {
+                        if (!isOrdered) {
+                            accept(sink, item.value);
+                            continue;
+                        }
+                        reorderMap.put(item.sequence, item);
+                        Item next;
+                        while ((next = reorderMap.remove(nextSequence)) !=
+                                null) {
+                            nextSequence++;
+                            reorderWindow.release();
+                            if (next.value != null)
+                                accept(sink, next.value);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    completedLatch.countDown();
+                }
+            }
+
+            private void accept(Consumer<Object> sink, Object value) {
+                try {
+                    sink.accept(value);
+                    processedCount.increment();
+                } catch (Exception e) {
+                    failedCount.increment();
+                    JMExceptionManager.handleException(log, e, "sink", name,
+                            value);
+                }
+            }
+
+            private StageStats buildStats(double elapsedSeconds) {
+                return new StageStats(name, parallelism,
+                        processedCount.sum(), failedCount.sum(),
+                        inputQueue == null ? 0 : inputQueue.size(),
+                        outputQueue == null ? 0 :
+                                outputQueueHighWaterMark.get(),
+                        processedCount.sum() / elapsedSeconds);
+            }
+        }
+    }
+
+    /**
+     * The type Stage stats.
+     */
+    public static class StageStats {
+        private final String name;
+        private final int parallelism;
+        private final long processedCount;
+        private final long failedCount;
+        private final int inputQueueSize;
+        private final int outputQueueHighWaterMark;
+        private final double throughputPerSecond;
+
+        private StageStats(String name, int parallelism, long processedCount,
+                long failedCount, int inputQueueSize,
+                int outputQueueHighWaterMark, double throughputPerSecond) {
+            this.name = name;
+            this.parallelism = parallelism;
+            this.processedCount = processedCount;
+            this.failedCount = failedCount;
+            this.inputQueueSize = inputQueueSize;
+            this.outputQueueHighWaterMark = outputQueueHighWaterMark;
+            this.throughputPerSecond = throughputPerSecond;
+        }
+
+        /**
+         * Gets name.
+         *
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets parallelism.
+         *
+         * @return the parallelism
+         */
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        /**
+         * Gets processed count.
+         *
+         * @return the processed count
+         */
+        public long getProcessedCount() {
+            return processedCount;
+        }
+
+        /**
+         * Gets failed count.
+         *
+         * @return the failed count
+         */
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        /**
+         * Gets input queue size.
+         *
+         * @return the current occupancy of the queue feeding this stage
+         */
+        public int getInputQueueSize() {
+            return inputQueueSize;
+        }
+
+        /**
+         * Gets output queue high water mark.
+         *
+         * @return the peak occupancy of the queue this stage feeds
+         */
+        public int getOutputQueueHighWaterMark() {
+            return outputQueueHighWaterMark;
+        }
+
+        /**
+         * Gets throughput per second.
+         *
+         * @return the throughput per second
+         */
+        public double getThroughputPerSecond() {
+            return throughputPerSecond;
+        }
+
+        @Override
+        public String toString() {
+            return "StageStats{" + "name='" + name + '\'' + ", parallelism=" +
+                    parallelism + ", processedCount=" + processedCount +
+                    ", failedCount=" + failedCount + ", inputQueueSize=" +
+                    inputQueueSize + ", outputQueueHighWaterMark=" +
+                    outputQueueHighWaterMark + ", throughputPerSecond=" +
+                    String.format("%.1f", throughputPerSecond) + '}';
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package kr.jm.utils;
+
+import kr.jm.utils.exception.JMExceptionManager;
+import kr.jm.utils.helper.JMThread;
+import kr.jm.utils.stats.LatencyHistogram;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The type Jm priority executor.
+ * <p>
+ * Bounded executor with a fixed set of {@link Priority} classes. Every class
+ * has its own {@link JMThread#getWaitingLimitedBlockingQueue(long, int)}, or
+ * {@link JMThread#getLimitedBlockingQueue(int)} without waiting millis, so
+ * a producer of a full class blocks the same way as on the max queue pools
+ * while the other classes keep accepting. Workers always take the highest
+ * non-empty class, except that a task which has waited longer than
+ * {@code agingMillis} is served first, so low priority work never starves.
+ * Queue wait is recorded per class.
+ * <p>
+ * {@link #execute(Runnable)} uses {@link Priority#NORMAL}; use
+ * {@link #asExecutor(Priority)} to pass a class to
+ * {@link JMThread#runAsync(Runnable, Executor)}.
+ */
+public class JMPriorityExecutor extends AbstractExecutorService {
+
+    /**
+     * The constant DEFAULT_AGING_MILLIS.
+     */
+    public static final long DEFAULT_AGING_MILLIS = 1000;
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory
+            .getLogger(JMPriorityExecutor.class);
+    private static final long SHUTDOWN_CHECK_MILLIS = 100;
+
+    private final long agingNanos;
+    private final Map<Priority, PriorityClass> priorityClassMap;
+    private final Semaphore queuedTasks;
+    private final ExecutorService workerPool;
+    private final CountDownLatch workersTerminated;
+    private volatile boolean isShutdown;
+
+    /**
+     * Instantiates a new Jm priority executor.
+     *
+     * @param numWorkerThreads the num worker threads
+     * @param waitingMillis    the waiting millis
+     * @param maxQueuePerClass the max queue per class
+     */
+    public JMPriorityExecutor(int numWorkerThreads, long waitingMillis,
+            int maxQueuePerClass) {
+        this(numWorkerThreads, waitingMillis,
+                buildMaxQueueMap(maxQueuePerClass), DEFAULT_AGING_MILLIS);
+    }
+
+    /**
+     * Instantiates a new Jm priority executor.
+     *
+     * @param numWorkerThreads the num worker threads
+     * @param waitingMillis    the waiting millis
+     * @param maxQueueMap      the max queue of every priority class
+     * @param agingMillis      the aging millis
+     */
+    public JMPriorityExecutor(int numWorkerThreads, long waitingMillis,
+            Map<Priority, Integer> maxQueueMap, long agingMillis) {
+        if (numWorkerThreads < 1 || agingMillis < 1)
+            throw new IllegalArgumentException(
+                    "Wrong Priority Executor !!! - numWorkerThreads = " +
+                            numWorkerThreads + ", agingMillis = " +
+                            agingMillis);
+        this.agingNanos = TimeUnit.MILLISECONDS.toNanos(agingMillis);
+        this.priorityClassMap = new EnumMap<>(Priority.class);
+        for (Priority priority : Priority.values())
+            priorityClassMap.put(priority, new PriorityClass(
+                    buildQueue(waitingMillis,
+                            Optional.ofNullable(maxQueueMap.get(priority))
+                                    .orElse(Integer.MAX_VALUE))));
+        this.queuedTasks = new Semaphore(0);
+        this.workerPool = JMThread.newThreadPool(numWorkerThreads);
+        this.workersTerminated = new CountDownLatch(numWorkerThreads);
+        for (int i = 0; i < numWorkerThreads; i++)
+            workerPool.execute(this::runWorker);
+    }
+
+    // the same queue choice as JMThread.newMaxQueueThreadPool
+    private static BlockingQueue<PrioritizedTask> buildQueue(
+            long waitingMillis, int maxQueue) {
+        return waitingMillis > 0 ? JMThread
+                .getWaitingLimitedBlockingQueue(waitingMillis, maxQueue) :
+                JMThread.getLimitedBlockingQueue(maxQueue);
+    }
+
+    private static Map<Priority, Integer> buildMaxQueueMap(
+            int maxQueuePerClass) {
+        Map<Priority, Integer> maxQueueMap = new EnumMap<>(Priority.class);
+        for (Priority priority : Priority.values())
+            maxQueueMap.put(priority, maxQueuePerClass);
+        return maxQueueMap;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        execute(command, Priority.NORMAL);
+    }
+
+    /**
+     * Execute.
+     *
+     * @param command  the command
+     * @param priority the priority
+     */
+    public void execute(Runnable command, Priority priority) {
+        Objects.requireNonNull(command);
+        if (isShutdown)
+            throw new RejectedExecutionException(
+                    "JMPriorityExecutor Was Shutdown !!!");
+        PriorityClass priorityClass = priorityClassMap.get(priority);
+        if (!priorityClass.queue
+                .offer(new PrioritizedTask(command, System.nanoTime())))
+            throw new RejectedExecutionException(
+                    "Priority Queue Offer Failed !!! - " + priority);
+        priorityClass.submittedCount.increment();
+        queuedTasks.release();
+    }
+
+    /**
+     * Submit future.
+     *
+     * @param <T>      the type parameter
+     * @param task     the task
+     * @param priority the priority
+     * @return the future
+     */
+    public <T> Future<T> submit(Callable<T> task, Priority priority) {
+        RunnableFuture<T> futureTask = newTaskFor(task);
+        execute(futureTask, priority);
+        return futureTask;
+    }
+
+    /**
+     * As executor executor.
+     *
+     * @param priority the priority
+     * @return the executor submitting with the priority
+     */
+    public Executor asExecutor(Priority priority) {
+        return command -> execute(command, priority);
+    }
+
+    private void runWorker() {
+        try {
+            while (!isShutdown || queuedTasks.availablePermits() > 0) {
+                if (!queuedTasks.tryAcquire(SHUTDOWN_CHECK_MILLIS,
+                        TimeUnit.MILLISECONDS))
+                    continue;
+                PrioritizedTask task = pollNextTask();
+                if (task == null)
+                    continue;
+                try {
+                    task.command.run();
+                } catch (Throwable throwable) {
+                    JMExceptionManager.handleException(log, throwable,
+                            "runWorker", task.command);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workersTerminated.countDown();
+        }
+    }
+
+    // the caller holds a queuedTasks permit, so some queue has a task unless
+    // shutdownNow drained it, then null is returned as on an interrupt
+    private PrioritizedTask pollNextTask() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long nowNanos = System.nanoTime();
+            PriorityClass agedClass = null;
+            long oldestEnqueueNanos = nowNanos - agingNanos;
+            for (PriorityClass priorityClass : priorityClassMap.values()) {
+                PrioritizedTask head = priorityClass.queue.peek();
+                if (head != null && head.enqueueNanos <= oldestEnqueueNanos) {
+                    agedClass = priorityClass;
+                    oldestEnqueueNanos = head.enqueueNanos;
+                }
+            }
+            if (agedClass != null) {
+                PrioritizedTask task = agedClass.poll(nowNanos);
+                if (task != null) {
+                    agedClass.agedCount.increment();
+                    return task;
+                }
+            }
+            for (PriorityClass priorityClass : priorityClassMap.values()) {
+                PrioritizedTask task = priorityClass.poll(nowNanos);
+                if (task != null)
+                    return task;
+            }
+            if (isShutdown)
+                return null;
+            Thread.yield();
+        }
+        return null;
+    }
+
+    /**
+     * Gets queue size.
+     *
+     * @param priority the priority
+     * @return the queue size
+     */
+    public int getQueueSize(Priority priority) {
+        return priorityClassMap.get(priority).queue.size();
+    }
+
+    /**
+     * Gets submitted count.
+     *
+     * @param priority the priority
+     * @return the submitted count
+     */
+    public long getSubmittedCount(Priority priority) {
+        return priorityClassMap.get(priority).submittedCount.sum();
+    }
+
+    /**
+     * Gets aged count.
+     *
+     * @param priority the priority
+     * @return the count of tasks served by aging
+     */
+    public long getAgedCount(Priority priority) {
+        return priorityClassMap.get(priority).agedCount.sum();
+    }
+
+    /**
+     * Gets queue wait nanos histogram.
+     *
+     * @param priority the priority
+     * @return a copy of the queue wait nanos histogram
+     */
+    public LatencyHistogram getQueueWaitNanosHistogram(Priority priority) {
+        return priorityClassMap.get(priority).queueWaitHistogram.copy();
+    }
+
+    /**
+     * Build queue wait millis percentile map.
+     *
+     * @param percentile the percentile
+     * @return the queue wait millis of every priority class
+     */
+    public Map<Priority, Long> buildQueueWaitMillisPercentileMap(
+            double percentile) {
+        Map<Priority, Long> percentileMap = new EnumMap<>(Priority.class);
+        priorityClassMap.forEach((priority, priorityClass) -> percentileMap
+                .put(priority, TimeUnit.NANOSECONDS.toMillis(
+                        priorityClass.queueWaitHistogram
+                                .getPercentile(percentile))));
+        return percentileMap;
+    }
+
+    @Override
+    public void shutdown() {
+        isShutdown = true;
+        workerPool.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        List<Runnable> remainingList = new ArrayList<>();
+        for (PriorityClass priorityClass : priorityClassMap.values()) {
+            PrioritizedTask task;
+            while ((task = priorityClass.queue.poll()) != null) {
+                // a worker may already hold the permit of the task
+                queuedTasks.tryAcquire();
+                remainingList.add(task.command);
+            }
+        }
+        workerPool.shutdownNow();
+        return remainingList;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return isShutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return isShutdown && workersTerminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return workersTerminated.await(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        Map<Priority, Integer> queueSizeMap = new EnumMap<>(Priority.class);
+        priorityClassMap.keySet().forEach(
+                priority -> queueSizeMap.put(priority, getQueueSize(priority)));
+        return "JMPriorityExecutor{" + "agingMillis=" +
+                TimeUnit.NANOSECONDS.toMillis(agingNanos) + ", queueSizeMap=" +
+                queueSizeMap + ", isShutdown=" + isShutdown + '}';
+    }
+
+    /**
+     * The enum Priority.
+     */
+    public enum Priority {
+        /**
+         * High priority.
+         */
+        HIGH,
+        /**
+         * Normal priority.
+         */
+        NORMAL,
+        /**
+         * Low priority.
+         */
+        LOW
+    }
+
+    private static class PriorityClass {
+        private final BlockingQueue<PrioritizedTask> queue;
+        private final LatencyHistogram queueWaitHistogram;
+        private final LongAdder submittedCount;
+        private final LongAdder agedCount;
+
+        private PriorityClass(BlockingQueue<PrioritizedTask> queue) {
+            this.queue = queue;
+            this.queueWaitHistogram = LatencyHistogram.of();
+            this.submittedCount = new LongAdder();
+            this.agedCount = new LongAdder();
+        }
+
+        private PrioritizedTask poll(long nowNanos) {
+            PrioritizedTask task = queue.poll();
+            if (task != null)
+                queueWaitHistogram
+                        .record(Math.max(0, nowNanos - task.enqueueNanos));
+            return task;
+        }
+    }
+
+    private static class PrioritizedTask {
+        private final Runnable command;
+        private final long enqueueNanos;
+
+        private PrioritizedTask(Runnable command, long enqueueNanos) {
+            this.command = command;
+            this.enqueueNanos = enqueueNanos;
+        }
+    }
+}
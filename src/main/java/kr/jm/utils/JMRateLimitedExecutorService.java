@@ -0,0 +1,220 @@
+package kr.jm.utils;
+
+import kr.jm.utils.exception.JMExceptionManager;
+import kr.jm.utils.helper.JMThread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * The type Jm rate limited executor service.
+ * <p>
+ * Decorates an executor service with a global task rate. Each task reserves
+ * one permit of the {@link JMRateLimiter} when it is submitted; a task whose
+ * slot is already due goes straight to the delegate, any other one is handed
+ * to the delegate by the scheduler when its slot comes. Neither the
+ * submitting thread nor a worker thread is parked while waiting.
+ * <p>
+ * With a max wait, a task whose slot is further away than that is rejected
+ * with {@link RejectedExecutionException} instead of being queued.
+ * {@link #shutdownNow()} cancels the delayed tasks and returns them with the
+ * ones drained from the delegate.
+ */
+public class JMRateLimitedExecutorService extends AbstractExecutorService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory
+            .getLogger(JMRateLimitedExecutorService.class);
+
+    private final ExecutorService delegate;
+    private final JMRateLimiter rateLimiter;
+    private final long maxWaitNanos;
+    private final ScheduledExecutorService scheduler;
+    private final Set<DelayedTask> delayedTaskSet;
+    private final CountDownLatch delayedTasksDoneLatch;
+    private volatile boolean isShutdown;
+
+    /**
+     * Instantiates a new Jm rate limited executor service.
+     *
+     * @param delegate    the delegate
+     * @param rateLimiter the rate limiter
+     */
+    public JMRateLimitedExecutorService(ExecutorService delegate,
+            JMRateLimiter rateLimiter) {
+        this(delegate, rateLimiter, Long.MAX_VALUE,
+                JMThread.getTimingWheelScheduler());
+    }
+
+    /**
+     * Instantiates a new Jm rate limited executor service.
+     *
+     * @param delegate      the delegate
+     * @param rateLimiter   the rate limiter
+     * @param maxWaitMillis the max wait millis
+     * @param scheduler     the scheduler which releases delayed tasks, it is
+     *                      not shut down with this executor
+     */
+    public JMRateLimitedExecutorService(ExecutorService delegate,
+            JMRateLimiter rateLimiter, long maxWaitMillis,
+            ScheduledExecutorService scheduler) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+        this.maxWaitNanos = maxWaitMillis == Long.MAX_VALUE ? Long.MAX_VALUE :
+                TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.scheduler = scheduler;
+        this.delayedTaskSet = ConcurrentHashMap.newKeySet();
+        this.delayedTasksDoneLatch = new CountDownLatch(1);
+    }
+
+    /**
+     * Gets rate limiter.
+     *
+     * @return the rate limiter
+     */
+    public JMRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Gets delegate.
+     *
+     * @return the delegate
+     */
+    public ExecutorService getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Gets delayed count.
+     *
+     * @return the number of tasks waiting for their slot
+     */
+    public int getDelayedCount() {
+        return delayedTaskSet.size();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (isShutdown)
+            throw new RejectedExecutionException(
+                    "JMRateLimitedExecutorService Was Shutdown !!!");
+        long waitNanos = rateLimiter.tryReserve(1, maxWaitNanos);
+        if (waitNanos < 0)
+            throw new RejectedExecutionException(
+                    "Rate Limit Max Wait Exceeded !!! - maxWaitNanos = " +
+                            maxWaitNanos);
+        if (waitNanos == 0) {
+            delegate.execute(command);
+            return;
+        }
+        DelayedTask delayedTask = new DelayedTask(command);
+        // registered before checking the shutdown again, so that shutdown
+        // either sees the task or the task sees the shutdown
+        delayedTaskSet.add(delayedTask);
+        if (isShutdown) {
+            // else taken and returned by shutdownNow
+            if (!delayedTaskSet.remove(delayedTask))
+                return;
+            shutdownDelegateIfDone();
+            throw new RejectedExecutionException(
+                    "JMRateLimitedExecutorService Was Shutdown !!!");
+        }
+        try {
+            delayedTask.future = scheduler.schedule(
+                    () -> release(delayedTask), waitNanos,
+                    TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            delayedTaskSet.remove(delayedTask);
+            shutdownDelegateIfDone();
+            throw e;
+        }
+    }
+
+    // the task is taken once, by either its release or shutdownNow
+    private void release(DelayedTask delayedTask) {
+        if (!delayedTaskSet.remove(delayedTask))
+            return;
+        try {
+            delegate.execute(delayedTask.command);
+        } catch (RejectedExecutionException e) {
+            JMExceptionManager.handleException(log, e, "release",
+                    delayedTask.command);
+        } finally {
+            shutdownDelegateIfDone();
+        }
+    }
+
+    private void shutdownDelegateIfDone() {
+        if (isShutdown && delayedTaskSet.isEmpty()) {
+            delegate.shutdown();
+            delayedTasksDoneLatch.countDown();
+        }
+    }
+
+    /**
+     * Stops accepting tasks. The delegate is shut down once every delayed
+     * task has been handed to it, which also releases
+     * {@link #awaitTermination(long, TimeUnit)} waiting for them.
+     */
+    @Override
+    public void shutdown() {
+        isShutdown = true;
+        shutdownDelegateIfDone();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        isShutdown = true;
+        List<Runnable> remainingList = new ArrayList<>();
+        for (DelayedTask delayedTask : delayedTaskSet)
+            if (delayedTaskSet.remove(delayedTask)) {
+                Future<?> future = delayedTask.future;
+                if (future != null)
+                    future.cancel(false);
+                remainingList.add(delayedTask.command);
+            }
+        remainingList.addAll(delegate.shutdownNow());
+        shutdownDelegateIfDone();
+        return remainingList;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return isShutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return isShutdown && delayedTaskSet.isEmpty() &&
+                delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long startNanos = System.nanoTime();
+        long timeoutNanos = unit.toNanos(timeout);
+        if (!delayedTasksDoneLatch.await(timeoutNanos, TimeUnit.NANOSECONDS))
+            return false;
+        return delegate.awaitTermination(
+                timeoutNanos - (System.nanoTime() - startNanos),
+                TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "JMRateLimitedExecutorService{" + "rateLimiter=" +
+                rateLimiter + ", delayedCount=" + getDelayedCount() + '}';
+    }
+
+    private static class DelayedTask {
+        private final Runnable command;
+        private volatile Future<?> future;
+
+        private DelayedTask(Runnable command) {
+            this.command = command;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package kr.jm.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The type Jm rate limiter.
+ * <p>
+ * Lock-free rate limiter built on the generic cell rate algorithm: the only
+ * shared state is the theoretical arrival time of the next permit, advanced
+ * with a CAS. A token bucket lets up to {@code burst} permits through at once
+ * after an idle period; a leaky bucket ({@code burst} of 1) spaces every
+ * permit evenly. With a warm-up period, a cold limiter starts at a third of
+ * the rate, ramps up linearly and ignores the burst until it is warm. It goes
+ * cold again after being idle for a whole warm-up period.
+ * <p>
+ * Permits are reserved before waiting, so a blocking acquire parks only for
+ * its own slot and callers are served in reservation order.
+ */
+public class JMRateLimiter {
+
+    private static final int COLD_FACTOR = 3;
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final long stableIntervalNanos;
+    private final long toleranceNanos;
+    private final long warmupNanos;
+    private final AtomicLong theoreticalArrivalNanos;
+    private volatile long coldStartNanos;
+
+    /**
+     * Instantiates a new Jm rate limiter.
+     *
+     * @param permitsPerSecond the permits per second
+     * @param burst            the burst
+     * @param warmupMillis     the warmup millis
+     */
+    public JMRateLimiter(double permitsPerSecond, int burst,
+            long warmupMillis) {
+        if (!(permitsPerSecond > 0) || burst < 1 || warmupMillis < 0)
+            throw new IllegalArgumentException(
+                    "Wrong Rate Limit !!! - permitsPerSecond = " +
+                            permitsPerSecond + ", burst = " + burst +
+                            ", warmupMillis = " + warmupMillis);
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.stableIntervalNanos =
+                Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) /
+                        permitsPerSecond));
+        this.toleranceNanos = (burst - 1) * stableIntervalNanos;
+        this.warmupNanos = TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+        long nowNanos = System.nanoTime();
+        this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+        this.coldStartNanos = nowNanos;
+    }
+
+    /**
+     * Of token bucket jm rate limiter.
+     *
+     * @param permitsPerSecond the permits per second
+     * @param burst            the burst
+     * @return the jm rate limiter
+     */
+    public static JMRateLimiter ofTokenBucket(double permitsPerSecond,
+            int burst) {
+        return new JMRateLimiter(permitsPerSecond, burst, 0);
+    }
+
+    /**
+     * Of token bucket jm rate limiter.
+     *
+     * @param permitsPerSecond the permits per second
+     * @param burst            the burst
+     * @param warmupMillis     the warmup millis
+     * @return the jm rate limiter
+     */
+    public static JMRateLimiter ofTokenBucket(double permitsPerSecond,
+            int burst, long warmupMillis) {
+        return new JMRateLimiter(permitsPerSecond, burst, warmupMillis);
+    }
+
+    /**
+     * Of leaky bucket jm rate limiter.
+     *
+     * @param permitsPerSecond the permits per second
+     * @return the jm rate limiter
+     */
+    public static JMRateLimiter ofLeakyBucket(double permitsPerSecond) {
+        return new JMRateLimiter(permitsPerSecond, 1, 0);
+    }
+
+    /**
+     * Gets permits per second.
+     *
+     * @return the permits per second
+     */
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    /**
+     * Gets burst.
+     *
+     * @return the burst
+     */
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * Gets warmup millis.
+     *
+     * @return the warmup millis
+     */
+    public long getWarmupMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(warmupNanos);
+    }
+
+    /**
+     * Reserves permits unconditionally.
+     *
+     * @param permits the permits
+     * @return the nanos to wait before the permits may be used
+     */
+    public long reserve(int permits) {
+        return tryReserve(permits, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reserves permits only if they are available within maxWaitNanos.
+     *
+     * @param permits      the permits
+     * @param maxWaitNanos the max wait nanos
+     * @return the nanos to wait before the permits may be used, or -1 if
+     * nothing was reserved
+     */
+    public long tryReserve(int permits, long maxWaitNanos) {
+        if (permits < 1)
+            throw new IllegalArgumentException(
+                    "Wrong Permits !!! - permits = " + permits);
+        while (true) {
+            long nowNanos = System.nanoTime();
+            long arrivalNanos = theoreticalArrivalNanos.get();
+            if (warmupNanos > 0 && nowNanos - arrivalNanos > warmupNanos)
+                coldStartNanos = nowNanos;
+            long baseNanos = Math.max(arrivalNanos, nowNanos);
+            boolean isWarm = baseNanos - coldStartNanos >= warmupNanos;
+            long waitNanos = Math.max(0, baseNanos - nowNanos -
+                    (isWarm ? toleranceNanos : 0));
+            if (waitNanos > maxWaitNanos)
+                return -1;
+            if (theoreticalArrivalNanos.compareAndSet(arrivalNanos,
+                    baseNanos + permits * buildIntervalNanos(baseNanos,
+                            isWarm)))
+                return waitNanos;
+        }
+    }
+
+    private long buildIntervalNanos(long baseNanos, boolean isWarm) {
+        if (isWarm)
+            return stableIntervalNanos;
+        long coldIntervalNanos = stableIntervalNanos * COLD_FACTOR;
+        return coldIntervalNanos - (long) ((coldIntervalNanos -
+                stableIntervalNanos) * ((double) (baseNanos - coldStartNanos) /
+                warmupNanos));
+    }
+
+    /**
+     * Acquire, blocking until a permit is available.
+     *
+     * @return the waited millis
+     */
+    public long acquire() {
+        return acquire(1);
+    }
+
+    /**
+     * Acquire, blocking until the permits are available.
+     *
+     * @param permits the permits
+     * @return the waited millis
+     */
+    public long acquire(int permits) {
+        long waitNanos = reserve(permits);
+        parkNanos(waitNanos);
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+    }
+
+    /**
+     * Try acquire a permit without waiting.
+     *
+     * @return the boolean
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(1, 0);
+    }
+
+    /**
+     * Try acquire permits without waiting.
+     *
+     * @param permits the permits
+     * @return the boolean
+     */
+    public boolean tryAcquire(int permits) {
+        return tryAcquire(permits, 0);
+    }
+
+    /**
+     * Try acquire permits, waiting at most timeoutMillis.
+     *
+     * @param permits       the permits
+     * @param timeoutMillis the timeout millis
+     * @return false if the permits would not be available within
+     * timeoutMillis, nothing is reserved then
+     */
+    public boolean tryAcquire(int permits, long timeoutMillis) {
+        long waitNanos = tryReserve(permits,
+                TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+        if (waitNanos < 0)
+            return false;
+        parkNanos(waitNanos);
+        return true;
+    }
+
+    private void parkNanos(long waitNanos) {
+        if (waitNanos <= 0)
+            return;
+        boolean isInterrupted = false;
+        long deadlineNanos = System.nanoTime() + waitNanos;
+        long remainingNanos;
+        while ((remainingNanos = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remainingNanos);
+            isInterrupted |= Thread.interrupted();
+        }
+        if (isInterrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    @Override
+    public String toString() {
+        return "JMRateLimiter{" + "permitsPerSecond=" + permitsPerSecond +
+                ", burst=" + burst + ", warmupMillis=" + getWarmupMillis() +
+                '}';
+    }
+}
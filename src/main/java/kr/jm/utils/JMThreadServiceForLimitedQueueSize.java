@@ -1,14 +1,22 @@
 package kr.jm.utils;
 
+import kr.jm.utils.exception.JMExceptionManager;
 import kr.jm.utils.helper.JMThread;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The type Jm thread service for limited queue size.
+ * <p>
+ * The default mode polls the thread queue size with {@code waitMillis} sleeps.
+ * The admission gate mode bounds the in-flight (queued + running) tasks
+ * exactly with a semaphore whose permits are released by task completion,
+ * including the cancellation of a task not started yet.
  */
 public class JMThreadServiceForLimitedQueueSize {
 
@@ -18,6 +26,12 @@ public class JMThreadServiceForLimitedQueueSize {
     private int queueSize;
     private ExecutorService threadPool;
     private BlockingQueue<Runnable> threadQueue;
+    private Semaphore admissionGate;
+    private AtomicInteger inFlightCount;
+    private AtomicInteger queueHighWaterMark;
+    private LongAdder rejectedCount;
+    private LongAdder blockedCount;
+    private LongAdder blockedNanos;
 
     /**
      * Instantiates a new Jm thread service for limited queue size.
@@ -44,12 +58,58 @@ public class JMThreadServiceForLimitedQueueSize {
             int queueSize, ExecutorService threadPool) {
         this.waitMillis = waitMillis;
         this.queueSize = queueSize;
+        this.threadPool = threadPool;
         this.threadQueue = JMThread.getThreadQueue(threadPool);
+        initCounters();
         log.info(
                 "JMThreadService Start !!! - Number Of Worker = {}, Wait Millis = {}, Queue Size = {}",
                 numOfThread, waitMillis, queueSize);
     }
 
+    /**
+     * Instantiates a new Jm thread service for limited queue size with the
+     * admission gate mode.
+     *
+     * @param numOfThread   the num of thread
+     * @param maxInFlight   the max in flight tasks (queued + running)
+     * @param fairAdmission the fair admission
+     */
+    public JMThreadServiceForLimitedQueueSize(int numOfThread,
+            int maxInFlight, boolean fairAdmission) {
+        this(numOfThread, maxInFlight, fairAdmission,
+                JMThread.newThreadPool(numOfThread));
+    }
+
+    /**
+     * Instantiates a new Jm thread service for limited queue size with the
+     * admission gate mode.
+     *
+     * @param numOfThread   the num of thread
+     * @param maxInFlight   the max in flight tasks (queued + running)
+     * @param fairAdmission the fair admission
+     * @param threadPool    the thread pool
+     */
+    public JMThreadServiceForLimitedQueueSize(int numOfThread,
+            int maxInFlight, boolean fairAdmission,
+            ExecutorService threadPool) {
+        this.queueSize = maxInFlight;
+        this.threadPool = threadPool;
+        this.threadQueue = JMThread.getThreadQueue(threadPool);
+        this.admissionGate = new Semaphore(maxInFlight, fairAdmission);
+        initCounters();
+        log.info(
+                "JMThreadService Start With Admission Gate !!! - Number Of Worker = {}, Max In Flight = {}, Fair = {}",
+                numOfThread, maxInFlight, fairAdmission);
+    }
+
+    private void initCounters() {
+        this.inFlightCount = new AtomicInteger();
+        this.queueHighWaterMark = new AtomicInteger();
+        this.rejectedCount = new LongAdder();
+        this.blockedCount = new LongAdder();
+        this.blockedNanos = new LongAdder();
+    }
+
     /**
      * Gets current queue size.
      *
@@ -68,6 +128,60 @@ public class JMThreadServiceForLimitedQueueSize {
         return queueSize;
     }
 
+    /**
+     * Is admission gate mode boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isAdmissionGateMode() {
+        return admissionGate != null;
+    }
+
+    /**
+     * Gets in flight count.
+     *
+     * @return the in flight count
+     */
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+
+    /**
+     * Gets queue high water mark.
+     *
+     * @return the queue high water mark
+     */
+    public int getQueueHighWaterMark() {
+        return queueHighWaterMark.get();
+    }
+
+    /**
+     * Gets rejected count.
+     *
+     * @return the rejected count
+     */
+    public long getRejectedCount() {
+        return rejectedCount.longValue();
+    }
+
+    /**
+     * Gets blocked count.
+     *
+     * @return the blocked count
+     */
+    public long getBlockedCount() {
+        return blockedCount.longValue();
+    }
+
+    /**
+     * Gets blocked millis.
+     *
+     * @return the blocked millis
+     */
+    public long getBlockedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(blockedNanos.longValue());
+    }
+
     /**
      * Submit future.
      *
@@ -75,8 +189,12 @@ public class JMThreadServiceForLimitedQueueSize {
      * @return the future
      */
     public Future<?> submit(Runnable runnable) {
-        checkThreadQueue();
-        return threadPool.submit(runnable);
+        if (!isAdmissionGateMode()) {
+            checkThreadQueue();
+            return recordQueueSize(threadPool.submit(runnable));
+        }
+        acquire("submit", runnable);
+        return submitAdmitted(runnable);
     }
 
     /**
@@ -87,8 +205,12 @@ public class JMThreadServiceForLimitedQueueSize {
      * @return the future
      */
     public <T> Future<T> submit(Callable<T> callable) {
-        checkThreadQueue();
-        return threadPool.submit(callable);
+        if (!isAdmissionGateMode()) {
+            checkThreadQueue();
+            return recordQueueSize(threadPool.submit(callable));
+        }
+        acquire("submit", callable);
+        return submitAdmitted(callable);
     }
 
     /**
@@ -97,16 +219,233 @@ public class JMThreadServiceForLimitedQueueSize {
      * @param runnable the runnable
      */
     public void execute(Runnable runnable) {
-        checkThreadQueue();
-        threadPool.execute(runnable);
+        if (!isAdmissionGateMode()) {
+            checkThreadQueue();
+            threadPool.execute(runnable);
+            recordQueueSize(runnable);
+            return;
+        }
+        acquire("execute", runnable);
+        AdmittedRunnable admittedRunnable = new AdmittedRunnable(runnable);
+        try {
+            threadPool.execute(admittedRunnable);
+            recordQueueSize(runnable);
+        } catch (RejectedExecutionException e) {
+            throw releaseAndReturnRejected(e, admittedRunnable.admission,
+                    "execute", runnable);
+        }
+    }
+
+    /**
+     * Try submit optional.
+     *
+     * @param runnable      the runnable
+     * @param timeoutMillis the timeout millis
+     * @return the optional
+     */
+    public Optional<Future<?>> trySubmit(Runnable runnable,
+            long timeoutMillis) {
+        return tryAcquire(timeoutMillis) ? Optional.of(
+                isAdmissionGateMode() ? submitAdmitted(runnable) :
+                        recordQueueSize(threadPool.submit(runnable))) :
+                Optional.empty();
+    }
+
+    /**
+     * Try submit optional.
+     *
+     * @param <T>           the type parameter
+     * @param callable      the callable
+     * @param timeoutMillis the timeout millis
+     * @return the optional
+     */
+    public <T> Optional<Future<T>> trySubmit(Callable<T> callable,
+            long timeoutMillis) {
+        return tryAcquire(timeoutMillis) ? Optional.of(
+                isAdmissionGateMode() ? submitAdmitted(callable) :
+                        recordQueueSize(threadPool.submit(callable))) :
+                Optional.empty();
+    }
+
+    private Future<?> submitAdmitted(Runnable runnable) {
+        return submitAdmitted(new AdmittedFutureTask<>(runnable, null),
+                runnable);
+    }
+
+    private <T> Future<T> submitAdmitted(Callable<T> callable) {
+        return submitAdmitted(new AdmittedFutureTask<>(callable), callable);
+    }
+
+    private <T> Future<T> submitAdmitted(AdmittedFutureTask<T> futureTask,
+            Object task) {
+        try {
+            threadPool.execute(futureTask);
+            return recordQueueSize(futureTask);
+        } catch (RejectedExecutionException e) {
+            throw releaseAndReturnRejected(e, futureTask.admission, "submit",
+                    task);
+        }
+    }
+
+    /**
+     * Shutdown now list.
+     * <p>
+     * In the admission gate mode, the permits of the tasks which never
+     * started are released and their futures cancelled.
+     *
+     * @return the list of the tasks which never started
+     */
+    public List<Runnable> shutdownNow() {
+        List<Runnable> droppedTaskList = threadPool.shutdownNow();
+        for (Runnable droppedTask : droppedTaskList)
+            if (droppedTask instanceof AdmittedFutureTask)
+                ((AdmittedFutureTask<?>) droppedTask).cancel(false);
+            else if (droppedTask instanceof AdmittedRunnable)
+                ((AdmittedRunnable) droppedTask).admission.release();
+        return droppedTaskList;
+    }
+
+    private RejectedExecutionException releaseAndReturnRejected(
+            RejectedExecutionException e, Admission admission,
+            String methodName, Object task) {
+        admission.release();
+        rejectedCount.increment();
+        JMExceptionManager.handleException(log, e, methodName, task);
+        return e;
+    }
+
+    private void acquire(String methodName, Object task) {
+        if (!admissionGate.tryAcquire()) {
+            long startNanos = System.nanoTime();
+            try {
+                admissionGate.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejectedCount.increment();
+                throw JMExceptionManager.handleExceptionAndReturnRuntimeEx(
+                        log, e, methodName, task);
+            } finally {
+                recordBlocked(startNanos);
+            }
+        }
+        inFlightCount.incrementAndGet();
+    }
+
+    private boolean tryAcquire(long timeoutMillis) {
+        if (!isAdmissionGateMode())
+            return tryWaitThreadQueue(timeoutMillis);
+        if (admissionGate.tryAcquire()) {
+            inFlightCount.incrementAndGet();
+            return true;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            if (admissionGate.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                inFlightCount.incrementAndGet();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            recordBlocked(startNanos);
+        }
+        rejectedCount.increment();
+        return false;
+    }
+
+    private boolean tryWaitThreadQueue(long timeoutMillis) {
+        long deadlineMillis = System.currentTimeMillis() + timeoutMillis;
+        long startNanos = System.nanoTime();
+        boolean isBlocked = false;
+        while (threadQueue.size() > queueSize) {
+            isBlocked = true;
+            if (System.currentTimeMillis() >= deadlineMillis) {
+                recordBlocked(startNanos);
+                rejectedCount.increment();
+                return false;
+            }
+            JMThread.sleep(Math.max(1, Math.min(waitMillis,
+                    deadlineMillis - System.currentTimeMillis())));
+        }
+        if (isBlocked)
+            recordBlocked(startNanos);
+        return true;
+    }
+
+    private void recordBlocked(long startNanos) {
+        blockedCount.increment();
+        blockedNanos.add(System.nanoTime() - startNanos);
+    }
+
+    private void release() {
+        inFlightCount.decrementAndGet();
+        admissionGate.release();
+    }
+
+    private <F> F recordQueueSize(F submitted) {
+        queueHighWaterMark.accumulateAndGet(threadQueue.size(), Math::max);
+        return submitted;
     }
 
     private void checkThreadQueue() {
+        long startNanos = System.nanoTime();
+        boolean isBlocked = false;
         while (threadQueue.size() > queueSize) {
+            isBlocked = true;
             log.warn(
                     "Hit The Maximum Queue Size Of Thread Pool !!! - Wait Millis = {}, Queue Size = {}",
                     waitMillis, queueSize);
             JMThread.sleep(waitMillis);
         }
+        if (isBlocked)
+            recordBlocked(startNanos);
+    }
+
+    // releases the permit of one admitted task exactly once
+    private class Admission {
+        private final AtomicBoolean isReleased = new AtomicBoolean();
+
+        private void release() {
+            if (isReleased.compareAndSet(false, true))
+                JMThreadServiceForLimitedQueueSize.this.release();
+        }
+    }
+
+    // released on completion, so also when cancelled before running
+    private class AdmittedFutureTask<T> extends FutureTask<T> {
+        private final Admission admission = new Admission();
+
+        private AdmittedFutureTask(Callable<T> callable) {
+            super(callable);
+        }
+
+        private AdmittedFutureTask(Runnable runnable, T result) {
+            super(runnable, result);
+        }
+
+        @Override
+        protected void done() {
+            admission.release();
+        }
+    }
+
+    // a plain runnable, so the failures of an executed task still reach the
+    // uncaught exception handler
+    private class AdmittedRunnable implements Runnable {
+        private final Admission admission = new Admission();
+        private final Runnable runnable;
+
+        private AdmittedRunnable(Runnable runnable) {
+            this.runnable = runnable;
+        }
+
+        @Override
+        public void run() {
+            try {
+                runnable.run();
+            } finally {
+                admission.release();
+            }
+        }
     }
 }
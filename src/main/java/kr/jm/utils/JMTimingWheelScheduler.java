@@ -0,0 +1,425 @@
+package kr.jm.utils;
+
+import kr.jm.utils.exception.JMExceptionManager;
+import kr.jm.utils.helper.JMThread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The type Jm timing wheel scheduler.
+ * <p>
+ * Hashed hierarchical timing wheel: {@code levels} wheels of
+ * {@code wheelSize} buckets, where one bucket of level n spans
+ * {@code wheelSize^n} ticks. Scheduling and cancelling are O(1) and lock
+ * free for the caller: new and cancelled timeouts are handed to the ticker
+ * thread through queues, and a cancelled timeout is unlinked from its bucket
+ * on the next tick instead of staying there until its deadline. Expired
+ * tasks are dispatched onto a separate worker pool, so slow tasks never
+ * delay the clock. Timers fire with a resolution of one tick.
+ * <p>
+ * Shutdown stops the clock and cancels every pending timeout.
+ */
+public class JMTimingWheelScheduler extends AbstractExecutorService
+        implements ScheduledExecutorService {
+
+    /**
+     * The constant DEFAULT_TICK_MILLIS.
+     */
+    public static final long DEFAULT_TICK_MILLIS = 10;
+    /**
+     * The constant DEFAULT_WHEEL_SIZE.
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+    /**
+     * The constant DEFAULT_LEVELS.
+     */
+    public static final int DEFAULT_LEVELS = 4;
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory
+            .getLogger(JMTimingWheelScheduler.class);
+    private static final AtomicLong SEQUENCER = new AtomicLong();
+
+    private final long tickNanos;
+    private final int wheelBits;
+    private final int mask;
+    private final Bucket[][] wheels;
+    private final long maxSpanTicks;
+    private final ExecutorService workerPool;
+    private final Queue<WheelTimeout<?>> pendingTimeouts;
+    private final Queue<WheelTimeout<?>> cancelledTimeouts;
+    private final Thread ticker;
+    private final long startNanos;
+    private final CountDownLatch tickerTerminated;
+    private volatile boolean isShutdown;
+    private long currentTick;
+
+    /**
+     * Instantiates a new Jm timing wheel scheduler.
+     *
+     * @param tickMillis       the tick millis
+     * @param numWorkerThreads the num worker threads
+     */
+    public JMTimingWheelScheduler(long tickMillis, int numWorkerThreads) {
+        this(tickMillis, DEFAULT_WHEEL_SIZE, DEFAULT_LEVELS,
+                JMThread.newThreadPool(numWorkerThreads));
+    }
+
+    /**
+     * Instantiates a new Jm timing wheel scheduler.
+     *
+     * @param tickMillis the tick millis
+     * @param wheelSize  the wheel size, rounded up to a power of two
+     * @param levels     the levels
+     * @param workerPool the worker pool
+     */
+    public JMTimingWheelScheduler(long tickMillis, int wheelSize, int levels,
+            ExecutorService workerPool) {
+        if (tickMillis < 1 || wheelSize < 2 || levels < 1)
+            throw new IllegalArgumentException(
+                    "Wrong Timing Wheel !!! - tickMillis = " + tickMillis +
+                            ", wheelSize = " + wheelSize + ", levels = " +
+                            levels);
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.wheelBits = 32 - Integer.numberOfLeadingZeros(wheelSize - 1);
+        if ((long) wheelBits * levels > 62)
+            throw new IllegalArgumentException(
+                    "Too Many Levels !!! - wheelSize = " + wheelSize +
+                            ", levels = " + levels);
+        this.mask = (1 << wheelBits) - 1;
+        this.wheels = new Bucket[levels][mask + 1];
+        for (Bucket[] wheel : wheels)
+            for (int i = 0; i < wheel.length; i++)
+                wheel[i] = new Bucket();
+        this.maxSpanTicks = 1L << (wheelBits * levels);
+        this.workerPool = workerPool;
+        this.pendingTimeouts = new ConcurrentLinkedQueue<>();
+        this.cancelledTimeouts = new ConcurrentLinkedQueue<>();
+        this.tickerTerminated = new CountDownLatch(1);
+        this.startNanos = System.nanoTime();
+        this.ticker = new Thread(this::runTicker,
+                "JMTimingWheelScheduler-ticker");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+        log.info(
+                "JMTimingWheelScheduler Start !!! - tickMillis = {}, wheelSize = {}, levels = {}",
+                tickMillis, mask + 1, levels);
+    }
+
+    private void runTicker() {
+        try {
+            while (!isShutdown) {
+                waitForNextTick();
+                if (isShutdown)
+                    break;
+                processCancelledTimeouts();
+                transferPendingTimeouts();
+                cascade();
+                expireTimeouts();
+                currentTick++;
+            }
+        } catch (Throwable throwable) {
+            JMExceptionManager.handleException(log, throwable, "runTicker");
+        } finally {
+            cancelAllTimeouts();
+            tickerTerminated.countDown();
+        }
+    }
+
+    private void waitForNextTick() {
+        long deadlineNanos = startNanos + (currentTick + 1) * tickNanos;
+        long sleepNanos;
+        while (!isShutdown &&
+                (sleepNanos = deadlineNanos - System.nanoTime()) > 0)
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (isShutdown)
+                    return;
+            }
+    }
+
+    private void processCancelledTimeouts() {
+        WheelTimeout<?> timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null)
+            if (timeout.bucket != null)
+                timeout.bucket.remove(timeout);
+    }
+
+    private void transferPendingTimeouts() {
+        WheelTimeout<?> timeout;
+        while ((timeout = pendingTimeouts.poll()) != null)
+            if (!timeout.isCancelled())
+                place(timeout);
+    }
+
+    private void place(WheelTimeout<?> timeout) {
+        long deadlineTick = Math.max(currentTick,
+                Math.min(timeout.deadlineTick, currentTick + maxSpanTicks - 1));
+        long deltaTicks = deadlineTick - currentTick;
+        int level = 0;
+        while (level < wheels.length - 1 &&
+                deltaTicks >= 1L << (wheelBits * (level + 1)))
+            level++;
+        wheels[level][(int) ((deadlineTick >>> (wheelBits * level)) & mask)]
+                .add(timeout);
+    }
+
+    private void cascade() {
+        for (int level = wheels.length - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (wheelBits * level)) - 1)) != 0)
+                continue;
+            Bucket bucket = wheels[level][(int) (
+                    (currentTick >>> (wheelBits * level)) & mask)];
+            for (WheelTimeout<?> timeout : bucket.clear())
+                place(timeout);
+        }
+    }
+
+    private void expireTimeouts() {
+        Bucket bucket = wheels[0][(int) (currentTick & mask)];
+        for (WheelTimeout<?> timeout : bucket.clear()) {
+            if (timeout.deadlineTick > currentTick)
+                place(timeout);
+            else if (!timeout.isCancelled())
+                dispatch(timeout);
+        }
+    }
+
+    private void dispatch(WheelTimeout<?> timeout) {
+        try {
+            workerPool.execute(timeout);
+        } catch (RejectedExecutionException e) {
+            timeout.cancel(false);
+            JMExceptionManager.handleException(log, e, "dispatch", timeout);
+        }
+    }
+
+    private void cancelAllTimeouts() {
+        for (Bucket[] wheel : wheels)
+            for (Bucket bucket : wheel)
+                bucket.clear().forEach(timeout -> timeout.cancel(false));
+        WheelTimeout<?> timeout;
+        while ((timeout = pendingTimeouts.poll()) != null)
+            timeout.cancel(false);
+        cancelledTimeouts.clear();
+    }
+
+    private long buildDeadlineTick(long deadlineNanos) {
+        long elapsedNanos = deadlineNanos - startNanos;
+        return elapsedNanos <= 0 ? 0 : (elapsedNanos + tickNanos - 1) /
+                tickNanos - 1;
+    }
+
+    private <V> WheelTimeout<V> arm(WheelTimeout<V> timeout) {
+        if (isShutdown)
+            throw new RejectedExecutionException(
+                    "JMTimingWheelScheduler Was Shutdown !!!");
+        pendingTimeouts.offer(timeout);
+        return timeout;
+    }
+
+    /**
+     * Gets tick millis.
+     *
+     * @return the tick millis
+     */
+    public long getTickMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(tickNanos);
+    }
+
+    /**
+     * Gets pending timeout count.
+     *
+     * @return the pending timeout count
+     */
+    public int getPendingTimeoutCount() {
+        return pendingTimeouts.size();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay,
+            TimeUnit unit) {
+        return arm(new WheelTimeout<>(Executors.callable(command),
+                System.nanoTime() + unit.toNanos(delay), 0));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay,
+            TimeUnit unit) {
+        return arm(new WheelTimeout<>(callable,
+                System.nanoTime() + unit.toNanos(delay), 0));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command,
+            long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0)
+            throw new IllegalArgumentException("period <= 0");
+        return arm(new WheelTimeout<>(Executors.callable(command),
+                System.nanoTime() + unit.toNanos(initialDelay),
+                unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command,
+            long initialDelay, long delay, TimeUnit unit) {
+        if (delay <= 0)
+            throw new IllegalArgumentException("delay <= 0");
+        return arm(new WheelTimeout<>(Executors.callable(command),
+                System.nanoTime() + unit.toNanos(initialDelay),
+                -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (isShutdown)
+            throw new RejectedExecutionException(
+                    "JMTimingWheelScheduler Was Shutdown !!!");
+        workerPool.execute(command);
+    }
+
+    @Override
+    public void shutdown() {
+        isShutdown = true;
+        ticker.interrupt();
+        workerPool.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        return workerPool.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return isShutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return tickerTerminated.getCount() == 0 && workerPool.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        return tickerTerminated.await(timeout, unit) && workerPool
+                .awaitTermination(deadlineNanos - System.nanoTime(),
+                        TimeUnit.NANOSECONDS);
+    }
+
+    private static class Bucket {
+        private WheelTimeout<?> head;
+
+        private void add(WheelTimeout<?> timeout) {
+            timeout.bucket = this;
+            timeout.next = head;
+            timeout.previous = null;
+            if (head != null)
+                head.previous = timeout;
+            head = timeout;
+        }
+
+        private void remove(WheelTimeout<?> timeout) {
+            if (timeout.bucket != this)
+                return;
+            if (timeout.previous != null)
+                timeout.previous.next = timeout.next;
+            else
+                head = timeout.next;
+            if (timeout.next != null)
+                timeout.next.previous = timeout.previous;
+            timeout.bucket = null;
+            timeout.next = timeout.previous = null;
+        }
+
+        private List<WheelTimeout<?>> clear() {
+            List<WheelTimeout<?>> timeoutList = new ArrayList<>();
+            for (WheelTimeout<?> timeout = head; timeout != null; ) {
+                WheelTimeout<?> next = timeout.next;
+                timeout.bucket = null;
+                timeout.next = timeout.previous = null;
+                timeoutList.add(timeout);
+                timeout = next;
+            }
+            head = null;
+            return timeoutList;
+        }
+    }
+
+    private class WheelTimeout<V> extends FutureTask<V> implements
+            RunnableScheduledFuture<V> {
+        private final long sequenceNumber;
+        // positive: fixed rate, negative: fixed delay, 0: one shot
+        private final long periodNanos;
+        private volatile long deadlineNanos;
+        private volatile long deadlineTick;
+        // accessed only by the ticker thread
+        private Bucket bucket;
+        private WheelTimeout<?> previous;
+        private WheelTimeout<?> next;
+
+        private WheelTimeout(Callable<V> callable, long deadlineNanos,
+                long periodNanos) {
+            super(callable);
+            this.sequenceNumber = SEQUENCER.getAndIncrement();
+            this.periodNanos = periodNanos;
+            setDeadlineNanos(deadlineNanos);
+        }
+
+        private void setDeadlineNanos(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+            this.deadlineTick = buildDeadlineTick(deadlineNanos);
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return periodNanos != 0;
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic())
+                super.run();
+            else if (super.runAndReset() && !isShutdown) {
+                setDeadlineNanos(periodNanos > 0 ? deadlineNanos +
+                        periodNanos : System.nanoTime() - periodNanos);
+                pendingTimeouts.offer(this);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean isCancelled = super.cancel(mayInterruptIfRunning);
+            if (isCancelled && !isShutdown)
+                cancelledTimeouts.offer(this);
+            return isCancelled;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineNanos - System.nanoTime(),
+                    TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other == this)
+                return 0;
+            if (other instanceof WheelTimeout) {
+                WheelTimeout<?> timeout = (WheelTimeout<?>) other;
+                long difference = deadlineNanos - timeout.deadlineNanos;
+                return difference != 0 ? Long.signum(difference) :
+                        Long.compare(sequenceNumber, timeout.sequenceNumber);
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS),
+                    other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -3,6 +3,7 @@ package kr.jm.utils.accumulator;
 import kr.jm.utils.collections.JMTimeSeries;
 import kr.jm.utils.helper.JMOptional;
 
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 
 /**
@@ -19,6 +20,20 @@ public class TimeSeriesCountBytesSizeAccumulator extends
         super(intervalSeconds);
     }
 
+    /**
+     * Instantiates a new Time series count bytes size accumulator in the
+     * retention bounded mode.
+     *
+     * @param intervalSeconds  the interval seconds
+     * @param retentionCount   the number of latest intervals kept
+     * @param evictionListener the eviction listener, may be null
+     */
+    public TimeSeriesCountBytesSizeAccumulator(int intervalSeconds,
+            int retentionCount,
+            BiConsumer<Long, CountBytesSizeAccumulator> evictionListener) {
+        super(intervalSeconds, retentionCount, evictionListener);
+    }
+
     /**
      * Gets count per seconds.
      *
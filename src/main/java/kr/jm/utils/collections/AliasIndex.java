@@ -0,0 +1,202 @@
+package kr.jm.utils.collections;
+
+import java.util.*;
+
+/**
+ * The type Alias index.
+ * <p>
+ * Immutable alias to index mapping compiled for one record layout and
+ * shared by all the {@link FrozenIndexAliasMap} of that layout. The aliases
+ * are placed in a power of two slot array by a multiplicative hash whose
+ * seed, then size up to 32 slots per alias, are searched until no two
+ * aliases share a slot, so a lookup is one hash, one array read and one
+ * equals, without probing. Aliases still sharing a slot, as those with the
+ * same {@link String#hashCode()}, fall back to a hash map.
+ */
+public final class AliasIndex {
+
+    private static final int GOLDEN_RATIO = 0x9e3779b9;
+    private static final int SEED_TRIES = 256;
+    private static final int MAX_LOAD_SHIFT = 4;
+
+    private final int valueCount;
+    private final int seed;
+    private final int shift;
+    private final String[] slotAliases;
+    private final int[] slotIndexes;
+    private final Map<String, Integer> overflowMap;
+    private final Map<String, Integer> aliasIndexMap;
+
+    private AliasIndex(Map<String, Integer> aliasIndexMap, int valueCount) {
+        aliasIndexMap.forEach((alias, index) -> {
+            if (index == null || index < 0 || index >= valueCount)
+                throw new IllegalArgumentException(
+                        "Wrong Index !!! - alias = " + alias + ", index = " +
+                                index + ", valueCount = " + valueCount);
+        });
+        this.valueCount = valueCount;
+        this.aliasIndexMap = Collections
+                .unmodifiableMap(new LinkedHashMap<>(aliasIndexMap));
+        String[] aliases = aliasIndexMap.keySet().toArray(new String[0]);
+        int bits = Math.max(1,
+                33 - Integer.numberOfLeadingZeros(Math.max(1,
+                        aliases.length - 1)));
+        int bestSeed = 0;
+        int bestBits = bits;
+        int bestCollisions = Integer.MAX_VALUE;
+        search:
+        for (int loadShift = 0; loadShift <= MAX_LOAD_SHIFT; loadShift++)
+            for (int seed = 0; seed < SEED_TRIES; seed++) {
+                int collisions = countCollisions(aliases, seed,
+                        bits + loadShift);
+                if (collisions < bestCollisions) {
+                    bestSeed = seed;
+                    bestBits = bits + loadShift;
+                    bestCollisions = collisions;
+                    if (collisions == 0)
+                        break search;
+                }
+            }
+        this.seed = bestSeed;
+        this.shift = 32 - bestBits;
+        this.slotAliases = new String[1 << bestBits];
+        this.slotIndexes = new int[1 << bestBits];
+        Map<String, Integer> overflowMap = new HashMap<>();
+        for (String alias : aliases) {
+            int slot = buildSlot(alias.hashCode());
+            if (slotAliases[slot] == null) {
+                slotAliases[slot] = alias;
+                slotIndexes[slot] = aliasIndexMap.get(alias);
+            } else
+                overflowMap.put(alias, aliasIndexMap.get(alias));
+        }
+        this.overflowMap = overflowMap.isEmpty() ? null : overflowMap;
+    }
+
+    /**
+     * Of alias index.
+     *
+     * @param aliasList the alias list, an alias indexing its position
+     * @return the alias index
+     */
+    public static AliasIndex of(List<String> aliasList) {
+        Map<String, Integer> aliasIndexMap = new LinkedHashMap<>();
+        for (int i = 0; i < aliasList.size(); i++)
+            if (aliasIndexMap.put(aliasList.get(i), i) != null)
+                throw new IllegalArgumentException(
+                        "Wrong Alias List !!! - duplicated alias = " +
+                                aliasList.get(i));
+        return new AliasIndex(aliasIndexMap, aliasList.size());
+    }
+
+    /**
+     * Of alias index.
+     *
+     * @param aliasIndexMap the alias index map
+     * @param valueCount    the value count of a record
+     * @return the alias index
+     */
+    public static AliasIndex of(Map<String, Integer> aliasIndexMap,
+            int valueCount) {
+        return new AliasIndex(aliasIndexMap, valueCount);
+    }
+
+    private static int buildSlot(int hashCode, int seed, int shift) {
+        return ((hashCode ^ seed) * GOLDEN_RATIO) >>> shift;
+    }
+
+    private int buildSlot(int hashCode) {
+        return buildSlot(hashCode, seed, shift);
+    }
+
+    private static int countCollisions(String[] aliases, int seed, int bits) {
+        boolean[] used = new boolean[1 << bits];
+        int collisions = 0;
+        for (String alias : aliases) {
+            int slot = buildSlot(alias.hashCode(), seed, 32 - bits);
+            if (used[slot])
+                collisions++;
+            used[slot] = true;
+        }
+        return collisions;
+    }
+
+    /**
+     * Index of int.
+     *
+     * @param alias the alias
+     * @return the index, -1 if the alias is unknown
+     */
+    public int indexOf(Object alias) {
+        if (alias == null)
+            return -1;
+        int slot = buildSlot(alias.hashCode());
+        if (alias.equals(slotAliases[slot]))
+            return slotIndexes[slot];
+        if (overflowMap == null)
+            return -1;
+        Integer index = overflowMap.get(alias);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Gets value count.
+     *
+     * @return the value count of a record
+     */
+    public int getValueCount() {
+        return valueCount;
+    }
+
+    /**
+     * Gets alias index map.
+     *
+     * @return the unmodifiable alias index map
+     */
+    public Map<String, Integer> getAliasIndexMap() {
+        return aliasIndexMap;
+    }
+
+    /**
+     * Is perfect boolean.
+     *
+     * @return true if no alias fell back to the hash map
+     */
+    public boolean isPerfect() {
+        return overflowMap == null;
+    }
+
+    /**
+     * New map frozen index alias map.
+     *
+     * @param <V>       the type parameter
+     * @param valueList the value list of a record
+     * @return the frozen index alias map sharing this alias index
+     */
+    public <V> FrozenIndexAliasMap<V> newMap(List<V> valueList) {
+        return new FrozenIndexAliasMap<>(this, valueList.toArray());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        AliasIndex that = (AliasIndex) o;
+        return valueCount == that.valueCount &&
+                aliasIndexMap.equals(that.aliasIndexMap);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(valueCount, aliasIndexMap);
+    }
+
+    @Override
+    public String toString() {
+        return "AliasIndex{" + "valueCount=" + valueCount +
+                ", aliasIndexMap=" + aliasIndexMap + ", slots=" +
+                slotAliases.length + ", isPerfect=" + isPerfect() + '}';
+    }
+}
@@ -0,0 +1,389 @@
+package kr.jm.utils.collections;
+
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Open addressing hash table keyed on (key1, key2) behind the flat mode of
+ * {@link JMNestedMap}. Keys and values are stored inline in one array of
+ * triples probed linearly, so an entry costs three references instead of a
+ * nested map per key1. The key1 index backing the row views is only built
+ * on the first row access and maintained from then on.
+ *
+ * @param <K1> the type parameter
+ * @param <K2> the type parameter
+ * @param <V>  the type parameter
+ */
+class CompositeKeyTable<K1, K2, V> {
+
+    private static final int STRIDE = 3;
+    private static final int MIN_CAPACITY = 16;
+    private static final Object TOMBSTONE = new Object();
+
+    private final StampedLock stampedLock;
+    private Object[] table;
+    private int mask;
+    private int size;
+    private int usedSlots;
+    private Map<K1, List<K2>> rowIndex;
+
+    CompositeKeyTable() {
+        this.stampedLock = new StampedLock();
+        initTable(MIN_CAPACITY);
+    }
+
+    private void initTable(int capacity) {
+        this.table = new Object[capacity * STRIDE];
+        this.mask = capacity - 1;
+        this.usedSlots = size;
+    }
+
+    private static int hash(Object key1, Object key2) {
+        int hash = key1.hashCode() * 31 + key2.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    // the slot of the keys, or -(insertion slot + 1) when absent
+    private int findSlot(Object key1, Object key2) {
+        int tombstoneSlot = -1;
+        for (int slot = hash(key1, key2) & mask; ;
+             slot = (slot + 1) & mask) {
+            Object slotKey1 = table[slot * STRIDE];
+            if (slotKey1 == null)
+                return -(tombstoneSlot < 0 ? slot : tombstoneSlot) - 1;
+            if (slotKey1 == TOMBSTONE) {
+                if (tombstoneSlot < 0)
+                    tombstoneSlot = slot;
+            } else if (slotKey1.equals(key1) &&
+                    table[slot * STRIDE + 1].equals(key2))
+                return slot;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int slot) {
+        return (V) table[slot * STRIDE + 2];
+    }
+
+    V get(Object key1, Object key2) {
+        long stamp = stampedLock.readLock();
+        try {
+            int slot = findSlot(key1, key2);
+            return slot < 0 ? null : valueAt(slot);
+        } finally {
+            stampedLock.unlockRead(stamp);
+        }
+    }
+
+    V put(K1 key1, K2 key2, V value) {
+        Objects.requireNonNull(value);
+        long stamp = stampedLock.writeLock();
+        try {
+            return putUnderLock(key1, key2, value);
+        } finally {
+            stampedLock.unlockWrite(stamp);
+        }
+    }
+
+    V getOrPutGetNew(K1 key1, K2 key2, Supplier<V> newValueSupplier) {
+        V value = get(key1, key2);
+        if (value != null)
+            return value;
+        long stamp = stampedLock.writeLock();
+        try {
+            int slot = findSlot(key1, key2);
+            if (slot >= 0)
+                return valueAt(slot);
+            value = Objects.requireNonNull(newValueSupplier.get());
+            putUnderLock(key1, key2, value);
+            return value;
+        } finally {
+            stampedLock.unlockWrite(stamp);
+        }
+    }
+
+    private V putUnderLock(K1 key1, K2 key2, V value) {
+        int slot = findSlot(Objects.requireNonNull(key1),
+                Objects.requireNonNull(key2));
+        if (slot >= 0) {
+            V oldValue = valueAt(slot);
+            table[slot * STRIDE + 2] = value;
+            return oldValue;
+        }
+        slot = -slot - 1;
+        if (table[slot * STRIDE] == null)
+            usedSlots++;
+        table[slot * STRIDE] = key1;
+        table[slot * STRIDE + 1] = key2;
+        table[slot * STRIDE + 2] = value;
+        size++;
+        if (rowIndex != null)
+            rowIndex.computeIfAbsent(key1, k -> new ArrayList<>(2)).add(key2);
+        // at a 3/4 load, grows if live entries take half, else only purges
+        // the tombstones
+        if (usedSlots * 4 >= (mask + 1) * 3)
+            rehash(size * 2 >= mask + 1 ? (mask + 1) * 2 : mask + 1);
+        return null;
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldTable = table;
+        initTable(capacity);
+        for (int i = 0; i < oldTable.length; i += STRIDE) {
+            Object key1 = oldTable[i];
+            if (key1 == null || key1 == TOMBSTONE)
+                continue;
+            int slot = -findSlot(key1, oldTable[i + 1]) - 1;
+            System.arraycopy(oldTable, i, table, slot * STRIDE, STRIDE);
+        }
+        usedSlots = size;
+    }
+
+    V remove(Object key1, Object key2) {
+        long stamp = stampedLock.writeLock();
+        try {
+            return removeUnderLock(key1, key2);
+        } finally {
+            stampedLock.unlockWrite(stamp);
+        }
+    }
+
+    private V removeUnderLock(Object key1, Object key2) {
+        int slot = findSlot(key1, key2);
+        if (slot < 0)
+            return null;
+        V oldValue = valueAt(slot);
+        table[slot * STRIDE] = TOMBSTONE;
+        table[slot * STRIDE + 1] = null;
+        table[slot * STRIDE + 2] = null;
+        size--;
+        if (rowIndex != null) {
+            List<K2> rowKeyList = rowIndex.get(key1);
+            rowKeyList.remove(key2);
+            if (rowKeyList.isEmpty())
+                rowIndex.remove(key1);
+        }
+        return oldValue;
+    }
+
+    int size() {
+        long stamp = stampedLock.readLock();
+        try {
+            return size;
+        } finally {
+            stampedLock.unlockRead(stamp);
+        }
+    }
+
+    void clear() {
+        long stamp = stampedLock.writeLock();
+        try {
+            size = 0;
+            initTable(MIN_CAPACITY);
+            if (rowIndex != null)
+                rowIndex.clear();
+        } finally {
+            stampedLock.unlockWrite(stamp);
+        }
+    }
+
+    boolean isRowIndexed() {
+        long stamp = stampedLock.readLock();
+        try {
+            return rowIndex != null;
+        } finally {
+            stampedLock.unlockRead(stamp);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private long lockWithRowIndex() {
+        long stamp = stampedLock.readLock();
+        if (rowIndex != null)
+            return stamp;
+        stampedLock.unlockRead(stamp);
+        stamp = stampedLock.writeLock();
+        if (rowIndex == null) {
+            rowIndex = new HashMap<>();
+            for (int i = 0; i < table.length; i += STRIDE)
+                if (table[i] != null && table[i] != TOMBSTONE)
+                    rowIndex.computeIfAbsent((K1) table[i],
+                            k -> new ArrayList<>(2)).add((K2) table[i + 1]);
+        }
+        return stamp;
+    }
+
+    List<K1> buildRowKeyList() {
+        long stamp = lockWithRowIndex();
+        try {
+            return new ArrayList<>(rowIndex.keySet());
+        } finally {
+            stampedLock.unlock(stamp);
+        }
+    }
+
+    List<K2> buildColumnKeyList(Object key1) {
+        long stamp = lockWithRowIndex();
+        try {
+            List<K2> rowKeyList = rowIndex.get(key1);
+            return rowKeyList == null ? Collections.emptyList() :
+                    new ArrayList<>(rowKeyList);
+        } finally {
+            stampedLock.unlock(stamp);
+        }
+    }
+
+    int getRowCount() {
+        long stamp = lockWithRowIndex();
+        try {
+            return rowIndex.size();
+        } finally {
+            stampedLock.unlock(stamp);
+        }
+    }
+
+    boolean containsRow(Object key1) {
+        long stamp = lockWithRowIndex();
+        try {
+            return rowIndex.containsKey(key1);
+        } finally {
+            stampedLock.unlock(stamp);
+        }
+    }
+
+    Map<K2, V> removeRow(Object key1) {
+        long stamp = lockWithRowIndex();
+        try {
+            stamp = toWriteLock(stamp);
+            List<K2> rowKeyList = rowIndex.get(key1);
+            if (rowKeyList == null)
+                return null;
+            Map<K2, V> removedRow = new HashMap<>();
+            for (K2 key2 : new ArrayList<>(rowKeyList))
+                removedRow.put(key2, removeUnderLock(key1, key2));
+            return removedRow;
+        } finally {
+            stampedLock.unlock(stamp);
+        }
+    }
+
+    // a write stamp is returned as is
+    private long toWriteLock(long stamp) {
+        long writeStamp = stampedLock.tryConvertToWriteLock(stamp);
+        if (writeStamp != 0)
+            return writeStamp;
+        stampedLock.unlockRead(stamp);
+        return stampedLock.writeLock();
+    }
+
+    Map<K2, V> getRowView(K1 key1) {
+        return new RowView(Objects.requireNonNull(key1));
+    }
+
+    /**
+     * As nested map map.
+     *
+     * @return the nested map view, whose rows are views of this table
+     */
+    Map<K1, Map<K2, V>> asNestedMap() {
+        return new NestedMapView();
+    }
+
+    private class NestedMapView extends AbstractMap<K1, Map<K2, V>> {
+
+        @Override
+        public int size() {
+            return getRowCount();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return CompositeKeyTable.this.size() == 0;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return containsRow(key);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Map<K2, V> get(Object key) {
+            return containsRow(key) ? new RowView((K1) key) : null;
+        }
+
+        @Override
+        public Map<K2, V> put(K1 key, Map<K2, V> value) {
+            Map<K2, V> oldRow = removeRow(key);
+            value.forEach((key2, v) -> CompositeKeyTable.this
+                    .put(key, key2, v));
+            return oldRow;
+        }
+
+        @Override
+        public Map<K2, V> remove(Object key) {
+            return removeRow(key);
+        }
+
+        @Override
+        public void clear() {
+            CompositeKeyTable.this.clear();
+        }
+
+        // a snapshot of the row keys whose values are live row views
+        @Override
+        public Set<Entry<K1, Map<K2, V>>> entrySet() {
+            Set<Entry<K1, Map<K2, V>>> entrySet = new LinkedHashSet<>();
+            for (K1 key1 : buildRowKeyList())
+                entrySet.add(new SimpleImmutableEntry<>(key1,
+                        new RowView(key1)));
+            return Collections.unmodifiableSet(entrySet);
+        }
+    }
+
+    private class RowView extends AbstractMap<K2, V> {
+        private final K1 key1;
+
+        private RowView(K1 key1) {
+            this.key1 = key1;
+        }
+
+        @Override
+        public V get(Object key) {
+            return CompositeKeyTable.this.get(key1, key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public V put(K2 key, V value) {
+            return CompositeKeyTable.this.put(key1, key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            return CompositeKeyTable.this.remove(key1, key);
+        }
+
+        @Override
+        public int size() {
+            return buildColumnKeyList(key1).size();
+        }
+
+        // a snapshot of the row entries
+        @Override
+        public Set<Entry<K2, V>> entrySet() {
+            Set<Entry<K2, V>> entrySet = new LinkedHashSet<>();
+            for (K2 key2 : buildColumnKeyList(key1)) {
+                V value = CompositeKeyTable.this.get(key1, key2);
+                if (value != null)
+                    entrySet.add(new SimpleImmutableEntry<>(key2, value));
+            }
+            return Collections.unmodifiableSet(entrySet);
+        }
+    }
+}
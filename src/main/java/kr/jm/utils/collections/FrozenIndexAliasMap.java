@@ -0,0 +1,104 @@
+package kr.jm.utils.collections;
+
+import java.util.*;
+
+/**
+ * The type Frozen index alias map.
+ * <p>
+ * Immutable record of an {@link AliasIndex}: it only holds its value array,
+ * the alias index being shared by all the records of the same layout, and
+ * resolves an alias by {@link AliasIndex#indexOf(Object)} then an array
+ * read. As in {@link IndexAliasMap}, {@link #size()} is the value count and
+ * the entries are the aliased values.
+ *
+ * @param <V> the type parameter
+ */
+public class FrozenIndexAliasMap<V> extends AbstractMap<String, V> {
+
+    private final AliasIndex aliasIndex;
+    private final Object[] values;
+
+    /**
+     * Instantiates a new Frozen index alias map.
+     *
+     * @param aliasIndex the alias index
+     * @param values     the values, owned by this map from now on
+     */
+    FrozenIndexAliasMap(AliasIndex aliasIndex, Object[] values) {
+        if (values.length != aliasIndex.getValueCount())
+            throw new IllegalArgumentException(
+                    "Wrong Value Count !!! - valueCount = " + values.length +
+                            ", expected = " + aliasIndex.getValueCount());
+        this.aliasIndex = aliasIndex;
+        this.values = values;
+    }
+
+    /**
+     * Gets alias index.
+     *
+     * @return the alias index
+     */
+    public AliasIndex getAliasIndex() {
+        return aliasIndex;
+    }
+
+    /**
+     * Get v.
+     *
+     * @param index the index
+     * @return the v
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int index) {
+        return (V) values[index];
+    }
+
+    @Override
+    public V get(Object key) {
+        int index = aliasIndex.indexOf(key);
+        return index < 0 ? null : get(index);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return aliasIndex.indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (Object v : values)
+            if (Objects.equals(v, value))
+                return true;
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return aliasIndex.getAliasIndexMap().keySet();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Collection<V> values() {
+        return Collections.unmodifiableList((List<V>) Arrays.asList(values));
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        Set<Entry<String, V>> entrySet = new LinkedHashSet<>();
+        aliasIndex.getAliasIndexMap().forEach((alias, index) -> entrySet
+                .add(new SimpleImmutableEntry<>(alias, get(index))));
+        return Collections.unmodifiableSet(entrySet);
+    }
+
+}
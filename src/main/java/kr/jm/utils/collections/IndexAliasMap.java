@@ -11,6 +11,11 @@ import java.util.stream.Collectors;
 
 /**
  * The type Index alias map.
+ * <p>
+ * Mutations are serialized on this map. Once the layout is complete,
+ * {@link #freeze()} compiles it into an immutable {@link FrozenIndexAliasMap}
+ * whose {@link AliasIndex} can be shared by every record of that layout
+ * through {@link #freeze(AliasIndex)} or {@link AliasIndex#newMap(List)}.
  *
  * @param <V> the type parameter
  */
@@ -37,8 +42,9 @@ public class IndexAliasMap<V> implements Map<String, V> {
      * @param dataList  the data list
      */
     public IndexAliasMap(List<String> aliasList, List<V> dataList) {
-        this.dataList = new ArrayList<>(dataList);
-        this.aliasIndexMap = new HashMap<>(size());
+        this.dataList = aliasList == null ? new ArrayList<>(dataList) :
+                new ArrayList<>(dataList.size());
+        this.aliasIndexMap = new HashMap<>(dataList.size());
         if (aliasList != null) addAllWithAlias(aliasList, dataList);
     }
 
@@ -49,7 +55,7 @@ public class IndexAliasMap<V> implements Map<String, V> {
      * @param dataList  the data list
      */
     public void addAllWithAlias(List<String> aliasList, List<V> dataList) {
-        synchronized (dataList) {
+        synchronized (this) {
             JMLambda.runByBoolean(aliasList.size() == dataList.size(),
                     () -> JMStream.numberRangeWithCount(0, 1, dataList.size())
                             .forEach(i -> addWithAlias(aliasList.get(i),
@@ -71,7 +77,7 @@ public class IndexAliasMap<V> implements Map<String, V> {
      * @return the integer
      */
     public Integer addWithAlias(String alias, V value) {
-        synchronized (dataList) {
+        synchronized (this) {
             dataList.add(value);
             return aliasIndexMap.put(alias, dataList.size() - 1);
         }
@@ -91,6 +97,31 @@ public class IndexAliasMap<V> implements Map<String, V> {
                         "setKeyIndexMap", index));
     }
 
+    /**
+     * Freeze frozen index alias map.
+     *
+     * @return the frozen index alias map with a new alias index of the
+     * current aliases
+     */
+    public synchronized FrozenIndexAliasMap<V> freeze() {
+        return AliasIndex.of(aliasIndexMap, size()).newMap(dataList);
+    }
+
+    /**
+     * Freeze frozen index alias map.
+     *
+     * @param aliasIndex the alias index shared by the records of the layout
+     * @return the frozen index alias map with the alias index
+     */
+    public synchronized FrozenIndexAliasMap<V> freeze(AliasIndex aliasIndex) {
+        if (aliasIndex.getValueCount() != size() ||
+                !aliasIndex.getAliasIndexMap().equals(aliasIndexMap))
+            throw new IllegalArgumentException(
+                    "Wrong Alias Index !!! - aliasIndex = " + aliasIndex +
+                            ", aliasIndexMap = " + aliasIndexMap);
+        return aliasIndex.newMap(dataList);
+    }
+
     @Override
     public V put(String key, V value) {
         return dataList.get(addWithAlias(key, value));
@@ -141,7 +172,7 @@ public class IndexAliasMap<V> implements Map<String, V> {
 
     @Override
     public void clear() {
-        synchronized (dataList) {
+        synchronized (this) {
             dataList.clear();
             aliasIndexMap.clear();
         }
@@ -0,0 +1,162 @@
+package kr.jm.utils.collections;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The type Jm chunked list.
+ * <p>
+ * Lock-free append-only list. Elements live in chunks doubling in size, so
+ * appending never copies elements and an index maps to its chunk with a bit
+ * scan. An add claims its index with one atomic increment and publishes the
+ * element with a volatile write; chunks are installed by compare and set.
+ * {@link #addAll(Collection)} claims the whole range at once.
+ * <p>
+ * Null elements are not permitted. {@link #size()} counts the claimed
+ * indexes, and reading an index claimed but not yet published waits for its
+ * writer, which is at most a few instructions away. Iteration is weakly
+ * consistent: it covers the elements added before it started, never fails
+ * on concurrent adds and does not see them. Elements can't be removed or
+ * replaced.
+ *
+ * @param <E> the type parameter
+ */
+public class JMChunkedList<E> extends AbstractList<E> implements
+        RandomAccess {
+
+    private static final int FIRST_CHUNK_BITS = 4;
+    private static final int MAX_CHUNKS = 32 - FIRST_CHUNK_BITS;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<E>> chunks;
+    private final AtomicInteger claimedSize;
+
+    /**
+     * Instantiates a new Jm chunked list.
+     */
+    public JMChunkedList() {
+        this.chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+        this.claimedSize = new AtomicInteger();
+    }
+
+    // chunk k holds the indexes from 16 * (2^k - 1) to 16 * (2^(k+1) - 1)
+    private static int buildChunkIndex(int index) {
+        return 31 - Integer.numberOfLeadingZeros(
+                (index >>> FIRST_CHUNK_BITS) + 1);
+    }
+
+    private static int buildChunkOffset(int index, int chunkIndex) {
+        return index - buildFirstIndex(chunkIndex);
+    }
+
+    private static int buildFirstIndex(int chunkIndex) {
+        return ((1 << chunkIndex) - 1) << FIRST_CHUNK_BITS;
+    }
+
+    // the last chunk is cut at Integer.MAX_VALUE
+    private static int buildChunkSize(int chunkIndex) {
+        return (int) Math.min(1L << (chunkIndex + FIRST_CHUNK_BITS),
+                (long) Integer.MAX_VALUE - buildFirstIndex(chunkIndex) + 1);
+    }
+
+    private AtomicReferenceArray<E> getOrCreateChunk(int chunkIndex) {
+        AtomicReferenceArray<E> chunk = chunks.get(chunkIndex);
+        if (chunk != null)
+            return chunk;
+        chunks.compareAndSet(chunkIndex, null,
+                new AtomicReferenceArray<>(buildChunkSize(chunkIndex)));
+        return chunks.get(chunkIndex);
+    }
+
+    // a single atomic add, so claiming is wait-free where the hardware has
+    // a fetch and add
+    private int claim(int count) {
+        int index = claimedSize.getAndAdd(count);
+        if (index < 0 || index > Integer.MAX_VALUE - count) {
+            claimedSize.getAndAdd(-count);
+            throw new IllegalStateException(
+                    "Chunked List Full !!! - count = " + count);
+        }
+        return index;
+    }
+
+    private void publish(int index, E e) {
+        int chunkIndex = buildChunkIndex(index);
+        getOrCreateChunk(chunkIndex)
+                .set(buildChunkOffset(index, chunkIndex), e);
+    }
+
+    @Override
+    public boolean add(E e) {
+        Objects.requireNonNull(e);
+        publish(claim(1), e);
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        Object[] elements = c.toArray();
+        if (elements.length == 0)
+            return false;
+        for (Object element : elements)
+            Objects.requireNonNull(element);
+        int index = claim(elements.length);
+        for (Object element : elements)
+            publish(index++, uncheckedCast(element));
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E uncheckedCast(Object element) {
+        return (E) element;
+    }
+
+    @Override
+    public E get(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException(
+                    "Wrong Index !!! - index = " + index + ", size = " +
+                            size());
+        int chunkIndex = buildChunkIndex(index);
+        int offset = buildChunkOffset(index, chunkIndex);
+        while (true) {
+            AtomicReferenceArray<E> chunk = chunks.get(chunkIndex);
+            E e = chunk == null ? null : chunk.get(offset);
+            if (e != null)
+                return e;
+            Thread.yield();
+        }
+    }
+
+    @Override
+    public int size() {
+        return claimedSize.get();
+    }
+
+    /**
+     * Weakly consistent iterator over the elements added before it was
+     * created, which does not support remove.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<E> iterator() {
+        int size = size();
+        return new Iterator<E>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public E next() {
+                if (index >= size)
+                    throw new NoSuchElementException();
+                return get(index++);
+            }
+        };
+    }
+
+}
@@ -2,25 +2,33 @@ package kr.jm.utils.collections;
 
 import kr.jm.utils.helper.JMOptional;
 
-import java.util.Collection;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The type Jm count map.
+ * <p>
+ * By default the counts are boxed longs updated under a lock on the whole
+ * map. The {@link #ofLongAdder()} mode keeps a {@link LongAdder} per key
+ * instead, so increments of any keys never contend on a shared lock and
+ * allocate nothing once the key exists. In that mode {@link #values()} and
+ * {@link #entrySet()} are unmodifiable snapshots and every count is only as
+ * consistent as {@link LongAdder#sum()}.
  *
  * @param <V> the type parameter
  */
 public class JMCountMap<V> implements Map<V, Long> {
 
     private final Map<V, Long> countMap;
+    // not null only in the long adder mode, which leaves countMap unused
+    private final ConcurrentHashMap<V, LongAdder> adderMap;
 
     /**
      * Instantiates a new Jm count map.
      */
     public JMCountMap() {
-        this.countMap = new ConcurrentHashMap<>();
+        this(new ConcurrentHashMap<V, Long>());
     }
 
     /**
@@ -30,6 +38,54 @@ public class JMCountMap<V> implements Map<V, Long> {
      */
     public JMCountMap(Map<V, Long> map) {
         this.countMap = map;
+        this.adderMap = null;
+    }
+
+    private JMCountMap(ConcurrentHashMap<V, LongAdder> adderMap) {
+        this.countMap = Collections.emptyMap();
+        this.adderMap = adderMap;
+    }
+
+    /**
+     * Of long adder jm count map.
+     *
+     * @param <V> the type parameter
+     * @return the jm count map counting with a long adder per key
+     */
+    public static <V> JMCountMap<V> ofLongAdder() {
+        return new JMCountMap<>(new ConcurrentHashMap<V, LongAdder>());
+    }
+
+    /**
+     * Is long adder mode boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isLongAdderMode() {
+        return adderMap != null;
+    }
+
+    private LongAdder getOrCreateAdder(V value) {
+        // a plain get first as computeIfAbsent locks the bin even on a hit
+        LongAdder adder = adderMap.get(value);
+        return adder != null ? adder :
+                adderMap.computeIfAbsent(value, v -> new LongAdder());
+    }
+
+    private static LongAdder newAdder(long count) {
+        LongAdder adder = new LongAdder();
+        adder.add(count);
+        return adder;
+    }
+
+    private static Long sumOrNull(LongAdder adder) {
+        return adder == null ? null : adder.sum();
+    }
+
+    private Map<V, Long> buildSnapshot() {
+        Map<V, Long> snapshot = new HashMap<>(adderMap.size() * 2);
+        adderMap.forEach((value, adder) -> snapshot.put(value, adder.sum()));
+        return snapshot;
     }
 
     /*
@@ -39,7 +95,7 @@ public class JMCountMap<V> implements Map<V, Long> {
      */
     @Override
     public int size() {
-        return countMap.size();
+        return adderMap != null ? adderMap.size() : countMap.size();
     }
 
     /*
@@ -49,7 +105,7 @@ public class JMCountMap<V> implements Map<V, Long> {
      */
     @Override
     public boolean isEmpty() {
-        return countMap.isEmpty();
+        return adderMap != null ? adderMap.isEmpty() : countMap.isEmpty();
     }
 
     /*
@@ -59,7 +115,8 @@ public class JMCountMap<V> implements Map<V, Long> {
      */
     @Override
     public boolean containsKey(Object key) {
-        return countMap.containsKey(key);
+        return adderMap != null ? adderMap.containsKey(key) :
+                countMap.containsKey(key);
     }
 
     /*
@@ -69,7 +126,8 @@ public class JMCountMap<V> implements Map<V, Long> {
      */
     @Override
     public boolean containsValue(Object value) {
-        return countMap.containsValue(value);
+        return adderMap != null ? buildSnapshot().containsValue(value) :
+                countMap.containsValue(value);
     }
 
     /*
@@ -79,47 +137,87 @@ public class JMCountMap<V> implements Map<V, Long> {
      */
     @Override
     public Long get(Object key) {
-        return countMap.get(key);
+        return adderMap != null ? sumOrNull(adderMap.get(key)) :
+                countMap.get(key);
     }
 
     @Override
     public Long put(V key, Long value) {
-        return countMap.put(key, value);
+        return adderMap != null ?
+                sumOrNull(adderMap.put(key, newAdder(value))) :
+                countMap.put(key, value);
     }
 
     @Override
     public Long remove(Object key) {
-        return countMap.remove(key);
+        return adderMap != null ? sumOrNull(adderMap.remove(key)) :
+                countMap.remove(key);
     }
 
     @Override
     public void putAll(Map<? extends V, ? extends Long> m) {
-        countMap.putAll(m);
+        if (adderMap != null)
+            m.forEach(this::put);
+        else
+            countMap.putAll(m);
     }
 
     @Override
     public void clear() {
-        countMap.clear();
+        if (adderMap != null)
+            adderMap.clear();
+        else
+            countMap.clear();
     }
 
     @Override
     public Set<V> keySet() {
-        return countMap.keySet();
+        return adderMap != null ? adderMap.keySet() : countMap.keySet();
     }
 
     @Override
     public Collection<Long> values() {
-        return countMap.values();
+        return adderMap != null ?
+                Collections.unmodifiableCollection(buildSnapshot().values()) :
+                countMap.values();
     }
 
     @Override
     public Set<Entry<V, Long>> entrySet() {
-        return countMap.entrySet();
+        return adderMap != null ?
+                Collections.unmodifiableMap(buildSnapshot()).entrySet() :
+                countMap.entrySet();
     }
 
     @Override
     public String toString() {
-        return "JMCountMap{" + "countMap=" + countMap + '}';
+        return "JMCountMap{" + "countMap=" +
+                (adderMap != null ? buildSnapshot() : countMap) + '}';
+    }
+
+    /**
+     * Increment without reading the count back, the cheapest update in the
+     * long adder mode.
+     *
+     * @param value the value
+     */
+    public void increment(V value) {
+        add(value, 1);
+    }
+
+    /**
+     * Add.
+     *
+     * @param value the value
+     * @param count the count
+     */
+    public void add(V value, long count) {
+        if (adderMap != null)
+            getOrCreateAdder(value).add(count);
+        else
+            synchronized (countMap) {
+                countMap.put(value, getCount(value) + count);
+            }
     }
 
     /**
@@ -129,6 +227,11 @@ public class JMCountMap<V> implements Map<V, Long> {
      * @return the long
      */
     public long incrementAndGet(V value) {
+        if (adderMap != null) {
+            LongAdder adder = getOrCreateAdder(value);
+            adder.increment();
+            return adder.sum();
+        }
         synchronized (countMap) {
             countMap.put(value, getCount(value) + 1);
             return countMap.get(value);
@@ -142,6 +245,10 @@ public class JMCountMap<V> implements Map<V, Long> {
      * @return the count
      */
     public long getCount(V value) {
+        if (adderMap != null) {
+            LongAdder adder = adderMap.get(value);
+            return adder == null ? 0 : adder.sum();
+        }
         return JMOptional.getOptional(countMap, value).orElse(0L);
     }
 
@@ -152,6 +259,10 @@ public class JMCountMap<V> implements Map<V, Long> {
      * @return the jm count map
      */
     public JMCountMap<V> merge(JMCountMap<V> jmCountMap) {
+        if (adderMap != null) {
+            jmCountMap.forEach(this::add);
+            return this;
+        }
         synchronized (countMap) {
             jmCountMap.forEach((value, count) -> countMap
                     .put(value, getCount(value) + count));
@@ -159,5 +270,4 @@ public class JMCountMap<V> implements Map<V, Long> {
         }
     }
 
-
 }
@@ -1,20 +1,30 @@
 package kr.jm.utils.collections;
 
 import java.util.*;
-
-import static kr.jm.utils.helper.JMOptional.getOptional;
-import static kr.jm.utils.helper.JMPredicate.*;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
 
 /**
  * The type Jm limited list.
+ * <p>
+ * Bounded history keeping the last capacity elements in a circular array, so
+ * indexed access and cursor navigation are O(1). Writers take the write lock
+ * of a {@link StampedLock} and readers try an optimistic read first, falling
+ * back to the read lock only when a write got in between.
  *
  * @param <E> the type parameter
  */
 public class JMLimitedList<E> implements Collection<E> {
 
-    private final LinkedList<E> linkedList;
+    private final int capacity;
+    private final Object[] elements;
+    private final StampedLock stampedLock;
+    private int head;
+    private int size;
     private int currentIndex;
-    private int capacity;
+    // the number of elements ever dropped from the head, for sub list views
+    private long headSequence;
+    private int removeCount;
 
     /**
      * Instantiates a new Jm limited list.
@@ -22,9 +32,53 @@ public class JMLimitedList<E> implements Collection<E> {
      * @param capacity the capacity
      */
     public JMLimitedList(int capacity) {
-        this.currentIndex = -1;
+        if (capacity < 1)
+            throw new IllegalArgumentException(
+                    "Wrong Capacity !!! - capacity = " + capacity);
         this.capacity = capacity;
-        this.linkedList = new LinkedList<>();
+        this.elements = new Object[capacity];
+        this.stampedLock = new StampedLock();
+        this.currentIndex = -1;
+    }
+
+    // a reader may see a torn state optimistically, so its result or
+    // exception only counts once the stamp is validated
+    private <R> R read(Supplier<R> reader) {
+        long stamp = stampedLock.tryOptimisticRead();
+        if (stamp != 0)
+            try {
+                R result = reader.get();
+                if (stampedLock.validate(stamp))
+                    return result;
+            } catch (RuntimeException e) {
+                if (stampedLock.validate(stamp))
+                    throw e;
+            }
+        stamp = stampedLock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            stampedLock.unlockRead(stamp);
+        }
+    }
+
+    private <R> R write(Supplier<R> writer) {
+        long stamp = stampedLock.writeLock();
+        try {
+            return writer.get();
+        } finally {
+            stampedLock.unlockWrite(stamp);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elementAt(int index) {
+        return (E) elements[(head + index) % capacity];
+    }
+
+    private Optional<E> getOptionalElement(int index) {
+        return index < 0 || index >= size ? Optional.empty() :
+                Optional.ofNullable(elementAt(index));
     }
 
     /**
@@ -42,7 +96,7 @@ public class JMLimitedList<E> implements Collection<E> {
      * @return the first
      */
     public Optional<E> getFirst() {
-        return getOptional(linkedList).map(LinkedList::getFirst);
+        return read(() -> getOptionalElement(0));
     }
 
     /**
@@ -51,7 +105,7 @@ public class JMLimitedList<E> implements Collection<E> {
      * @return the last
      */
     public Optional<E> getLast() {
-        return getOptional(linkedList).map(LinkedList::getLast);
+        return read(() -> getOptionalElement(size - 1));
     }
 
     /**
@@ -61,9 +115,7 @@ public class JMLimitedList<E> implements Collection<E> {
      * @return the optional
      */
     public Optional<E> get(int index) {
-        return getOptional(linkedList)
-                .filter(getGreaterSize(0).and(getGreaterSize(index)))
-                .map(l -> l.get(index));
+        return read(() -> getOptionalElement(index));
     }
 
     /**
@@ -72,18 +124,30 @@ public class JMLimitedList<E> implements Collection<E> {
      * @return the current
      */
     public Optional<E> getCurrent() {
-        return get(currentIndex);
+        return read(() -> getOptionalElement(currentIndex));
     }
 
     /**
      * Sub list list.
+     * <p>
+     * Returns a read-only view without copying. The view keeps pointing at
+     * the same elements and throws {@link ConcurrentModificationException}
+     * once any of them was dropped or removed from this list.
      *
      * @param fromIndex the from index
      * @param toIndex   the to index
      * @return the list
      */
     public List<E> subList(int fromIndex, int toIndex) {
-        return linkedList.subList(fromIndex, toIndex);
+        return read(() -> {
+            if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+                throw new IndexOutOfBoundsException(
+                        "Wrong Sub List Range !!! - fromIndex = " +
+                                fromIndex + ", toIndex = " + toIndex +
+                                ", size = " + size);
+            return new SubListView(headSequence + fromIndex,
+                    toIndex - fromIndex, removeCount);
+        });
     }
 
     /**
@@ -92,7 +156,7 @@ public class JMLimitedList<E> implements Collection<E> {
      * @return the current index
      */
     public int getCurrentIndex() {
-        return currentIndex;
+        return read(() -> currentIndex);
     }
 
     /**
@@ -101,8 +165,8 @@ public class JMLimitedList<E> implements Collection<E> {
      * @return the previous
      */
     public Optional<E> getPrevious() {
-        return Optional.of(currentIndex).filter(getGreater(0))
-                .map(i -> linkedList.get(--currentIndex));
+        return write(() -> currentIndex > 0 ?
+                getOptionalElement(--currentIndex) : Optional.empty());
     }
 
     /**
@@ -111,8 +175,8 @@ public class JMLimitedList<E> implements Collection<E> {
      * @return the next
      */
     public Optional<E> getNext() {
-        return Optional.of(currentIndex).filter(getLess(linkedList.size() - 1))
-                .map(i -> linkedList.get(++currentIndex));
+        return write(() -> currentIndex < size - 1 ?
+                getOptionalElement(++currentIndex) : Optional.empty());
     }
 
     /*
@@ -122,21 +186,22 @@ public class JMLimitedList<E> implements Collection<E> {
      */
     @Override
     public boolean add(E e) {
-        synchronized (linkedList) {
-            if (capacity <= linkedList.size())
-                linkedList.remove();
-            return addAndChangeCurrentIndex(e);
-        }
+        return write(() -> addAndChangeCurrentIndex(e));
     }
 
     private boolean addAndChangeCurrentIndex(E e) {
-        linkedList.add(e);
+        if (size == capacity) {
+            elements[head] = e;
+            head = (head + 1) % capacity;
+            headSequence++;
+        } else
+            elements[(head + size++) % capacity] = e;
         initCurrentIndex();
         return true;
     }
 
     private void initCurrentIndex() {
-        this.currentIndex = linkedList.size() - 1;
+        this.currentIndex = size - 1;
     }
 
     /*
@@ -146,7 +211,7 @@ public class JMLimitedList<E> implements Collection<E> {
      */
     @Override
     public int size() {
-        return linkedList.size();
+        return read(() -> size);
     }
 
     /*
@@ -156,7 +221,7 @@ public class JMLimitedList<E> implements Collection<E> {
      */
     @Override
     public boolean isEmpty() {
-        return linkedList.isEmpty();
+        return size() == 0;
     }
 
     /*
@@ -166,17 +231,29 @@ public class JMLimitedList<E> implements Collection<E> {
      */
     @Override
     public boolean contains(Object o) {
-        return linkedList.contains(o);
+        return buildList().contains(o);
     }
 
-    /*
-     * (non-Javadoc)
+    private List<E> buildList() {
+        long stamp = stampedLock.readLock();
+        try {
+            List<E> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++)
+                list.add(elementAt(i));
+            return list;
+        } finally {
+            stampedLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Snapshot iterator which does not support remove.
      *
-     * @see java.util.Collection#iterator()
+     * @return the iterator
      */
     @Override
     public Iterator<E> iterator() {
-        return linkedList.iterator();
+        return Collections.unmodifiableList(buildList()).iterator();
     }
 
     /*
@@ -186,7 +263,7 @@ public class JMLimitedList<E> implements Collection<E> {
      */
     @Override
     public Object[] toArray() {
-        return linkedList.toArray();
+        return buildList().toArray();
     }
 
     /*
@@ -196,7 +273,7 @@ public class JMLimitedList<E> implements Collection<E> {
      */
     @Override
     public <T> T[] toArray(T[] a) {
-        return linkedList.toArray(a);
+        return buildList().toArray(a);
     }
 
     /*
@@ -206,10 +283,32 @@ public class JMLimitedList<E> implements Collection<E> {
      */
     @Override
     public boolean remove(Object o) {
-        synchronized (linkedList) {
-            initCurrentIndex();
-            return linkedList.remove(o);
-        }
+        return removeIf(Collections.singleton(o), true, true);
+    }
+
+    // compacts the kept elements to the front of the ring
+    private boolean removeIf(Collection<?> c, boolean isRemoving,
+            boolean isFirstOnly) {
+        return write(() -> {
+            int keptSize = 0;
+            boolean isRemoved = false;
+            for (int i = 0; i < size; i++) {
+                E e = elementAt(i);
+                if ((!isFirstOnly || !isRemoved) &&
+                        c.contains(e) == isRemoving)
+                    isRemoved = true;
+                else
+                    elements[(head + keptSize++) % capacity] = e;
+            }
+            for (int i = keptSize; i < size; i++)
+                elements[(head + i) % capacity] = null;
+            if (isRemoved) {
+                size = keptSize;
+                removeCount++;
+                initCurrentIndex();
+            }
+            return isRemoved;
+        });
     }
 
     /*
@@ -219,17 +318,23 @@ public class JMLimitedList<E> implements Collection<E> {
      */
     @Override
     public boolean containsAll(Collection<?> c) {
-        return linkedList.containsAll(c);
+        return buildList().containsAll(c);
     }
 
-    /*
-     * (non-Javadoc)
+    /**
+     * Add all only when every element fits without dropping any.
      *
-     * @see java.util.Collection#addAll(java.util.Collection)
+     * @param c the c
+     * @return true if added
      */
     @Override
     public boolean addAll(Collection<? extends E> c) {
-        return c.size() + this.size() <= capacity && this.addAll(c);
+        return write(() -> {
+            if (c.isEmpty() || c.size() + size > capacity)
+                return false;
+            c.forEach(this::addAndChangeCurrentIndex);
+            return true;
+        });
     }
 
     /*
@@ -239,10 +344,7 @@ public class JMLimitedList<E> implements Collection<E> {
      */
     @Override
     public boolean removeAll(Collection<?> c) {
-        synchronized (linkedList) {
-            initCurrentIndex();
-            return linkedList.removeAll(c);
-        }
+        return removeIf(c, true, false);
     }
 
     /*
@@ -252,7 +354,7 @@ public class JMLimitedList<E> implements Collection<E> {
      */
     @Override
     public boolean retainAll(Collection<?> c) {
-        return linkedList.retainAll(c);
+        return removeIf(c, false, false);
     }
 
     /*
@@ -262,10 +364,15 @@ public class JMLimitedList<E> implements Collection<E> {
      */
     @Override
     public void clear() {
-        synchronized (linkedList) {
+        write(() -> {
+            Arrays.fill(elements, null);
+            headSequence += size;
+            head = 0;
+            size = 0;
+            removeCount++;
             initCurrentIndex();
-            linkedList.clear();
-        }
+            return null;
+        });
     }
 
     /*
@@ -275,7 +382,7 @@ public class JMLimitedList<E> implements Collection<E> {
      */
     @Override
     public boolean equals(Object o) {
-        return linkedList.equals(o);
+        return buildList().equals(o);
     }
 
     /*
@@ -285,7 +392,7 @@ public class JMLimitedList<E> implements Collection<E> {
      */
     @Override
     public int hashCode() {
-        return linkedList.hashCode();
+        return buildList().hashCode();
     }
 
     /*
@@ -295,6 +402,38 @@ public class JMLimitedList<E> implements Collection<E> {
      */
     @Override
     public String toString() {
-        return linkedList.toString();
+        return buildList().toString();
+    }
+
+    private class SubListView extends AbstractList<E> {
+        private final long fromSequence;
+        private final int viewSize;
+        private final int expectedRemoveCount;
+
+        private SubListView(long fromSequence, int viewSize,
+                int expectedRemoveCount) {
+            this.fromSequence = fromSequence;
+            this.viewSize = viewSize;
+            this.expectedRemoveCount = expectedRemoveCount;
+        }
+
+        @Override
+        public E get(int index) {
+            if (index < 0 || index >= viewSize)
+                throw new IndexOutOfBoundsException(
+                        "Wrong Index !!! - index = " + index + ", size = " +
+                                viewSize);
+            return read(() -> {
+                long position = fromSequence + index - headSequence;
+                if (removeCount != expectedRemoveCount || position < 0)
+                    throw new ConcurrentModificationException();
+                return elementAt((int) position);
+            });
+        }
+
+        @Override
+        public int size() {
+            return viewSize;
+        }
     }
 }
@@ -1,21 +1,39 @@
 package kr.jm.utils.collections;
 
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.Optional;
-import java.util.concurrent.LinkedBlockingQueue;
-
-import static kr.jm.utils.helper.JMOptional.getOptional;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * The type Jm limited queue.
+ * <p>
+ * Array-backed lock-free ring keeping the last capacity elements in FIFO
+ * order: adding to a full queue overwrites the oldest element instead of
+ * failing. The ring size is the capacity rounded up to a power of two and
+ * every slot carries the sequence number of the element published in it, so
+ * producers only claim a sequence with one atomic increment and readers
+ * validate a slot before and after reading it. Nothing is allocated per
+ * element.
+ * <p>
+ * {@link #iterator()} and {@link #toArray()} work on a snapshot of
+ * consecutive elements in FIFO order. Removing arbitrary elements is not
+ * supported on the ring.
  *
  * @param <E> the type parameter
  */
 public class JMLimitedQueue<E> implements Collection<E> {
 
-    private int capacity;
-    private LinkedBlockingQueue<E> linkedBlockingQueue;
+    private static final long WRITING = Long.MIN_VALUE;
+
+    private final int capacity;
+    private final int ringSize;
+    private final int mask;
+    private final AtomicReferenceArray<E> buffer;
+    // the sequence + 1 of the element published in each slot
+    private final AtomicLongArray publishedSequences;
+    private final AtomicLong headSequence;
+    private final AtomicLong tailSequence;
 
     /**
      * Instantiates a new Jm limited queue.
@@ -23,8 +41,28 @@ public class JMLimitedQueue<E> implements Collection<E> {
      * @param capacity the capacity
      */
     public JMLimitedQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30)
+            throw new IllegalArgumentException(
+                    "Wrong Capacity !!! - capacity = " + capacity);
         this.capacity = capacity;
-        this.linkedBlockingQueue = new LinkedBlockingQueue<>(capacity);
+        this.ringSize = JMRingBlockingQueue.buildPowerOfTwo(capacity);
+        this.mask = ringSize - 1;
+        this.buffer = new AtomicReferenceArray<>(ringSize);
+        this.publishedSequences = new AtomicLongArray(ringSize);
+        // as if the lap before the first one was published
+        for (int i = 0; i < ringSize; i++)
+            publishedSequences.set(i, i - ringSize + 1);
+        this.headSequence = new AtomicLong();
+        this.tailSequence = new AtomicLong();
+    }
+
+    /**
+     * Gets capacity.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
     }
 
     /**
@@ -33,7 +71,7 @@ public class JMLimitedQueue<E> implements Collection<E> {
      * @return the optional
      */
     public Optional<E> poll() {
-        return getOptional(linkedBlockingQueue).map(LinkedBlockingQueue::poll);
+        return Optional.ofNullable(read(true));
     }
 
     /**
@@ -42,7 +80,29 @@ public class JMLimitedQueue<E> implements Collection<E> {
      * @return the optional
      */
     public Optional<E> peek() {
-        return Optional.ofNullable(linkedBlockingQueue.peek());
+        return Optional.ofNullable(read(false));
+    }
+
+    private E read(boolean isConsuming) {
+        while (true) {
+            long head = headSequence.get();
+            int index = (int) (head & mask);
+            long published = publishedSequences.get(index);
+            if (published == head + 1) {
+                E e = buffer.get(index);
+                if (publishedSequences.get(index) == head + 1 &&
+                        (!isConsuming ||
+                                headSequence.compareAndSet(head, head + 1)))
+                    return e;
+            } else if (head >= tailSequence.get())
+                return null;
+            else if (published != WRITING && published > head + 1)
+                // overwritten, the writer has already moved the head on
+                continue;
+            else
+                // claimed by a producer which has not published it yet
+                Thread.yield();
+        }
     }
 
     /*
@@ -52,9 +112,26 @@ public class JMLimitedQueue<E> implements Collection<E> {
      */
     @Override
     public boolean add(E e) {
-        if (capacity <= linkedBlockingQueue.size())
-            linkedBlockingQueue.remove();
-        return linkedBlockingQueue.add(e);
+        Objects.requireNonNull(e);
+        long sequence = tailSequence.getAndIncrement();
+        moveHeadTo(sequence + 1 - capacity);
+        int index = (int) (sequence & mask);
+        // waits only when producers lap each other on the same slot
+        while (!publishedSequences
+                .compareAndSet(index, sequence - ringSize + 1, WRITING))
+            Thread.yield();
+        buffer.set(index, e);
+        publishedSequences.set(index, sequence + 1);
+        return true;
+    }
+
+    private void moveHeadTo(long sequence) {
+        while (true) {
+            long head = headSequence.get();
+            if (head >= sequence ||
+                    headSequence.compareAndSet(head, sequence))
+                return;
+        }
     }
 
     /*
@@ -64,7 +141,9 @@ public class JMLimitedQueue<E> implements Collection<E> {
      */
     @Override
     public int size() {
-        return linkedBlockingQueue.size();
+        long head = headSequence.get();
+        return (int) Math.max(0,
+                Math.min(capacity, tailSequence.get() - head));
     }
 
     /*
@@ -74,7 +153,7 @@ public class JMLimitedQueue<E> implements Collection<E> {
      */
     @Override
     public boolean isEmpty() {
-        return linkedBlockingQueue.isEmpty();
+        return size() == 0;
     }
 
     /*
@@ -84,17 +163,39 @@ public class JMLimitedQueue<E> implements Collection<E> {
      */
     @Override
     public boolean contains(Object o) {
-        return linkedBlockingQueue.contains(o);
+        return o != null && buildSnapshot().contains(o);
     }
 
-    /*
-     * (non-Javadoc)
+    /**
+     * Snapshot iterator which does not support remove.
      *
-     * @see java.util.Collection#iterator()
+     * @return the iterator
      */
     @Override
     public Iterator<E> iterator() {
-        return linkedBlockingQueue.iterator();
+        return Collections.unmodifiableList(buildSnapshot()).iterator();
+    }
+
+    // consecutive published elements from the head, skipping the ones
+    // overwritten while reading and stopping at the first unpublished one
+    private List<E> buildSnapshot() {
+        long tail = tailSequence.get();
+        long sequence = Math.max(headSequence.get(), tail - capacity);
+        List<E> snapshot =
+                new ArrayList<>((int) Math.max(0, tail - sequence));
+        for (; sequence < tail; sequence++) {
+            int index = (int) (sequence & mask);
+            long published = publishedSequences.get(index);
+            E e = buffer.get(index);
+            if (published == sequence + 1 &&
+                    publishedSequences.get(index) == published)
+                snapshot.add(e);
+            else if (published != WRITING && published > sequence + 1)
+                snapshot.clear();
+            else
+                break;
+        }
+        return snapshot;
     }
 
     /*
@@ -104,7 +205,7 @@ public class JMLimitedQueue<E> implements Collection<E> {
      */
     @Override
     public Object[] toArray() {
-        return linkedBlockingQueue.toArray();
+        return buildSnapshot().toArray();
     }
 
     /*
@@ -114,17 +215,18 @@ public class JMLimitedQueue<E> implements Collection<E> {
      */
     @Override
     public <T> T[] toArray(T[] a) {
-        return linkedBlockingQueue.toArray(a);
+        return buildSnapshot().toArray(a);
     }
 
-    /*
-     * (non-Javadoc)
+    /**
+     * Not supported on the ring.
      *
-     * @see java.util.Collection#remove(java.lang.Object)
+     * @param o the o
+     * @return never
      */
     @Override
     public boolean remove(Object o) {
-        return linkedBlockingQueue.remove(o);
+        throw new UnsupportedOperationException();
     }
 
     /*
@@ -134,7 +236,7 @@ public class JMLimitedQueue<E> implements Collection<E> {
      */
     @Override
     public boolean containsAll(Collection<?> c) {
-        return linkedBlockingQueue.containsAll(c);
+        return buildSnapshot().containsAll(c);
     }
 
     /*
@@ -144,27 +246,30 @@ public class JMLimitedQueue<E> implements Collection<E> {
      */
     @Override
     public boolean addAll(Collection<? extends E> c) {
-        return linkedBlockingQueue.addAll(c);
+        c.forEach(this::add);
+        return !c.isEmpty();
     }
 
-    /*
-     * (non-Javadoc)
+    /**
+     * Not supported on the ring.
      *
-     * @see java.util.Collection#removeAll(java.util.Collection)
+     * @param c the c
+     * @return never
      */
     @Override
     public boolean removeAll(Collection<?> c) {
-        return linkedBlockingQueue.removeAll(c);
+        throw new UnsupportedOperationException();
     }
 
-    /*
-     * (non-Javadoc)
+    /**
+     * Not supported on the ring.
      *
-     * @see java.util.Collection#retainAll(java.util.Collection)
+     * @param c the c
+     * @return never
      */
     @Override
     public boolean retainAll(Collection<?> c) {
-        return linkedBlockingQueue.retainAll(c);
+        throw new UnsupportedOperationException();
     }
 
     /*
@@ -174,27 +279,12 @@ public class JMLimitedQueue<E> implements Collection<E> {
      */
     @Override
     public void clear() {
-        linkedBlockingQueue.clear();
-    }
-
-    /*
-     * (non-Javadoc)
-     *
-     * @see java.lang.Object#equals(java.lang.Object)
-     */
-    @Override
-    public boolean equals(Object o) {
-        return linkedBlockingQueue.equals(o);
+        moveHeadTo(tailSequence.get());
     }
 
-    /*
-     * (non-Javadoc)
-     *
-     * @see java.lang.Object#hashCode()
-     */
     @Override
-    public int hashCode() {
-        return linkedBlockingQueue.hashCode();
+    public String toString() {
+        return buildSnapshot().toString();
     }
 
 }
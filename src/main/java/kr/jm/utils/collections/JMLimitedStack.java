@@ -1,30 +1,89 @@
 package kr.jm.utils.collections;
 
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.Optional;
-import java.util.concurrent.LinkedBlockingDeque;
-
-import static kr.jm.utils.helper.JMOptional.getOptional;
+import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * The type Jm limited stack.
+ * <p>
+ * Bounded stack keeping the last capacity elements in a circular array:
+ * pushing onto a full stack evicts the bottom element in O(1) and nothing is
+ * allocated per element. The concurrent mode guards every operation with a
+ * plain monitor; the single writer mode takes no lock at all and is meant for
+ * stacks confined to one thread, such as undo or trace stacks.
+ * <p>
+ * Iteration goes from the bottom to the top of the stack over a snapshot.
  *
  * @param <E> the type parameter
  */
 public class JMLimitedStack<E> implements Collection<E> {
 
-    private int capacity;
-    private LinkedBlockingDeque<E> linkedBlockingDeque;
+    private final int capacity;
+    private final Object[] elements;
+    // null in the single writer mode
+    private final Object lock;
+    private int bottom;
+    private int size;
 
     /**
-     * Instantiates a new Jm limited stack.
+     * Instantiates a new concurrent Jm limited stack.
      *
      * @param capacity the capacity
      */
     public JMLimitedStack(int capacity) {
+        this(capacity, true);
+    }
+
+    /**
+     * Instantiates a new Jm limited stack.
+     *
+     * @param capacity     the capacity
+     * @param isConcurrent false for the lock-free single writer mode
+     */
+    public JMLimitedStack(int capacity, boolean isConcurrent) {
+        if (capacity < 1)
+            throw new IllegalArgumentException(
+                    "Wrong Capacity !!! - capacity = " + capacity);
         this.capacity = capacity;
-        this.linkedBlockingDeque = new LinkedBlockingDeque<>(capacity);
+        this.elements = new Object[capacity];
+        this.lock = isConcurrent ? new Object() : null;
+    }
+
+    /**
+     * Of single writer jm limited stack.
+     *
+     * @param <E>      the type parameter
+     * @param capacity the capacity
+     * @return the jm limited stack which must be used by one thread only
+     */
+    public static <E> JMLimitedStack<E> ofSingleWriter(int capacity) {
+        return new JMLimitedStack<>(capacity, false);
+    }
+
+    /**
+     * Gets capacity.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Is concurrent boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isConcurrent() {
+        return lock != null;
+    }
+
+    private <R> R withLock(Supplier<R> supplier) {
+        if (lock == null)
+            return supplier.get();
+        synchronized (lock) {
+            return supplier.get();
+        }
     }
 
     /**
@@ -33,8 +92,11 @@ public class JMLimitedStack<E> implements Collection<E> {
      * @return the optional
      */
     public Optional<E> pop() {
-        return getOptional(linkedBlockingDeque)
-                .map(LinkedBlockingDeque::removeLast);
+        if (lock == null)
+            return Optional.ofNullable(popElement());
+        synchronized (lock) {
+            return Optional.ofNullable(popElement());
+        }
     }
 
     /**
@@ -43,7 +105,34 @@ public class JMLimitedStack<E> implements Collection<E> {
      * @return the optional
      */
     public Optional<E> peek() {
-        return Optional.ofNullable(linkedBlockingDeque.peekLast());
+        if (lock == null)
+            return Optional.ofNullable(peekElement());
+        synchronized (lock) {
+            return Optional.ofNullable(peekElement());
+        }
+    }
+
+    private E popElement() {
+        if (size == 0)
+            return null;
+        int index = toArrayIndex(--size);
+        E e = elementAt(index);
+        elements[index] = null;
+        return e;
+    }
+
+    private E peekElement() {
+        return size == 0 ? null : elementAt(toArrayIndex(size - 1));
+    }
+
+    private int toArrayIndex(int index) {
+        int arrayIndex = bottom + index;
+        return arrayIndex < capacity ? arrayIndex : arrayIndex - capacity;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elementAt(int arrayIndex) {
+        return (E) elements[arrayIndex];
     }
 
     /*
@@ -53,9 +142,21 @@ public class JMLimitedStack<E> implements Collection<E> {
      */
     @Override
     public boolean add(E e) {
-        if (capacity <= linkedBlockingDeque.size())
-            linkedBlockingDeque.removeFirst();
-        return linkedBlockingDeque.add(e);
+        if (lock == null)
+            return push(e);
+        synchronized (lock) {
+            return push(e);
+        }
+    }
+
+    private boolean push(E e) {
+        if (size < capacity)
+            elements[toArrayIndex(size++)] = e;
+        else {
+            elements[bottom] = e;
+            bottom = toArrayIndex(1);
+        }
+        return true;
     }
 
     /*
@@ -65,7 +166,11 @@ public class JMLimitedStack<E> implements Collection<E> {
      */
     @Override
     public int size() {
-        return linkedBlockingDeque.size();
+        if (lock == null)
+            return size;
+        synchronized (lock) {
+            return size;
+        }
     }
 
     /*
@@ -75,7 +180,7 @@ public class JMLimitedStack<E> implements Collection<E> {
      */
     @Override
     public boolean isEmpty() {
-        return linkedBlockingDeque.isEmpty();
+        return size() == 0;
     }
 
     /*
@@ -85,17 +190,27 @@ public class JMLimitedStack<E> implements Collection<E> {
      */
     @Override
     public boolean contains(Object o) {
-        return linkedBlockingDeque.contains(o);
+        return buildList().contains(o);
     }
 
-    /*
-     * (non-Javadoc)
+    private List<E> buildList() {
+        return withLock(() -> {
+            List<E> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++)
+                list.add(elementAt(toArrayIndex(i)));
+            return list;
+        });
+    }
+
+    /**
+     * Snapshot iterator from the bottom to the top which does not support
+     * remove.
      *
-     * @see java.util.Collection#iterator()
+     * @return the iterator
      */
     @Override
     public Iterator<E> iterator() {
-        return linkedBlockingDeque.iterator();
+        return Collections.unmodifiableList(buildList()).iterator();
     }
 
     /*
@@ -105,7 +220,7 @@ public class JMLimitedStack<E> implements Collection<E> {
      */
     @Override
     public Object[] toArray() {
-        return linkedBlockingDeque.toArray();
+        return buildList().toArray();
     }
 
     /*
@@ -115,7 +230,7 @@ public class JMLimitedStack<E> implements Collection<E> {
      */
     @Override
     public <T> T[] toArray(T[] a) {
-        return linkedBlockingDeque.toArray(a);
+        return buildList().toArray(a);
     }
 
     /*
@@ -125,7 +240,28 @@ public class JMLimitedStack<E> implements Collection<E> {
      */
     @Override
     public boolean remove(Object o) {
-        return linkedBlockingDeque.remove(o);
+        return removeIf(Collections.singleton(o), true, true);
+    }
+
+    // compacts the kept elements towards the bottom
+    private boolean removeIf(Collection<?> c, boolean isRemoving,
+            boolean isFirstOnly) {
+        return withLock(() -> {
+            int keptSize = 0;
+            boolean isRemoved = false;
+            for (int i = 0; i < size; i++) {
+                E e = elementAt(toArrayIndex(i));
+                if ((!isFirstOnly || !isRemoved) &&
+                        c.contains(e) == isRemoving)
+                    isRemoved = true;
+                else
+                    elements[toArrayIndex(keptSize++)] = e;
+            }
+            for (int i = keptSize; i < size; i++)
+                elements[toArrayIndex(i)] = null;
+            size = keptSize;
+            return isRemoved;
+        });
     }
 
     /*
@@ -135,7 +271,7 @@ public class JMLimitedStack<E> implements Collection<E> {
      */
     @Override
     public boolean containsAll(Collection<?> c) {
-        return linkedBlockingDeque.containsAll(c);
+        return buildList().containsAll(c);
     }
 
     /*
@@ -145,7 +281,10 @@ public class JMLimitedStack<E> implements Collection<E> {
      */
     @Override
     public boolean addAll(Collection<? extends E> c) {
-        return linkedBlockingDeque.addAll(c);
+        return withLock(() -> {
+            c.forEach(this::push);
+            return !c.isEmpty();
+        });
     }
 
     /*
@@ -155,7 +294,7 @@ public class JMLimitedStack<E> implements Collection<E> {
      */
     @Override
     public boolean removeAll(Collection<?> c) {
-        return linkedBlockingDeque.removeAll(c);
+        return removeIf(c, true, false);
     }
 
     /*
@@ -165,7 +304,7 @@ public class JMLimitedStack<E> implements Collection<E> {
      */
     @Override
     public boolean retainAll(Collection<?> c) {
-        return linkedBlockingDeque.retainAll(c);
+        return removeIf(c, false, false);
     }
 
     /*
@@ -175,27 +314,22 @@ public class JMLimitedStack<E> implements Collection<E> {
      */
     @Override
     public void clear() {
-        linkedBlockingDeque.clear();
-    }
-
-    /*
-     * (non-Javadoc)
-     *
-     * @see java.lang.Object#equals(java.lang.Object)
-     */
-    @Override
-    public boolean equals(Object o) {
-        return linkedBlockingDeque.equals(o);
+        withLock(() -> {
+            Arrays.fill(elements, null);
+            bottom = 0;
+            size = 0;
+            return null;
+        });
     }
 
     /*
      * (non-Javadoc)
      *
-     * @see java.lang.Object#hashCode()
+     * @see java.lang.Object#toString()
      */
     @Override
-    public int hashCode() {
-        return linkedBlockingDeque.hashCode();
+    public String toString() {
+        return buildList().toString();
     }
 
 }
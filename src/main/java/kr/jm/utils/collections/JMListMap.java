@@ -7,6 +7,12 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The type Jm list map.
+ * <p>
+ * By default the value lists are synchronized array lists created under a
+ * lock on the map. The chunked list mode keeps a lock-free append-only
+ * {@link JMChunkedList} per key in a {@link ConcurrentHashMap}, so adding to
+ * an existing key takes no lock at all; its value lists don't support
+ * removing or replacing elements and iterate weakly consistently.
  *
  * @param <K> the type parameter
  * @param <V> the type parameter
@@ -14,12 +20,23 @@ import java.util.concurrent.ConcurrentHashMap;
 public class JMListMap<K, V> implements Map<K, List<V>> {
 
     private Map<K, List<V>> listMap;
+    private final boolean isChunkedList;
 
     /**
      * Instantiates a new Jm list map.
      */
     public JMListMap() {
+        this(false);
+    }
+
+    /**
+     * Instantiates a new Jm list map.
+     *
+     * @param isChunkedList true for the lock-free chunked list mode
+     */
+    public JMListMap(boolean isChunkedList) {
         this.listMap = new ConcurrentHashMap<>();
+        this.isChunkedList = isChunkedList;
     }
 
     /**
@@ -29,6 +46,16 @@ public class JMListMap<K, V> implements Map<K, List<V>> {
      */
     public JMListMap(Map<K, List<V>> map) {
         this.listMap = map;
+        this.isChunkedList = false;
+    }
+
+    /**
+     * Is chunked list boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isChunkedList() {
+        return isChunkedList;
     }
 
     /*
@@ -115,8 +142,12 @@ public class JMListMap<K, V> implements Map<K, List<V>> {
     }
 
     private List<V> getOrPutGetNewList(K key) {
-        return JMMap.getOrPutGetNew(listMap, key, () -> Collections
-                .synchronizedList(new ArrayList<>()));
+        if (!isChunkedList)
+            return JMMap.getOrPutGetNew(listMap, key, () -> Collections
+                    .synchronizedList(new ArrayList<>()));
+        List<V> list = listMap.get(key);
+        return list != null ? list :
+                listMap.computeIfAbsent(key, k -> new JMChunkedList<>());
     }
 
     /*
@@ -1,9 +1,8 @@
 package kr.jm.utils.collections;
 
-import kr.jm.utils.datastructure.JMMap;
-
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 /**
  * The type Jm list time series.
@@ -21,15 +20,29 @@ public class JMListTimeSeries<T> extends JMTimeSeries<List<T>> {
         super(intervalSeconds);
     }
 
+    /**
+     * Instantiates a new Jm list time series in the retention bounded mode.
+     *
+     * @param intervalSeconds  the interval seconds
+     * @param retentionCount   the number of latest intervals kept
+     * @param evictionListener the eviction listener, may be null
+     */
+    public JMListTimeSeries(int intervalSeconds, int retentionCount,
+            BiConsumer<Long, List<T>> evictionListener) {
+        super(intervalSeconds, retentionCount, evictionListener);
+    }
+
     /**
      * Add.
+     * <p>
+     * In the retention bounded mode, an object older than the retention is
+     * passed to the eviction listener in a list of its own.
      *
      * @param timestamp the timestamp
      * @param object    the object
      */
     public void add(long timestamp, T object) {
-        JMMap.getOrPutGetNew(this.timeSeriesMap, buildKeyTimestamp(timestamp),
-                ArrayList::new).add(object);
+        update(timestamp, ArrayList::new, list -> list.add(object));
     }
 
     /**
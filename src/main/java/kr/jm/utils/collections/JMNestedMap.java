@@ -12,6 +12,12 @@ import java.util.function.Supplier;
 
 /**
  * The type Jm nested map.
+ * <p>
+ * The {@link #ofFlat()} mode stores every (key1, key2) entry inline in one
+ * open addressing table instead of a concurrent map per key1, which suits
+ * sparse data with few key2 per key1. Its rows are views of that table,
+ * created lazily, and its {@link #entrySet()} is a snapshot of the key1s.
+ * A row exists as long as it has an entry and null values are not permitted.
  *
  * @param <K1> the type parameter
  * @param <K2> the type parameter
@@ -20,6 +26,7 @@ import java.util.function.Supplier;
 public class JMNestedMap<K1, K2, V> implements Map<K1, Map<K2, V>> {
 
     private Map<K1, Map<K2, V>> nestedMap;
+    private final CompositeKeyTable<K1, K2, V> flatTable;
 
     /**
      * Instantiates a new Jm nested map.
@@ -45,6 +52,7 @@ public class JMNestedMap<K1, K2, V> implements Map<K1, Map<K2, V>> {
     public JMNestedMap(boolean isWeak) {
         this.nestedMap =
                 isWeak ? new WeakHashMap<>() : new ConcurrentHashMap<>();
+        this.flatTable = null;
     }
 
     /**
@@ -56,6 +64,43 @@ public class JMNestedMap<K1, K2, V> implements Map<K1, Map<K2, V>> {
     public JMNestedMap(boolean isWeak, Map<K1, Map<K2, V>> map) {
         this.nestedMap =
                 isWeak ? new WeakHashMap<>(map) : new ConcurrentHashMap<>(map);
+        this.flatTable = null;
+    }
+
+    private JMNestedMap(CompositeKeyTable<K1, K2, V> flatTable) {
+        this.nestedMap = flatTable.asNestedMap();
+        this.flatTable = flatTable;
+    }
+
+    /**
+     * Of flat jm nested map.
+     *
+     * @param <K1> the type parameter
+     * @param <K2> the type parameter
+     * @param <V>  the type parameter
+     * @return the jm nested map storing all entries in one flat table
+     */
+    public static <K1, K2, V> JMNestedMap<K1, K2, V> ofFlat() {
+        return new JMNestedMap<>(new CompositeKeyTable<>());
+    }
+
+    /**
+     * Is flat boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isFlat() {
+        return flatTable != null;
+    }
+
+    /**
+     * Gets entry count.
+     *
+     * @return the number of (key1, key2) entries
+     */
+    public int getEntryCount() {
+        return flatTable != null ? flatTable.size() :
+                nestedMap.values().stream().mapToInt(Map::size).sum();
     }
 
     /*
@@ -148,6 +193,8 @@ public class JMNestedMap<K1, K2, V> implements Map<K1, Map<K2, V>> {
      * @return the v
      */
     public V put(K1 key1, K2 key2, V value) {
+        if (flatTable != null)
+            return flatTable.put(key1, key2, value);
         return getOrPutGetNew(key1).put(key2, value);
     }
 
@@ -159,6 +206,8 @@ public class JMNestedMap<K1, K2, V> implements Map<K1, Map<K2, V>> {
      * @return the v
      */
     public V get(K1 key1, K2 key2) {
+        if (flatTable != null)
+            return flatTable.get(key1, key2);
         return JMOptional.getOptional(nestedMap, key1).map(map -> map.get(key2))
                 .orElse(null);
     }
@@ -172,6 +221,8 @@ public class JMNestedMap<K1, K2, V> implements Map<K1, Map<K2, V>> {
      * @return the or put get new
      */
     public V getOrPutGetNew(K1 key1, K2 key2, Supplier<V> newValueSupplier) {
+        if (flatTable != null)
+            return flatTable.getOrPutGetNew(key1, key2, newValueSupplier);
         return JMMap
                 .getOrPutGetNew(getOrPutGetNew(key1), key2, newValueSupplier);
     }
@@ -190,11 +241,14 @@ public class JMNestedMap<K1, K2, V> implements Map<K1, Map<K2, V>> {
      * Gets or put get new.
      *
      * @param key1           the key 1
-     * @param newMapSupplier the new map supplier
+     * @param newMapSupplier the new map supplier, not used in the flat mode
+     *                       which returns a view of the row
      * @return the or put get new
      */
     public Map<K2, V> getOrPutGetNew(K1 key1,
             Supplier<Map<K2, V>> newMapSupplier) {
+        if (flatTable != null)
+            return flatTable.getRowView(key1);
         return JMMap.getOrPutGetNew(nestedMap, key1, newMapSupplier);
     }
 }
@@ -0,0 +1,351 @@
+package kr.jm.utils.collections;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The type Jm ring blocking queue.
+ * <p>
+ * Array-backed lock-free bounded MPMC queue (Vyukov sequence ring) with the
+ * producer and consumer cursors padded onto their own cache lines. Nothing
+ * is allocated per element. Blocking operations wait with the configured
+ * {@link WaitStrategy}. {@link #remove(Object)}, as used by a thread pool
+ * on shutdown, scans the ring in O(size) and swaps the element for a
+ * removed mark, which keeps its slot, counting in the size and the
+ * capacity, until a poll skips it.
+ *
+ * @param <E> the type parameter
+ */
+public class JMRingBlockingQueue<E> extends AbstractQueue<E> implements
+        BlockingQueue<E> {
+
+    private static final long MAX_PARK_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(1);
+    private static final Object REMOVED = new Object();
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Object> buffer;
+    private final AtomicLongArray sequences;
+    private final PaddedAtomicLong enqueuePosition;
+    private final PaddedAtomicLong dequeuePosition;
+    private final WaitStrategy waitStrategy;
+    private final Queue<Thread> notEmptyWaiters;
+    private final Queue<Thread> notFullWaiters;
+
+    /**
+     * Instantiates a new Jm ring blocking queue.
+     *
+     * @param capacity the capacity
+     */
+    public JMRingBlockingQueue(int capacity) {
+        this(capacity, WaitStrategy.PARK);
+    }
+
+    /**
+     * Instantiates a new Jm ring blocking queue.
+     *
+     * @param capacity     the capacity
+     * @param waitStrategy the wait strategy
+     */
+    public JMRingBlockingQueue(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 1)
+            throw new IllegalArgumentException(
+                    "Wrong Capacity !!! - capacity = " + capacity);
+        this.capacity = capacity;
+        int bufferSize = buildPowerOfTwo(capacity);
+        this.mask = bufferSize - 1;
+        this.buffer = new AtomicReferenceArray<>(bufferSize);
+        this.sequences = new AtomicLongArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++)
+            sequences.set(i, i);
+        this.enqueuePosition = new PaddedAtomicLong();
+        this.dequeuePosition = new PaddedAtomicLong();
+        this.waitStrategy = waitStrategy;
+        this.notEmptyWaiters = new ConcurrentLinkedQueue<>();
+        this.notFullWaiters = new ConcurrentLinkedQueue<>();
+    }
+
+    static int buildPowerOfTwo(int capacity) {
+        int powerOfTwo = Integer.highestOneBit(capacity);
+        return powerOfTwo == capacity ? capacity : powerOfTwo << 1;
+    }
+
+    /**
+     * Gets wait strategy.
+     *
+     * @return the wait strategy
+     */
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    private boolean tryOffer(E e) {
+        Objects.requireNonNull(e);
+        long position = enqueuePosition.get();
+        for (; ; ) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (position - dequeuePosition.get() >= capacity)
+                    return false;
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    buffer.lazySet(index, e);
+                    sequences.lazySet(index, position + 1);
+                    signal(notEmptyWaiters);
+                    return true;
+                }
+            } else if (difference < 0)
+                return false;
+            position = enqueuePosition.get();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private E tryPoll() {
+        long position = dequeuePosition.get();
+        for (; ; ) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    // swapped out, so a racing remove can't take it too
+                    Object e = buffer.getAndSet(index, null);
+                    sequences.lazySet(index, position + mask + 1);
+                    signal(notFullWaiters);
+                    if (e != REMOVED)
+                        return (E) e;
+                }
+            } else if (difference < 0)
+                return null;
+            position = dequeuePosition.get();
+        }
+    }
+
+    private void signal(Queue<Thread> waiters) {
+        if (waitStrategy == WaitStrategy.PARK && !waiters.isEmpty())
+            Optional.ofNullable(waiters.poll()).ifPresent(LockSupport::unpark);
+    }
+
+    private void await(Queue<Thread> waiters, long remainingNanos,
+            int attempt) {
+        switch (waitStrategy) {
+            case SPIN:
+                return;
+            case YIELD:
+                Thread.yield();
+                return;
+            default:
+                if (attempt < 64) {
+                    Thread.yield();
+                    return;
+                }
+                Thread currentThread = Thread.currentThread();
+                waiters.offer(currentThread);
+                LockSupport.parkNanos(this,
+                        Math.min(MAX_PARK_NANOS, remainingNanos));
+                waiters.remove(currentThread);
+        }
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return tryOffer(e);
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        for (int attempt = 0; !tryOffer(e); attempt++) {
+            checkInterrupted();
+            await(notFullWaiters, MAX_PARK_NANOS, attempt);
+        }
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        for (int attempt = 0; !tryOffer(e); attempt++) {
+            checkInterrupted();
+            long remainingNanos = deadlineNanos - System.nanoTime();
+            if (remainingNanos <= 0)
+                return false;
+            await(notFullWaiters, remainingNanos, attempt);
+        }
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        return tryPoll();
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E e;
+        for (int attempt = 0; (e = tryPoll()) == null; attempt++) {
+            checkInterrupted();
+            await(notEmptyWaiters, MAX_PARK_NANOS, attempt);
+        }
+        return e;
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        E e;
+        for (int attempt = 0; (e = tryPoll()) == null; attempt++) {
+            checkInterrupted();
+            long remainingNanos = deadlineNanos - System.nanoTime();
+            if (remainingNanos <= 0)
+                return null;
+            await(notEmptyWaiters, remainingNanos, attempt);
+        }
+        return e;
+    }
+
+    private void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E peek() {
+        long endPosition = enqueuePosition.get();
+        for (long position = dequeuePosition.get();
+             position < endPosition; position++) {
+            Object e = getPublished(position);
+            if (e == null)
+                return null;
+            if (e != REMOVED)
+                return (E) e;
+        }
+        return null;
+    }
+
+    // the element of the position, null if not published yet or taken
+    private Object getPublished(long position) {
+        int index = (int) (position & mask);
+        Object e = buffer.get(index);
+        return sequences.get(index) == position + 1 ? e : null;
+    }
+
+    @Override
+    public int size() {
+        long size = enqueuePosition.get() - dequeuePosition.get();
+        return (int) Math.max(0, Math.min(capacity, size));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return enqueuePosition.get() <= dequeuePosition.get();
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    /**
+     * Gets capacity.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        if (c == this)
+            throw new IllegalArgumentException();
+        int count = 0;
+        E e;
+        while (count < maxElements && (e = tryPoll()) != null) {
+            c.add(e);
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null)
+            return false;
+        long endPosition = enqueuePosition.get();
+        for (long position = dequeuePosition.get();
+             position < endPosition; position++) {
+            Object e = getPublished(position);
+            if (e != null && e != REMOVED && o.equals(e) && buffer
+                    .compareAndSet((int) (position & mask), e, REMOVED))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        while (tryPoll() != null) ;
+    }
+
+    /**
+     * Weakly consistent snapshot iterator which does not support remove.
+     *
+     * @return the iterator
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public Iterator<E> iterator() {
+        List<E> snapshot = new ArrayList<>();
+        long endPosition = enqueuePosition.get();
+        for (long position = dequeuePosition.get();
+             position < endPosition; position++) {
+            Object e = getPublished(position);
+            if (e != null && e != REMOVED)
+                snapshot.add((E) e);
+        }
+        return Collections.unmodifiableList(snapshot).iterator();
+    }
+
+    @Override
+    public String toString() {
+        return "JMRingBlockingQueue{" + "capacity=" + capacity + ", size=" +
+                size() + ", waitStrategy=" + waitStrategy + '}';
+    }
+
+    /**
+     * The enum Wait strategy.
+     */
+    public enum WaitStrategy {
+        /**
+         * Busy spin, lowest latency and burns a core while waiting.
+         */
+        SPIN,
+        /**
+         * Thread.yield between attempts.
+         */
+        YIELD,
+        /**
+         * Yield briefly, then park until signalled or for at most 1 ms.
+         */
+        PARK
+    }
+
+    @SuppressWarnings("unused")
+    private static class PaddedAtomicLong extends AtomicLong {
+        private static final long serialVersionUID = 1L;
+        private long p1, p2, p3, p4, p5, p6, p7;
+    }
+}
@@ -1,16 +1,30 @@
 package kr.jm.utils.collections;
 
-import kr.jm.utils.datastructure.JMCollections;
 import kr.jm.utils.datastructure.JMMap;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
-import static java.util.Comparator.reverseOrder;
-
 /**
  * The type Jm time series.
+ * <p>
+ * By default every interval is kept in a concurrent skip list, so the key
+ * set is in time order, {@link #subSeries(long, long)} is a view found in
+ * O(log n) and {@link #latest(int)} a snapshot copied in O(count), without
+ * sorting.
+ * <p>
+ * The retention bounded mode keeps only the latest retention count
+ * intervals in a fixed ring of slots: a lookup is an array read with no
+ * hashing nor boxing, and the buckets leaving the retention are passed to
+ * the eviction listener, for instance to flush them to a sink. In this mode
+ * the values can't be null, a timestamp older than the retention is not
+ * stored, and the series are snapshots built by walking the retained
+ * intervals in time order. A late put or {@link #update(Long, Supplier,
+ * Consumer)} passes its value to the eviction listener right away, while a
+ * late {@link #getOrPutGetNew(Long, Supplier)} returns null.
  *
  * @param <V> the type parameter
  */
@@ -27,6 +41,8 @@ public class JMTimeSeries<V> implements Map<Long, V> {
      * The Time series map.
      */
     protected Map<Long, V> timeSeriesMap;
+    private final NavigableMap<Long, V> navigableTimeSeriesMap;
+    private final TimeSeriesRing<V> timeSeriesRing;
 
     /**
      * Instantiates a new Jm time series.
@@ -36,7 +52,57 @@ public class JMTimeSeries<V> implements Map<Long, V> {
     public JMTimeSeries(int intervalSeconds) {
         this.intervalSeconds = intervalSeconds;
         this.intervalMillis = intervalSeconds * 1000;
-        this.timeSeriesMap = new ConcurrentHashMap<>();
+        this.navigableTimeSeriesMap = new ConcurrentSkipListMap<>();
+        this.timeSeriesMap = navigableTimeSeriesMap;
+        this.timeSeriesRing = null;
+    }
+
+    /**
+     * Instantiates a new Jm time series in the retention bounded mode.
+     *
+     * @param intervalSeconds the interval seconds
+     * @param retentionCount  the number of latest intervals kept
+     */
+    public JMTimeSeries(int intervalSeconds, int retentionCount) {
+        this(intervalSeconds, retentionCount, null);
+    }
+
+    /**
+     * Instantiates a new Jm time series in the retention bounded mode.
+     *
+     * @param intervalSeconds  the interval seconds
+     * @param retentionCount   the number of latest intervals kept
+     * @param evictionListener the eviction listener taking the key timestamp
+     *                         and the value of each evicted interval, may be
+     *                         null
+     */
+    public JMTimeSeries(int intervalSeconds, int retentionCount,
+            BiConsumer<Long, V> evictionListener) {
+        this.intervalSeconds = intervalSeconds;
+        this.intervalMillis = intervalSeconds * 1000;
+        this.timeSeriesRing = new TimeSeriesRing<>(intervalMillis,
+                retentionCount, evictionListener);
+        this.timeSeriesMap = timeSeriesRing;
+        this.navigableTimeSeriesMap = null;
+    }
+
+    /**
+     * Is retention bounded boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isRetentionBounded() {
+        return timeSeriesRing != null;
+    }
+
+    /**
+     * Gets retention count.
+     *
+     * @return the number of latest intervals kept, 0 if not retention
+     * bounded
+     */
+    public int getRetentionCount() {
+        return timeSeriesRing == null ? 0 : timeSeriesRing.getSlotCount();
     }
 
     /**
@@ -55,6 +121,8 @@ public class JMTimeSeries<V> implements Map<Long, V> {
      */
     @Override
     public V put(Long timestamp, V object) {
+        if (timeSeriesRing != null)
+            return timeSeriesRing.put(timestamp.longValue(), object);
         return this.timeSeriesMap.put(buildKeyTimestamp(timestamp), object);
     }
 
@@ -65,6 +133,8 @@ public class JMTimeSeries<V> implements Map<Long, V> {
      */
     @Override
     public V get(Object timestamp) {
+        if (timeSeriesRing != null)
+            return timeSeriesRing.get(timestamp);
         return this.timeSeriesMap.get(buildKeyTimestamp(timestamp));
     }
 
@@ -73,13 +143,36 @@ public class JMTimeSeries<V> implements Map<Long, V> {
      *
      * @param timestamp   the timestamp
      * @param newSupplier the new supplier
-     * @return the or put get new
+     * @return the or put get new, null in the retention bounded mode if the
+     * timestamp is older than the retention
      */
     public V getOrPutGetNew(Long timestamp, Supplier<V> newSupplier) {
+        if (timeSeriesRing != null)
+            return timeSeriesRing.getOrPutGetNew(timestamp.longValue(),
+                    newSupplier);
         return JMMap.getOrPutGetNew(this.timeSeriesMap,
                 buildKeyTimestamp(timestamp), newSupplier);
     }
 
+    /**
+     * Update.
+     *
+     * @param timestamp   the timestamp
+     * @param newSupplier the new supplier
+     * @param updater     the updater of the value of the interval, in the
+     *                    retention bounded mode of a new value passed to the
+     *                    eviction listener once updated if the timestamp is
+     *                    older than the retention
+     */
+    public void update(Long timestamp, Supplier<V> newSupplier,
+            Consumer<V> updater) {
+        if (timeSeriesRing != null)
+            timeSeriesRing.update(timestamp.longValue(), newSupplier,
+                    updater);
+        else
+            updater.accept(getOrPutGetNew(timestamp, newSupplier));
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -87,6 +180,8 @@ public class JMTimeSeries<V> implements Map<Long, V> {
      */
     @Override
     public V remove(Object timestamp) {
+        if (timeSeriesRing != null)
+            return timeSeriesRing.remove(timestamp);
         return this.timeSeriesMap.remove(buildKeyTimestamp(timestamp));
     }
 
@@ -96,7 +191,62 @@ public class JMTimeSeries<V> implements Map<Long, V> {
      * @return the timestamp key list
      */
     public List<Long> getTimestampKeyList() {
-        return JMCollections.sort(new ArrayList<>(keySet()), reverseOrder());
+        return new ArrayList<>(getNavigableSeries().descendingKeySet());
+    }
+
+    /**
+     * Gets navigable series.
+     *
+     * @return the unmodifiable series in time order, a view unless retention
+     * bounded
+     */
+    public NavigableMap<Long, V> getNavigableSeries() {
+        return timeSeriesRing != null ?
+                timeSeriesRing.buildSeries(Long.MIN_VALUE, Long.MAX_VALUE) :
+                Collections.unmodifiableNavigableMap(navigableTimeSeriesMap);
+    }
+
+    /**
+     * Sub series navigable map.
+     *
+     * @param fromTimestamp the from timestamp, its interval included
+     * @param toTimestamp   the to timestamp, exclusive
+     * @return the unmodifiable series of the intervals from the from
+     * timestamp until the to timestamp, a view unless retention bounded
+     */
+    public NavigableMap<Long, V> subSeries(long fromTimestamp,
+            long toTimestamp) {
+        if (timeSeriesRing != null)
+            return timeSeriesRing.buildSeries(fromTimestamp, toTimestamp);
+        Long fromKeyTimestamp = buildKeyTimestamp(fromTimestamp);
+        return fromKeyTimestamp >= toTimestamp ? Collections
+                .emptyNavigableMap() : Collections.unmodifiableNavigableMap(
+                navigableTimeSeriesMap.subMap(fromKeyTimestamp, true,
+                        toTimestamp, false));
+    }
+
+    /**
+     * Latest navigable map.
+     * <p>
+     * Unless retention bounded, the snapshot is copied by walking back count
+     * entries from the latest interval, in O(count).
+     *
+     * @param count the count
+     * @return the snapshot of at most the latest count intervals
+     */
+    public NavigableMap<Long, V> latest(int count) {
+        if (count < 1)
+            return Collections.emptyNavigableMap();
+        if (timeSeriesRing != null)
+            return timeSeriesRing.buildLatest(count);
+        NavigableMap<Long, V> latestMap = new TreeMap<>();
+        Iterator<Entry<Long, V>> descendingEntryIterator =
+                navigableTimeSeriesMap.descendingMap().entrySet().iterator();
+        for (int i = 0; i < count && descendingEntryIterator.hasNext(); i++) {
+            Entry<Long, V> entry = descendingEntryIterator.next();
+            latestMap.put(entry.getKey(), entry.getValue());
+        }
+        return latestMap;
     }
 
     /**
@@ -156,6 +306,8 @@ public class JMTimeSeries<V> implements Map<Long, V> {
      */
     @Override
     public boolean containsKey(Object timestamp) {
+        if (timeSeriesRing != null)
+            return timeSeriesRing.containsKey(timestamp);
         return this.timeSeriesMap.containsKey(buildKeyTimestamp(timestamp));
     }
 
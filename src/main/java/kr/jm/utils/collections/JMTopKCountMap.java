@@ -0,0 +1,322 @@
+package kr.jm.utils.collections;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * The type Jm top k count map.
+ * <p>
+ * Bounded-memory heavy hitter counter (Space-Saving, Metwally et al.)
+ * tracking at most capacity keys. An untracked key replaces the key with the
+ * smallest count and inherits that count as its error, so for every tracked
+ * key {@code count - error <= true count <= count} and the error never
+ * exceeds {@link #getErrorBound()}, which is at most total count / capacity.
+ * Any key whose true count is over that bound is guaranteed to be tracked.
+ * <p>
+ * Updates are O(log capacity) under the lock of this map. Summaries counted
+ * separately, by thread or by node, combine with {@link #merge} keeping the
+ * same bound over the summed total count (Agarwal et al., mergeable
+ * summaries).
+ *
+ * @param <V> the type parameter
+ */
+public class JMTopKCountMap<V> {
+
+    private final int capacity;
+    private final Map<V, Counter<V>> counterMap;
+    private final TreeSet<Counter<V>> counterSet;
+    private long totalCount;
+    private long counterSequence;
+
+    /**
+     * Instantiates a new Jm top k count map.
+     *
+     * @param capacity the number of keys tracked
+     */
+    public JMTopKCountMap(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException(
+                    "Wrong Capacity !!! - capacity = " + capacity);
+        this.capacity = capacity;
+        this.counterMap = new HashMap<>(capacity * 2);
+        this.counterSet = new TreeSet<>();
+    }
+
+    /**
+     * Gets capacity.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Offer long.
+     *
+     * @param value the value
+     * @return the estimated count
+     */
+    public long offer(V value) {
+        return offer(value, 1);
+    }
+
+    /**
+     * Offer long.
+     *
+     * @param value the value
+     * @param count the count
+     * @return the estimated count
+     */
+    public synchronized long offer(V value, long count) {
+        if (count < 0)
+            throw new IllegalArgumentException(
+                    "Wrong Count !!! - value = " + value + ", count = " +
+                            count);
+        totalCount += count;
+        Counter<V> counter = counterMap.get(value);
+        if (counter != null) {
+            counterSet.remove(counter);
+            counter = counter.add(count, 0, ++counterSequence);
+        } else if (counterMap.size() < capacity)
+            counter = new Counter<>(value, count, 0, ++counterSequence);
+        else {
+            Counter<V> minCounter = counterSet.pollFirst();
+            counterMap.remove(minCounter.value);
+            counter = new Counter<>(value, minCounter.count + count,
+                    minCounter.count, ++counterSequence);
+        }
+        counterSet.add(counter);
+        counterMap.put(value, counter);
+        return counter.count;
+    }
+
+    /**
+     * Gets count.
+     *
+     * @param value the value
+     * @return the estimated count, 0 if the value is not tracked
+     */
+    public synchronized long getCount(V value) {
+        Counter<V> counter = counterMap.get(value);
+        return counter == null ? 0 : counter.count;
+    }
+
+    /**
+     * Gets error bound.
+     *
+     * @return the largest overestimation of any count, 0 until the map is
+     * full
+     */
+    public synchronized long getErrorBound() {
+        return counterMap.size() < capacity ? 0 : counterSet.first().count;
+    }
+
+    /**
+     * Gets total count.
+     *
+     * @return the total count
+     */
+    public synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Size int.
+     *
+     * @return the number of tracked keys
+     */
+    public synchronized int size() {
+        return counterMap.size();
+    }
+
+    /**
+     * Gets top k.
+     *
+     * @param k the k
+     * @return the top k entries ordered by count descending
+     */
+    public synchronized List<TopKEntry<V>> getTopK(int k) {
+        return counterSet.descendingSet().stream().limit(k)
+                .map(TopKEntry::new).collect(Collectors.toList());
+    }
+
+    /**
+     * Gets guaranteed top k.
+     *
+     * @param k the k
+     * @return the entries of the top k which are surely in the true top k,
+     * their lower bound being over the count of the (k + 1)th entry
+     */
+    public List<TopKEntry<V>> getGuaranteedTopK(int k) {
+        List<TopKEntry<V>> topKList = getTopK(k + 1);
+        long nextCount = topKList.size() > k ? topKList.remove(k).getCount() :
+                getErrorBound();
+        return topKList.stream()
+                .filter(entry -> entry.getLowerBound() >= nextCount)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Build count map jm count map.
+     *
+     * @return the jm count map of the estimated counts
+     */
+    public synchronized JMCountMap<V> buildCountMap() {
+        JMCountMap<V> jmCountMap = new JMCountMap<>();
+        counterMap.forEach((value, counter) -> jmCountMap
+                .put(value, counter.count));
+        return jmCountMap;
+    }
+
+    /**
+     * Merge jm top k count map.
+     * <p>
+     * A key missing in one summary is counted there with that summary's
+     * error bound, then the capacity largest counters are kept.
+     *
+     * @param other the other
+     * @return this jm top k count map
+     */
+    public JMTopKCountMap<V> merge(JMTopKCountMap<V> other) {
+        if (other == this)
+            throw new IllegalArgumentException("Can't Merge Itself !!!");
+        List<Counter<V>> otherCounterList;
+        long otherErrorBound;
+        long otherTotalCount;
+        synchronized (other) {
+            otherCounterList = new ArrayList<>(other.counterSet);
+            otherErrorBound = other.getErrorBound();
+            otherTotalCount = other.totalCount;
+        }
+        synchronized (this) {
+            long errorBound = getErrorBound();
+            Map<V, Counter<V>> mergedMap = new HashMap<>(counterMap.size() +
+                    otherCounterList.size());
+            counterMap.forEach((value, counter) -> mergedMap.put(value,
+                    counter.add(otherErrorBound, otherErrorBound, 0)));
+            for (Counter<V> otherCounter : otherCounterList) {
+                Counter<V> counter = counterMap.get(otherCounter.value);
+                mergedMap.put(otherCounter.value, counter == null ?
+                        otherCounter.add(errorBound, errorBound, 0) :
+                        counter.add(otherCounter.count, otherCounter.error,
+                                0));
+            }
+            counterMap.clear();
+            counterSet.clear();
+            mergedMap.values().stream()
+                    .sorted(Comparator.comparingLong(
+                            (Counter<V> counter) -> counter.count).reversed())
+                    .limit(capacity).forEach(counter -> {
+                Counter<V> sequenced =
+                        counter.add(0, 0, ++counterSequence);
+                counterMap.put(sequenced.value, sequenced);
+                counterSet.add(sequenced);
+            });
+            totalCount += otherTotalCount;
+            return this;
+        }
+    }
+
+    /**
+     * Clear.
+     */
+    public synchronized void clear() {
+        counterMap.clear();
+        counterSet.clear();
+        totalCount = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "JMTopKCountMap{" + "capacity=" + capacity + ", totalCount=" +
+                getTotalCount() + ", errorBound=" + getErrorBound() +
+                ", topK=" + getTopK(10) + '}';
+    }
+
+    // immutable, so it never changes while in the sorted set
+    private static class Counter<V> implements Comparable<Counter<V>> {
+        private final V value;
+        private final long count;
+        private final long error;
+        private final long sequence;
+
+        private Counter(V value, long count, long error, long sequence) {
+            this.value = value;
+            this.count = count;
+            this.error = error;
+            this.sequence = sequence;
+        }
+
+        private Counter<V> add(long count, long error, long sequence) {
+            return new Counter<>(value, this.count + count,
+                    this.error + error, sequence == 0 ? this.sequence :
+                    sequence);
+        }
+
+        @Override
+        public int compareTo(Counter<V> o) {
+            int result = Long.compare(count, o.count);
+            return result != 0 ? result : Long.compare(sequence, o.sequence);
+        }
+    }
+
+    /**
+     * The type Top k entry.
+     *
+     * @param <V> the type parameter
+     */
+    public static class TopKEntry<V> {
+        private final V value;
+        private final long count;
+        private final long error;
+
+        private TopKEntry(Counter<V> counter) {
+            this.value = counter.value;
+            this.count = counter.count;
+            this.error = counter.error;
+        }
+
+        /**
+         * Gets value.
+         *
+         * @return the value
+         */
+        public V getValue() {
+            return value;
+        }
+
+        /**
+         * Gets count.
+         *
+         * @return the estimated count, an upper bound of the true count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Gets error.
+         *
+         * @return the largest overestimation of the count
+         */
+        public long getError() {
+            return error;
+        }
+
+        /**
+         * Gets lower bound.
+         *
+         * @return the lower bound of the true count
+         */
+        public long getLowerBound() {
+            return count - error;
+        }
+
+        @Override
+        public String toString() {
+            return "TopKEntry{" + "value=" + value + ", count=" + count +
+                    ", error=" + error + '}';
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package kr.jm.utils.collections;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Retention bounded storage of {@link JMTimeSeries}: a fixed ring of slots,
+ * the bucket of interval number n living in slot n % slot count, tagged
+ * with n. A lookup is a division and a tag check, with no hashing nor
+ * boxing, and only the latest slot count intervals are kept.
+ * <p>
+ * A write past the latest interval resets the slots it moves over, and a
+ * write over an older bucket of the same slot replaces it; the replaced and
+ * reset buckets are passed to the eviction listener. A put or an update
+ * older than the retention is not stored but passed to the listener right
+ * away, while a get or put get new of such a timestamp returns null. Updates
+ * are lock-free compare and sets of immutable buckets, so a mutable value
+ * updated by a writer lagging a whole retention behind can be evicted
+ * before that update.
+ *
+ * @param <V> the type parameter
+ */
+class TimeSeriesRing<V> extends AbstractMap<Long, V> {
+
+    private final long intervalMillis;
+    private final int slotCount;
+    private final AtomicReferenceArray<Bucket<V>> slots;
+    private final AtomicLong latestInterval;
+    private final BiConsumer<Long, V> evictionListener;
+
+    TimeSeriesRing(long intervalMillis, int slotCount,
+            BiConsumer<Long, V> evictionListener) {
+        if (intervalMillis < 1 || slotCount < 1)
+            throw new IllegalArgumentException(
+                    "Wrong Retention !!! - intervalMillis = " +
+                            intervalMillis + ", slotCount = " + slotCount);
+        this.intervalMillis = intervalMillis;
+        this.slotCount = slotCount;
+        this.slots = new AtomicReferenceArray<>(slotCount);
+        this.latestInterval = new AtomicLong(Long.MIN_VALUE);
+        this.evictionListener = evictionListener;
+    }
+
+    int getSlotCount() {
+        return slotCount;
+    }
+
+    private long buildInterval(long timestamp) {
+        return timestamp / intervalMillis;
+    }
+
+    private int buildSlot(long interval) {
+        return (int) Math.floorMod(interval, (long) slotCount);
+    }
+
+    // the intervals up to latest - slot count are out of the retention
+    private boolean isExpired(long interval) {
+        long latest = latestInterval.get();
+        return latest != Long.MIN_VALUE && interval <= latest - slotCount;
+    }
+
+    private boolean isLive(Bucket<V> bucket) {
+        return bucket != null && !isExpired(bucket.interval);
+    }
+
+    private void evict(Bucket<V> bucket) {
+        if (evictionListener != null)
+            evictionListener.accept(bucket.interval * intervalMillis,
+                    bucket.value);
+    }
+
+    private void advanceTo(long interval) {
+        long latest = latestInterval.get();
+        while (interval > latest) {
+            if (latestInterval.compareAndSet(latest, interval)) {
+                if (latest != Long.MIN_VALUE)
+                    resetSlots(Math.max(latest + 1,
+                            interval - slotCount + 1), interval);
+                return;
+            }
+            latest = latestInterval.get();
+        }
+    }
+
+    private void resetSlots(long fromInterval, long toInterval) {
+        for (long interval = fromInterval; interval <= toInterval;
+             interval++) {
+            int slot = buildSlot(interval);
+            Bucket<V> bucket = slots.get(slot);
+            if (bucket != null && bucket.interval < interval &&
+                    slots.compareAndSet(slot, bucket, null))
+                evict(bucket);
+        }
+    }
+
+    /**
+     * Get v.
+     *
+     * @param timestamp the timestamp
+     * @return the value of the interval, null if absent or expired
+     */
+    V get(long timestamp) {
+        long interval = buildInterval(timestamp);
+        Bucket<V> bucket = slots.get(buildSlot(interval));
+        return bucket != null && bucket.interval == interval &&
+                !isExpired(interval) ? bucket.value : null;
+    }
+
+    /**
+     * Put v.
+     *
+     * @param timestamp the timestamp
+     * @param value     the value
+     * @return the previous value of the interval
+     */
+    V put(long timestamp, V value) {
+        Objects.requireNonNull(value);
+        long interval = buildInterval(timestamp);
+        return write(interval, bucket -> value,
+                () -> evict(new Bucket<>(interval, value)));
+    }
+
+    /**
+     * Gets or put get new.
+     *
+     * @param timestamp   the timestamp
+     * @param newSupplier the new supplier
+     * @return the value of the interval, null if the timestamp is older
+     * than the retention
+     */
+    V getOrPutGetNew(long timestamp, Supplier<V> newSupplier) {
+        V value = get(timestamp);
+        if (value != null)
+            return value;
+        V newValue = Objects.requireNonNull(newSupplier.get());
+        boolean[] isLate = new boolean[1];
+        V oldValue = write(buildInterval(timestamp),
+                bucket -> bucket == null ? newValue : bucket.value,
+                () -> isLate[0] = true);
+        return isLate[0] ? null : oldValue == null ? newValue : oldValue;
+    }
+
+    /**
+     * Update.
+     *
+     * @param timestamp   the timestamp
+     * @param newSupplier the new supplier
+     * @param updater     the updater of the value of the interval, or of a
+     *                    new value passed to the eviction listener once
+     *                    updated if the timestamp is older than the retention
+     */
+    void update(long timestamp, Supplier<V> newSupplier,
+            Consumer<V> updater) {
+        V value = getOrPutGetNew(timestamp, newSupplier);
+        if (value != null) {
+            updater.accept(value);
+            return;
+        }
+        V lateValue = Objects.requireNonNull(newSupplier.get());
+        updater.accept(lateValue);
+        evict(new Bucket<>(buildInterval(timestamp), lateValue));
+    }
+
+    // writes the value of the current bucket of the interval, returning the
+    // previous one, or runs the late runnable and returns null if the
+    // interval is older than the retention
+    private V write(long interval, Function<Bucket<V>, V> valueFunction,
+            Runnable lateRunnable) {
+        advanceTo(interval);
+        int slot = buildSlot(interval);
+        while (true) {
+            Bucket<V> bucket = slots.get(slot);
+            if (isExpired(interval) ||
+                    (bucket != null && bucket.interval > interval)) {
+                lateRunnable.run();
+                return null;
+            }
+            Bucket<V> currentBucket =
+                    bucket != null && bucket.interval == interval ? bucket :
+                            null;
+            V value = valueFunction.apply(currentBucket);
+            if (currentBucket != null && currentBucket.value == value)
+                return value;
+            if (slots.compareAndSet(slot, bucket,
+                    new Bucket<>(interval, value))) {
+                if (bucket != null && currentBucket == null)
+                    evict(bucket);
+                return currentBucket == null ? null : currentBucket.value;
+            }
+        }
+    }
+
+    /**
+     * Remove v.
+     *
+     * @param timestamp the timestamp
+     * @return the removed value, not passed to the eviction listener
+     */
+    V remove(long timestamp) {
+        long interval = buildInterval(timestamp);
+        int slot = buildSlot(interval);
+        while (true) {
+            Bucket<V> bucket = slots.get(slot);
+            if (bucket == null || bucket.interval != interval)
+                return null;
+            if (slots.compareAndSet(slot, bucket, null))
+                return isExpired(interval) ? null : bucket.value;
+        }
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Long ? get(((Long) key).longValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V put(Long key, V value) {
+        return put(key.longValue(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Long ? remove(((Long) key).longValue()) : null;
+    }
+
+    @Override
+    public V computeIfAbsent(Long key,
+            Function<? super Long, ? extends V> mappingFunction) {
+        return getOrPutGetNew(key, () -> mappingFunction.apply(key));
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int slot = 0; slot < slotCount; slot++)
+            if (isLive(slots.get(slot)))
+                size++;
+        return size;
+    }
+
+    /**
+     * Clear, without passing the buckets to the eviction listener.
+     */
+    @Override
+    public void clear() {
+        for (int slot = 0; slot < slotCount; slot++)
+            slots.set(slot, null);
+    }
+
+    /**
+     * Build series navigable map.
+     * <p>
+     * The retained intervals are walked in time order, so the map is built
+     * without sorting and holds at most the slot count buckets.
+     *
+     * @param fromTimestamp the from timestamp, its interval included
+     * @param toTimestamp   the to timestamp, exclusive
+     * @return the snapshot of the live buckets keyed by their interval
+     * timestamps
+     */
+    NavigableMap<Long, V> buildSeries(long fromTimestamp, long toTimestamp) {
+        NavigableMap<Long, V> seriesMap = new TreeMap<>();
+        long latest = latestInterval.get();
+        if (latest == Long.MIN_VALUE || toTimestamp == Long.MIN_VALUE)
+            return seriesMap;
+        long fromInterval =
+                Math.max(buildInterval(fromTimestamp), latest - slotCount + 1);
+        long toInterval =
+                Math.min(Math.floorDiv(toTimestamp - 1, intervalMillis),
+                        latest);
+        for (long interval = fromInterval; interval <= toInterval;
+             interval++) {
+            Bucket<V> bucket = slots.get(buildSlot(interval));
+            if (bucket != null && bucket.interval == interval)
+                seriesMap.put(interval * intervalMillis, bucket.value);
+        }
+        return seriesMap;
+    }
+
+    /**
+     * Build latest navigable map.
+     *
+     * @param count the count
+     * @return the snapshot of the latest count live buckets
+     */
+    NavigableMap<Long, V> buildLatest(int count) {
+        NavigableMap<Long, V> seriesMap = new TreeMap<>();
+        long latest = latestInterval.get();
+        if (latest == Long.MIN_VALUE)
+            return seriesMap;
+        for (long interval = latest; interval > latest - slotCount &&
+                seriesMap.size() < count; interval--) {
+            Bucket<V> bucket = slots.get(buildSlot(interval));
+            if (bucket != null && bucket.interval == interval)
+                seriesMap.put(interval * intervalMillis, bucket.value);
+        }
+        return seriesMap;
+    }
+
+    // a snapshot of the live buckets in time order
+    @Override
+    public Set<Entry<Long, V>> entrySet() {
+        return Collections.unmodifiableSet(
+                buildSeries(Long.MIN_VALUE, Long.MAX_VALUE).entrySet());
+    }
+
+    private static class Bucket<V> {
+        private final long interval;
+        private final V value;
+
+        private Bucket(long interval, V value) {
+            this.interval = interval;
+            this.value = value;
+        }
+    }
+}
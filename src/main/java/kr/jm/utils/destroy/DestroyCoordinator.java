@@ -0,0 +1,338 @@
+package kr.jm.utils.destroy;
+
+import kr.jm.utils.exception.JMExceptionManager;
+import kr.jm.utils.helper.JMThread;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The type Destroy coordinator.
+ * <p>
+ * Cleans up registered resources in parallel while keeping their dependency
+ * order: a resource is cleaned up only after every resource that depends on
+ * it is done, the same order as the reverse of start-up. Executor services
+ * are shut down and awaited without polling. At the global deadline every
+ * executor service still running is escalated to
+ * {@link ExecutorService#shutdownNow()}, running cleanups are interrupted and
+ * the ones not started yet are skipped, also when their last dependent
+ * finishes after the deadline, so nothing is cleaned up once
+ * {@link #cleanUp(long)} has returned.
+ */
+public class DestroyCoordinator {
+
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(DestroyCoordinator.class);
+
+    private final Map<String, Node> nodeMap;
+
+    /**
+     * Instantiates a new Destroy coordinator.
+     */
+    public DestroyCoordinator() {
+        this.nodeMap = new LinkedHashMap<>();
+    }
+
+    /**
+     * Register destroy coordinator.
+     *
+     * @param name      the name
+     * @param destroy   the destroy
+     * @param dependsOn the names of the resources cleaned up after this one
+     * @return the destroy coordinator
+     */
+    public synchronized DestroyCoordinator register(String name,
+            DestroyInterface destroy, String... dependsOn) {
+        return register(new Node(name, destroy, null, dependsOn));
+    }
+
+    /**
+     * Register destroy coordinator.
+     *
+     * @param name            the name
+     * @param executorService the executor service
+     * @param dependsOn       the names of the resources cleaned up after this
+     *                        one
+     * @return the destroy coordinator
+     */
+    public synchronized DestroyCoordinator register(String name,
+            ExecutorService executorService, String... dependsOn) {
+        return register(new Node(name, null, executorService, dependsOn));
+    }
+
+    private DestroyCoordinator register(Node node) {
+        if (nodeMap.containsKey(node.name))
+            throw new IllegalArgumentException(
+                    "Already Registered !!! - " + node.name);
+        nodeMap.put(node.name, node);
+        return this;
+    }
+
+    /**
+     * Clean up every registered resource within timeoutMillis and
+     * unregister them.
+     *
+     * @param timeoutMillis the timeout millis
+     * @return the clean up result map in completion order
+     */
+    public synchronized Map<String, CleanUpResult> cleanUp(
+            long timeoutMillis) {
+        Map<Node, List<Node>> dependencyMap = buildDependencyMap();
+        long deadlineNanos =
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Map<String, CleanUpResult> resultMap =
+                Collections.synchronizedMap(new LinkedHashMap<>());
+        CountDownLatch doneLatch = new CountDownLatch(nodeMap.size());
+        AtomicBoolean isEscalated = new AtomicBoolean();
+        ExecutorService cleanUpPool =
+                JMThread.newThreadPool(Math.max(1, nodeMap.size()));
+        Map<Node, AtomicInteger> pendingDependentsMap = new HashMap<>();
+        nodeMap.values().forEach(
+                node -> pendingDependentsMap.put(node, new AtomicInteger()));
+        dependencyMap.values().forEach(dependencyList -> dependencyList
+                .forEach(dependency -> pendingDependentsMap.get(dependency)
+                        .incrementAndGet()));
+        for (Node node : nodeMap.values())
+            node.onDone = () -> {
+                resultMap.put(node.name, node.result.get());
+                doneLatch.countDown();
+                if (isEscalated.get() || deadlineNanos - System.nanoTime() <= 0)
+                    return;
+                for (Node dependency : dependencyMap.get(node))
+                    if (pendingDependentsMap.get(dependency)
+                            .decrementAndGet() == 0)
+                        dependency.submit(cleanUpPool, deadlineNanos);
+            };
+        nodeMap.values().stream()
+                .filter(node -> pendingDependentsMap.get(node).get() == 0)
+                .forEach(node -> node.submit(cleanUpPool, deadlineNanos));
+        try {
+            if (!doneLatch.await(Math.max(0, deadlineNanos - System.nanoTime()),
+                    TimeUnit.NANOSECONDS))
+                escalate(isEscalated);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            escalate(isEscalated);
+        } finally {
+            cleanUpPool.shutdownNow();
+        }
+        nodeMap.values().stream().filter(node -> !resultMap.containsKey(
+                node.name)).forEach(node -> resultMap.put(node.name,
+                node.result.get()));
+        nodeMap.clear();
+        log.info("Complete Clean Up - {}", resultMap.values());
+        return new LinkedHashMap<>(resultMap);
+    }
+
+    private void escalate(AtomicBoolean isEscalated) {
+        isEscalated.set(true);
+        log.warn("Clean Up Deadline Exceeded !!! - escalating {}",
+                nodeMap.keySet());
+        nodeMap.values().forEach(Node::escalate);
+    }
+
+    private Map<Node, List<Node>> buildDependencyMap() {
+        Map<Node, List<Node>> dependencyMap = new HashMap<>();
+        for (Node node : nodeMap.values()) {
+            List<Node> dependencyList = new ArrayList<>();
+            for (String dependencyName : node.dependsOn)
+                dependencyList.add(Optional.ofNullable(
+                        nodeMap.get(dependencyName)).orElseThrow(
+                        () -> new IllegalArgumentException(
+                                "Unknown Dependency !!! - " + node.name +
+                                        " -> " + dependencyName)));
+            dependencyMap.put(node, dependencyList);
+        }
+        checkCycle(dependencyMap);
+        return dependencyMap;
+    }
+
+    private void checkCycle(Map<Node, List<Node>> dependencyMap) {
+        Map<Node, Integer> dependentCountMap = new HashMap<>();
+        dependencyMap.keySet().forEach(node -> dependentCountMap.put(node, 0));
+        dependencyMap.values().forEach(dependencyList -> dependencyList
+                .forEach(dependency -> dependentCountMap
+                        .merge(dependency, 1, Integer::sum)));
+        Deque<Node> readyDeque = new ArrayDeque<>();
+        dependentCountMap.forEach((node, count) -> {
+            if (count == 0)
+                readyDeque.add(node);
+        });
+        int visitedCount = 0;
+        while (!readyDeque.isEmpty()) {
+            visitedCount++;
+            for (Node dependency : dependencyMap.get(readyDeque.poll()))
+                if (dependentCountMap.merge(dependency, -1, Integer::sum) == 0)
+                    readyDeque.add(dependency);
+        }
+        if (visitedCount < dependencyMap.size())
+            throw new IllegalStateException(
+                    "Dependency Cycle Detected !!! - " + nodeMap.keySet());
+    }
+
+    /**
+     * The enum Clean up status.
+     */
+    public enum CleanUpStatus {
+        /**
+         * Cleaned up within the deadline.
+         */
+        COMPLETED,
+        /**
+         * The clean up threw an exception.
+         */
+        FAILED,
+        /**
+         * Interrupted or forced by shutdownNow at the deadline.
+         */
+        ESCALATED,
+        /**
+         * Not started before the deadline.
+         */
+        SKIPPED
+    }
+
+    /**
+     * The type Clean up result.
+     */
+    public static class CleanUpResult {
+        private final String name;
+        private final CleanUpStatus status;
+        private final long elapsedMillis;
+
+        private CleanUpResult(String name, CleanUpStatus status,
+                long elapsedMillis) {
+            this.name = name;
+            this.status = status;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * Gets name.
+         *
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets status.
+         *
+         * @return the status
+         */
+        public CleanUpStatus getStatus() {
+            return status;
+        }
+
+        /**
+         * Gets elapsed millis.
+         *
+         * @return the elapsed millis
+         */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "CleanUpResult{" + "name='" + name + '\'' + ", status=" +
+                    status + ", elapsedMillis=" + elapsedMillis + '}';
+        }
+    }
+
+    private static class Node {
+        private final String name;
+        private final DestroyInterface destroy;
+        private final ExecutorService executorService;
+        private final String[] dependsOn;
+        private final AtomicReference<CleanUpResult> result;
+        private final AtomicBoolean isStarted;
+        private volatile Future<?> future;
+        private volatile long startNanos;
+        private Runnable onDone;
+
+        private Node(String name, DestroyInterface destroy,
+                ExecutorService executorService, String[] dependsOn) {
+            this.name = Objects.requireNonNull(name);
+            this.destroy = destroy;
+            this.executorService = executorService;
+            this.dependsOn = dependsOn;
+            this.result = new AtomicReference<>();
+            this.isStarted = new AtomicBoolean();
+        }
+
+        private void submit(ExecutorService cleanUpPool, long deadlineNanos) {
+            try {
+                this.future = cleanUpPool.submit(() -> run(deadlineNanos));
+            } catch (RejectedExecutionException e) {
+                log.warn("Skip Clean Up - {}", name);
+            }
+        }
+
+        private void run(long deadlineNanos) {
+            // already skipped or escalated by the deadline
+            if (!isStarted.compareAndSet(false, true))
+                return;
+            this.startNanos = System.nanoTime();
+            log.info("Start Clean Up - {}", name);
+            CleanUpStatus status;
+            try {
+                status = executorService == null ? cleanUpDestroy() :
+                        cleanUpExecutorService(deadlineNanos);
+            } catch (Exception e) {
+                status = CleanUpStatus.FAILED;
+                JMExceptionManager.handleException(log, e, "cleanUp", name);
+            }
+            complete(status);
+            onDone.run();
+        }
+
+        private CleanUpStatus cleanUpDestroy() {
+            destroy.cleanUp();
+            return Thread.currentThread().isInterrupted() ?
+                    CleanUpStatus.ESCALATED : CleanUpStatus.COMPLETED;
+        }
+
+        private CleanUpStatus cleanUpExecutorService(long deadlineNanos) {
+            executorService.shutdown();
+            try {
+                if (executorService.awaitTermination(
+                        deadlineNanos - System.nanoTime(),
+                        TimeUnit.NANOSECONDS))
+                    return CleanUpStatus.COMPLETED;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executorService.shutdownNow();
+            return CleanUpStatus.ESCALATED;
+        }
+
+        private boolean complete(CleanUpStatus status) {
+            long elapsedMillis = startNanos == 0 ? 0 : TimeUnit.NANOSECONDS
+                    .toMillis(System.nanoTime() - startNanos);
+            return result.compareAndSet(null,
+                    new CleanUpResult(name, status, elapsedMillis));
+        }
+
+        // recorded before forcing, so that the node thread seeing the forced
+        // termination can't report it as completed, and a node not started
+        // yet is claimed so that a late run exits
+        private void escalate() {
+            boolean isForced = executorService != null &&
+                    !executorService.isTerminated();
+            boolean isEscalated = isStarted.compareAndSet(false, true) ?
+                    complete(isForced ? CleanUpStatus.ESCALATED :
+                            CleanUpStatus.SKIPPED) && isForced :
+                    complete(CleanUpStatus.ESCALATED);
+            if (isForced)
+                executorService.shutdownNow();
+            Optional.ofNullable(future).ifPresent(f -> f.cancel(true));
+            if (isEscalated)
+                log.warn("Escalated Clean Up - {}", name);
+        }
+    }
+}
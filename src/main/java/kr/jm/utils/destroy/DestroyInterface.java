@@ -1,8 +1,7 @@
 package kr.jm.utils.destroy;
 
-import kr.jm.utils.helper.JMThread;
-
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The interface Destroy interface.
@@ -24,8 +23,28 @@ public interface DestroyInterface {
      */
     default void cleanUp(ExecutorService executorService)
             throws RuntimeException {
+        cleanUp(executorService, Long.MAX_VALUE);
+    }
+
+    /**
+     * Clean up, escalating to shutdownNow after timeoutMillis.
+     *
+     * @param executorService the executor service
+     * @param timeoutMillis   the timeout millis
+     * @return true if the executor service terminated within timeoutMillis
+     * @throws RuntimeException the runtime exception
+     */
+    default boolean cleanUp(ExecutorService executorService,
+            long timeoutMillis) throws RuntimeException {
         executorService.shutdown();
-        while (!executorService.isTerminated())
-            JMThread.sleep(100);
+        try {
+            if (executorService
+                    .awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS))
+                return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executorService.shutdownNow();
+        return false;
     }
 }
@@ -2,10 +2,12 @@ package kr.jm.utils.destroy;
 
 import kr.jm.utils.exception.JMExceptionManager;
 import kr.jm.utils.helper.JMOptional;
-import kr.jm.utils.helper.JMThread;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
 
 /**
  * The type Destroyer.
@@ -39,6 +41,29 @@ public class Destroyer {
                 collection -> collection.forEach(Destroyer::cleanUp));
     }
 
+    /**
+     * Clean up in parallel within timeoutMillis.
+     *
+     * @param <D>               the type parameter
+     * @param timeoutMillis     the timeout millis
+     * @param destroyCollection the destroy collection
+     * @return the clean up result map in completion order
+     * @see DestroyCoordinator
+     */
+    public static <D extends DestroyInterface> Map<String,
+            DestroyCoordinator.CleanUpResult> cleanUp(long timeoutMillis,
+            Collection<D> destroyCollection) {
+        if (destroyCollection == null || destroyCollection.isEmpty())
+            return Collections.emptyMap();
+        DestroyCoordinator destroyCoordinator = new DestroyCoordinator();
+        Iterator<D> iterator = destroyCollection.iterator();
+        for (int i = 0; iterator.hasNext(); i++) {
+            D destroy = iterator.next();
+            destroyCoordinator.register(i + "-" + destroy, destroy);
+        }
+        return destroyCoordinator.cleanUp(timeoutMillis);
+    }
+
     /**
      * Clean up.
      *
@@ -46,7 +71,6 @@ public class Destroyer {
      */
     public static void cleanUp(DestroyInterface destroy) {
         try {
-            JMThread.sleep(10);
             log.info("Start Clean Up - {}", destroy);
             destroy.cleanUp();
             log.info("Complete Clean Up - {}", destroy);
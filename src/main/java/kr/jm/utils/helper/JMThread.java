@@ -1,9 +1,23 @@
 package kr.jm.utils.helper;
 
+import kr.jm.utils.JMAdaptiveThreadPool;
+import kr.jm.utils.JMAsyncPoller;
+import kr.jm.utils.JMBatchingExecutor;
+import kr.jm.utils.JMHedgedExecutor;
+import kr.jm.utils.JMInstrumentedExecutorService;
+import kr.jm.utils.JMInstrumentedScheduledExecutorService;
+import kr.jm.utils.JMKeyedExecutor;
+import kr.jm.utils.JMPriorityExecutor;
+import kr.jm.utils.JMRateLimitedExecutorService;
+import kr.jm.utils.JMRateLimiter;
+import kr.jm.utils.JMTimingWheelScheduler;
+import kr.jm.utils.collections.JMRingBlockingQueue;
 import kr.jm.utils.enums.OS;
 import kr.jm.utils.exception.JMExceptionManager;
 
 import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.OptionalLong;
 import java.util.concurrent.*;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -20,6 +34,7 @@ public class JMThread {
 
     private static final org.slf4j.Logger log =
             org.slf4j.LoggerFactory.getLogger(JMThread.class);
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
 
     /**
      * The constant DEFAULT_WAITING_MILLIS.
@@ -155,6 +170,172 @@ public class JMThread {
         return Executors.newFixedThreadPool(OS.getAvailableProcessors() - 1);
     }
 
+    /**
+     * Is virtual thread supported boolean.
+     *
+     * @return true if running the Java 21+ version of the Multi-Release JAR
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VirtualThreadSupport.isSupported();
+    }
+
+    /**
+     * New virtual thread per task executor executor service.
+     * <p>
+     * Falls back to a cached platform thread pool before Java 21.
+     *
+     * @return the executor service
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        return VirtualThreadSupport
+                .newThreadPerTaskExecutor("JMThread-virtual-");
+    }
+
+    private static ExecutorService getVirtualThreadExecutor() {
+        return VirtualThreadExecutorHolder.VIRTUAL_THREAD_EXECUTOR;
+    }
+
+    private static class VirtualThreadExecutorHolder {
+        private static final ExecutorService VIRTUAL_THREAD_EXECUTOR =
+                newVirtualThreadPerTaskExecutor();
+
+        static {
+            OS.addShutdownHook(VIRTUAL_THREAD_EXECUTOR::shutdown);
+        }
+    }
+
+    /**
+     * Run async on virtual thread completable future.
+     *
+     * @param runnable the runnable
+     * @return the completable future
+     */
+    public static CompletableFuture<Void> runAsyncOnVirtualThread(
+            Runnable runnable) {
+        return runAsync(runnable, getVirtualThreadExecutor());
+    }
+
+    /**
+     * Supply async on virtual thread completable future.
+     *
+     * @param <U>      the type parameter
+     * @param supplier the supplier
+     * @return the completable future
+     */
+    public static <U> CompletableFuture<U> supplyAsyncOnVirtualThread(
+            Supplier<U> supplier) {
+        return supplyAsync(supplier, getVirtualThreadExecutor());
+    }
+
+    /**
+     * New keyed executor jm keyed executor.
+     *
+     * @param <K>          the type parameter
+     * @param numOfLanes   the num of lanes
+     * @param numOfThreads the num of threads
+     * @return the jm keyed executor
+     */
+    public static <K> JMKeyedExecutor<K> newKeyedExecutor(int numOfLanes,
+            int numOfThreads) {
+        return new JMKeyedExecutor<>(numOfLanes, numOfThreads);
+    }
+
+    /**
+     * New keyed executor jm keyed executor.
+     *
+     * @param <K>              the type parameter
+     * @param numOfLanes       the num of lanes
+     * @param maxLaneQueue     the max lane queue
+     * @param numWorkerThreads the num worker threads
+     * @return the jm keyed executor
+     */
+    public static <K> JMKeyedExecutor<K> newKeyedExecutor(int numOfLanes,
+            int maxLaneQueue, int numWorkerThreads) {
+        return new JMKeyedExecutor<>(numOfLanes, maxLaneQueue,
+                DEFAULT_WAITING_MILLIS, newThreadPool(numWorkerThreads));
+    }
+
+    /**
+     * New batching executor jm batching executor.
+     *
+     * @param <T>             the type parameter
+     * @param maxBatchSize    the max batch size
+     * @param maxLingerMillis the max linger millis
+     * @param maxBufferSize   the max buffer size
+     * @param batchConsumer   the batch consumer
+     * @return the jm batching executor
+     */
+    public static <T> JMBatchingExecutor<T> newBatchingExecutor(
+            int maxBatchSize, long maxLingerMillis, int maxBufferSize,
+            Consumer<List<T>> batchConsumer) {
+        JMBatchingExecutor<T> batchingExecutor =
+                new JMBatchingExecutor<>(maxBatchSize, maxLingerMillis,
+                        maxBufferSize, batchConsumer);
+        OS.addShutdownHook(batchingExecutor::close);
+        return batchingExecutor;
+    }
+
+    /**
+     * New priority thread pool jm priority executor.
+     *
+     * @param numWorkerThreads the num worker threads
+     * @param maxQueuePerClass the max queue per class
+     * @return the jm priority executor
+     */
+    public static JMPriorityExecutor newPriorityThreadPool(
+            int numWorkerThreads, int maxQueuePerClass) {
+        return new JMPriorityExecutor(numWorkerThreads,
+                DEFAULT_WAITING_MILLIS, maxQueuePerClass);
+    }
+
+    /**
+     * New rate limiter jm rate limiter.
+     *
+     * @param permitsPerSecond the permits per second
+     * @return the jm rate limiter
+     */
+    public static JMRateLimiter newRateLimiter(double permitsPerSecond) {
+        return JMRateLimiter.ofLeakyBucket(permitsPerSecond);
+    }
+
+    /**
+     * New rate limiter jm rate limiter.
+     *
+     * @param permitsPerSecond the permits per second
+     * @param burst            the burst
+     * @param warmupMillis     the warmup millis
+     * @return the jm rate limiter
+     */
+    public static JMRateLimiter newRateLimiter(double permitsPerSecond,
+            int burst, long warmupMillis) {
+        return JMRateLimiter.ofTokenBucket(permitsPerSecond, burst,
+                warmupMillis);
+    }
+
+    /**
+     * Rate limit jm rate limited executor service.
+     *
+     * @param executorService  the executor service
+     * @param permitsPerSecond the permits per second
+     * @return the jm rate limited executor service
+     */
+    public static JMRateLimitedExecutorService rateLimit(
+            ExecutorService executorService, double permitsPerSecond) {
+        return rateLimit(executorService, newRateLimiter(permitsPerSecond));
+    }
+
+    /**
+     * Rate limit jm rate limited executor service.
+     *
+     * @param executorService the executor service
+     * @param rateLimiter     the rate limiter
+     * @return the jm rate limited executor service
+     */
+    public static JMRateLimitedExecutorService rateLimit(
+            ExecutorService executorService, JMRateLimiter rateLimiter) {
+        return new JMRateLimitedExecutorService(executorService, rateLimiter);
+    }
+
     /**
      * Sleep.
      *
@@ -208,6 +389,44 @@ public class JMThread {
         return object;
     }
 
+    /**
+     * Gets the shared async poller.
+     *
+     * @return the async poller
+     */
+    public static JMAsyncPoller getAsyncPoller() {
+        return AsyncPollerHolder.ASYNC_POLLER;
+    }
+
+    private static class AsyncPollerHolder {
+        private static final JMAsyncPoller ASYNC_POLLER = new JMAsyncPoller();
+    }
+
+    /**
+     * Non-blocking suspend when null, polled by the shared async poller.
+     *
+     * @param <R>            the type parameter
+     * @param objectSupplier the object supplier
+     * @return the completable future
+     */
+    public static <R> CompletableFuture<R> suspendWhenNullAsync(
+            Supplier<R> objectSupplier) {
+        return getAsyncPoller().pollWhenNull(objectSupplier);
+    }
+
+    /**
+     * Non-blocking suspend when null, polled by the shared async poller.
+     *
+     * @param <R>            the type parameter
+     * @param timeoutMillis  the timeout millis
+     * @param objectSupplier the object supplier
+     * @return the completable future
+     */
+    public static <R> CompletableFuture<R> suspendWhenNullAsync(
+            long timeoutMillis, Supplier<R> objectSupplier) {
+        return getAsyncPoller().pollWhenNull(timeoutMillis, objectSupplier);
+    }
+
     /**
      * Run.
      *
@@ -423,6 +642,101 @@ public class JMThread {
                 "runWithScheduleWithFixedDelayOnStartTime", runnable);
     }
 
+    /**
+     * New timing wheel scheduler jm timing wheel scheduler.
+     *
+     * @param tickMillis       the tick millis
+     * @param numWorkerThreads the num worker threads
+     * @return the jm timing wheel scheduler
+     */
+    public static JMTimingWheelScheduler newTimingWheelScheduler(
+            long tickMillis, int numWorkerThreads) {
+        JMTimingWheelScheduler timingWheelScheduler =
+                new JMTimingWheelScheduler(tickMillis, numWorkerThreads);
+        OS.addShutdownHook(timingWheelScheduler::shutdown);
+        return timingWheelScheduler;
+    }
+
+    /**
+     * Gets the shared timing wheel scheduler, created on first use with
+     * {@link JMTimingWheelScheduler#DEFAULT_TICK_MILLIS} resolution.
+     *
+     * @return the timing wheel scheduler
+     */
+    public static JMTimingWheelScheduler getTimingWheelScheduler() {
+        return TimingWheelSchedulerHolder.TIMING_WHEEL_SCHEDULER;
+    }
+
+    private static class TimingWheelSchedulerHolder {
+        private static final JMTimingWheelScheduler TIMING_WHEEL_SCHEDULER =
+                newTimingWheelScheduler(
+                        JMTimingWheelScheduler.DEFAULT_TICK_MILLIS,
+                        OS.getAvailableProcessors());
+    }
+
+    /**
+     * Run with timing wheel scheduled future.
+     *
+     * @param <V>         the type parameter
+     * @param delayMillis the delay millis
+     * @param callable    the callable
+     * @return the scheduled future
+     */
+    public static <V> ScheduledFuture<V> runWithTimingWheel(long delayMillis,
+            Callable<V> callable) {
+        return getTimingWheelScheduler().schedule(() -> {
+            JMLog.debug(log, "runWithTimingWheel",
+                    System.currentTimeMillis(), delayMillis);
+            return callable.call();
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Run with timing wheel scheduled future.
+     *
+     * @param delayMillis the delay millis
+     * @param runnable    the runnable
+     * @return the scheduled future
+     */
+    public static ScheduledFuture<?> runWithTimingWheel(long delayMillis,
+            Runnable runnable) {
+        return getTimingWheelScheduler().schedule(
+                buildRunnableWithLogging("runWithTimingWheel", runnable,
+                        delayMillis), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Run with timing wheel at fixed rate scheduled future.
+     *
+     * @param initialDelayMillis the initial delay millis
+     * @param periodMillis       the period millis
+     * @param runnable           the runnable
+     * @return the scheduled future
+     */
+    public static ScheduledFuture<?> runWithTimingWheelAtFixedRate(
+            long initialDelayMillis, long periodMillis, Runnable runnable) {
+        return getTimingWheelScheduler().scheduleAtFixedRate(
+                buildRunnableWithLogging("runWithTimingWheelAtFixedRate",
+                        runnable, initialDelayMillis, periodMillis),
+                initialDelayMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Run with timing wheel with fixed delay scheduled future.
+     *
+     * @param initialDelayMillis the initial delay millis
+     * @param delayMillis        the delay millis
+     * @param runnable           the runnable
+     * @return the scheduled future
+     */
+    public static ScheduledFuture<?> runWithTimingWheelWithFixedDelay(
+            long initialDelayMillis, long delayMillis, Runnable runnable) {
+        return getTimingWheelScheduler().scheduleWithFixedDelay(
+                buildRunnableWithLogging("runWithTimingWheelWithFixedDelay",
+                        runnable, initialDelayMillis, delayMillis),
+                initialDelayMillis, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
     /**
      * Run async completable future.
      *
@@ -543,6 +857,97 @@ public class JMThread {
                         executor));
     }
 
+    /**
+     * Supply async with a hedged duplicate attempt after hedgeDelayMillis.
+     *
+     * @param <U>              the type parameter
+     * @param supplier         the idempotent supplier
+     * @param hedgeDelayMillis the hedge delay millis
+     * @param executor         the executor
+     * @return the completable future
+     * @see JMHedgedExecutor
+     */
+    public static <U> CompletableFuture<U> supplyAsyncWithHedge(
+            Supplier<U> supplier, long hedgeDelayMillis, Executor executor) {
+        return new JMHedgedExecutor(executor, hedgeDelayMillis)
+                .supplyAsync(supplier);
+    }
+
+    /**
+     * Supply async with a deadline. The deadline is the earlier of
+     * timeoutMillis and the deadline of the calling task, if it runs under
+     * one. Work still queued at the deadline is skipped when dequeued, and
+     * the future completes exceptionally with {@link TimeoutException} at
+     * the deadline.
+     *
+     * @param <U>           the type parameter
+     * @param supplier      the supplier
+     * @param timeoutMillis the timeout millis
+     * @param executor      the executor
+     * @return the completable future
+     */
+    public static <U> CompletableFuture<U> supplyAsyncWithDeadline(
+            Supplier<U> supplier, long timeoutMillis, Executor executor) {
+        long deadlineNanos = System.nanoTime() +
+                TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Long parentDeadlineNanos = DEADLINE_NANOS.get();
+        if (parentDeadlineNanos != null &&
+                parentDeadlineNanos - deadlineNanos < 0)
+            deadlineNanos = parentDeadlineNanos;
+        CompletableFuture<U> future = new CompletableFuture<>();
+        long taskDeadlineNanos = deadlineNanos;
+        try {
+            executor.execute(() -> runWithDeadline(supplier, future,
+                    taskDeadlineNanos));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        ScheduledFuture<?> deadline = getTimingWheelScheduler().schedule(
+                () -> future.completeExceptionally(new TimeoutException(
+                        "Deadline Exceeded !!! - timeoutMillis = " +
+                                timeoutMillis)),
+                deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        future.whenComplete((u, throwable) -> deadline.cancel(false));
+        return future;
+    }
+
+    private static <U> void runWithDeadline(Supplier<U> supplier,
+            CompletableFuture<U> future, long deadlineNanos) {
+        if (future.isDone())
+            return;
+        if (System.nanoTime() - deadlineNanos >= 0) {
+            future.completeExceptionally(new TimeoutException(
+                    "Deadline Passed Before Start !!!"));
+            return;
+        }
+        Long parentDeadlineNanos = DEADLINE_NANOS.get();
+        DEADLINE_NANOS.set(deadlineNanos);
+        try {
+            future.complete(supplier.get());
+        } catch (Throwable throwable) {
+            future.completeExceptionally(throwable);
+        } finally {
+            if (parentDeadlineNanos == null)
+                DEADLINE_NANOS.remove();
+            else
+                DEADLINE_NANOS.set(parentDeadlineNanos);
+        }
+    }
+
+    /**
+     * Gets the remaining millis of the deadline the current task runs under.
+     *
+     * @return the deadline remaining millis, empty outside
+     * {@link #supplyAsyncWithDeadline(Supplier, long, Executor)}
+     */
+    public static OptionalLong getDeadlineRemainingMillis() {
+        Long deadlineNanos = DEADLINE_NANOS.get();
+        return deadlineNanos == null ? OptionalLong.empty() : OptionalLong
+                .of(TimeUnit.NANOSECONDS
+                        .toMillis(deadlineNanos - System.nanoTime()));
+    }
+
     /**
      * Start with single executor service executor service.
      *
@@ -626,6 +1031,24 @@ public class JMThread {
         };
     }
 
+    /**
+     * Gets ring buffer limited blocking queue.
+     *
+     * @param <E>          the type parameter
+     * @param maxQueue     the max queue
+     * @param waitStrategy the wait strategy
+     * @return the ring buffer limited blocking queue
+     */
+    public static <E> BlockingQueue<E> getRingBufferLimitedBlockingQueue(
+            int maxQueue, JMRingBlockingQueue.WaitStrategy waitStrategy) {
+        return new JMRingBlockingQueue<E>(maxQueue, waitStrategy) {
+            @Override
+            public boolean offer(E e) {
+                return putInsteadOfOffer(this, e);
+            }
+        };
+    }
+
     private static <E> boolean putInsteadOfOffer(BlockingQueue<E> queue, E e) {
         try {
             queue.put(e);
@@ -653,6 +1076,22 @@ public class JMThread {
                         maxQueue));
     }
 
+    /**
+     * New adaptive max queue thread pool jm adaptive thread pool.
+     *
+     * @param minWorkerThreads the min worker threads
+     * @param maxWorkerThreads the max worker threads
+     * @param waitingMillis    the waiting millis
+     * @param maxQueue         the max queue
+     * @return the jm adaptive thread pool
+     */
+    public static JMAdaptiveThreadPool newAdaptiveMaxQueueThreadPool(
+            int minWorkerThreads, int maxWorkerThreads, long waitingMillis,
+            int maxQueue) {
+        return new JMAdaptiveThreadPool(minWorkerThreads, maxWorkerThreads,
+                waitingMillis, maxQueue);
+    }
+
     /**
      * New max queue thread pool executor service.
      *
@@ -666,6 +1105,22 @@ public class JMThread {
                 maxQueue);
     }
 
+    /**
+     * New max queue thread pool executor service with the lock-free ring
+     * buffer queue.
+     *
+     * @param numWorkerThreads the num worker threads
+     * @param maxQueue         the max queue
+     * @param waitStrategy     the wait strategy
+     * @return the executor service
+     */
+    public static ExecutorService newMaxQueueThreadPool(int numWorkerThreads,
+            int maxQueue, JMRingBlockingQueue.WaitStrategy waitStrategy) {
+        return new ThreadPoolExecutor(numWorkerThreads, numWorkerThreads,
+                0L, TimeUnit.MILLISECONDS,
+                getRingBufferLimitedBlockingQueue(maxQueue, waitStrategy));
+    }
+
     /**
      * New max queue thread pool executor service.
      *
@@ -676,4 +1131,65 @@ public class JMThread {
         return newMaxQueueThreadPool(OS.getAvailableProcessors(), maxQueue);
     }
 
+    /**
+     * Instrument jm instrumented executor service.
+     *
+     * @param executorService the executor service
+     * @return the jm instrumented executor service
+     */
+    public static JMInstrumentedExecutorService instrument(
+            ExecutorService executorService) {
+        return new JMInstrumentedExecutorService(executorService);
+    }
+
+    /**
+     * Instrument jm instrumented scheduled executor service.
+     *
+     * @param scheduledExecutorService the scheduled executor service
+     * @return the jm instrumented scheduled executor service
+     */
+    public static JMInstrumentedScheduledExecutorService instrument(
+            ScheduledExecutorService scheduledExecutorService) {
+        return new JMInstrumentedScheduledExecutorService(
+                scheduledExecutorService);
+    }
+
+    /**
+     * New instrumented thread pool jm instrumented executor service.
+     *
+     * @param numOfThreads the num of threads
+     * @return the jm instrumented executor service
+     */
+    public static JMInstrumentedExecutorService newInstrumentedThreadPool(
+            int numOfThreads) {
+        return instrument(newThreadPool(numOfThreads));
+    }
+
+    /**
+     * New instrumented max queue thread pool jm instrumented executor service.
+     *
+     * @param numWorkerThreads the num worker threads
+     * @param waitingMillis    the waiting millis
+     * @param maxQueue         the max queue
+     * @return the jm instrumented executor service
+     */
+    public static JMInstrumentedExecutorService
+    newInstrumentedMaxQueueThreadPool(int numWorkerThreads,
+            long waitingMillis, int maxQueue) {
+        return instrument(
+                newMaxQueueThreadPool(numWorkerThreads, waitingMillis,
+                        maxQueue));
+    }
+
+    /**
+     * New instrumented single scheduled thread pool jm instrumented scheduled
+     * executor service.
+     *
+     * @return the jm instrumented scheduled executor service
+     */
+    public static JMInstrumentedScheduledExecutorService
+    newInstrumentedSingleScheduledThreadPool() {
+        return instrument(newSingleScheduledThreadPool());
+    }
+
 }
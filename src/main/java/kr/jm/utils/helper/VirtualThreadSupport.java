@@ -0,0 +1,38 @@
+package kr.jm.utils.helper;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The type Virtual thread support.
+ * <p>
+ * Java 8 base version: virtual threads are not available, so a thread per
+ * task executor falls back to a cached platform thread pool. The Java 21
+ * version of this class in {@code src/main/java21} is packaged into
+ * {@code META-INF/versions/21} of the Multi-Release JAR.
+ */
+class VirtualThreadSupport {
+
+    /**
+     * Is supported boolean.
+     *
+     * @return the boolean
+     */
+    static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * New thread per task executor executor service.
+     *
+     * @param namePrefix the name prefix
+     * @return the executor service
+     */
+    static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        AtomicLong threadCount = new AtomicLong();
+        return Executors.newCachedThreadPool(runnable -> new Thread(runnable,
+                namePrefix + threadCount.getAndIncrement()));
+    }
+
+}
@@ -0,0 +1,300 @@
+package kr.jm.utils.stats;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The type Count min sketch.
+ * <p>
+ * Approximate frequency counter in a fixed depth x width array of long
+ * counters: width = ceil(e / epsilon) and depth = ceil(ln(1 / delta)), so an
+ * estimate never undercounts and overcounts by more than epsilon * total
+ * count with a probability of at most delta, however many distinct keys
+ * were added. Keys are hashed by {@link Object#hashCode()}.
+ * <p>
+ * Plain updates are lock-free increments of the counters. The conservative
+ * update only raises the counters below the new estimate of the key, which
+ * overcounts a lot less; updates of the same key are then serialized by a
+ * striped lock to keep the estimate an upper bound. Sketches with the same
+ * layout can be merged and serialized to a compact binary form.
+ */
+public class CountMinSketch {
+
+    private static final int MAGIC = 0x434d5331;
+    private static final int LOCK_STRIPES = 64;
+    private static final long DEFAULT_SEED = 0x9e3779b97f4a7c15L;
+
+    private final int width;
+    private final int depth;
+    private final long seed;
+    private final boolean isConservative;
+    private final AtomicLongArray counters;
+    private final LongAdder totalCount;
+    private final Object[] locks;
+
+    private CountMinSketch(int width, int depth, long seed,
+            boolean isConservative) {
+        if (width < 1 || depth < 1 || (long) width * depth > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(
+                    "Wrong Sketch Size !!! - width = " + width +
+                            ", depth = " + depth);
+        this.width = width;
+        this.depth = depth;
+        this.seed = seed;
+        this.isConservative = isConservative;
+        this.counters = new AtomicLongArray(width * depth);
+        this.totalCount = new LongAdder();
+        this.locks = isConservative ? new Object[LOCK_STRIPES] : null;
+        if (isConservative)
+            Arrays.setAll(locks, i -> new Object());
+    }
+
+    /**
+     * Of count min sketch.
+     *
+     * @param epsilon the relative error of an estimate over the total count
+     * @param delta   the probability of an estimate exceeding that error
+     * @return the count min sketch
+     */
+    public static CountMinSketch of(double epsilon, double delta) {
+        return of(epsilon, delta, false);
+    }
+
+    /**
+     * Of count min sketch.
+     *
+     * @param epsilon        the relative error of an estimate over the total
+     *                       count
+     * @param delta          the probability of an estimate exceeding that
+     *                       error
+     * @param isConservative true for the conservative update
+     * @return the count min sketch
+     */
+    public static CountMinSketch of(double epsilon, double delta,
+            boolean isConservative) {
+        if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1)
+            throw new IllegalArgumentException(
+                    "Wrong Error Bound !!! - epsilon = " + epsilon +
+                            ", delta = " + delta);
+        return new CountMinSketch((int) Math.ceil(Math.E / epsilon),
+                (int) Math.ceil(Math.log(1 / delta)), DEFAULT_SEED,
+                isConservative);
+    }
+
+    /**
+     * From bytes count min sketch.
+     *
+     * @param bytes the bytes built by {@link #toBytes()}
+     * @return the count min sketch
+     */
+    public static CountMinSketch fromBytes(byte[] bytes) {
+        try {
+            ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+            if (byteBuffer.getInt() != MAGIC)
+                throw new IllegalArgumentException(
+                        "Wrong Count Min Sketch Bytes !!! - length = " +
+                                bytes.length);
+            boolean isConservative = byteBuffer.get() != 0;
+            int width = byteBuffer.getInt();
+            int depth = byteBuffer.getInt();
+            CountMinSketch countMinSketch = new CountMinSketch(width, depth,
+                    byteBuffer.getLong(), isConservative);
+            countMinSketch.totalCount.add(readVarLong(byteBuffer));
+            for (int i = 0; i < countMinSketch.counters.length(); i++)
+                countMinSketch.counters.set(i, readVarLong(byteBuffer));
+            return countMinSketch;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException(
+                    "Wrong Count Min Sketch Bytes !!! - length = " +
+                            bytes.length, e);
+        }
+    }
+
+    private static long readVarLong(ByteBuffer byteBuffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = byteBuffer.get();
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0)
+                return value;
+        }
+    }
+
+    private static void writeVarLong(ByteBuffer byteBuffer, long value) {
+        while ((value & ~0x7fL) != 0) {
+            byteBuffer.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        byteBuffer.put((byte) value);
+    }
+
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    // row hashes are derived from two mixed hashes (Kirsch-Mitzenmacher)
+    private int buildCounterIndex(long hash1, long hash2, int row) {
+        return row * width +
+                (int) (((hash1 + row * hash2) & Long.MAX_VALUE) % width);
+    }
+
+    /**
+     * Add.
+     *
+     * @param key the key
+     */
+    public void add(Object key) {
+        add(key, 1);
+    }
+
+    /**
+     * Add.
+     *
+     * @param key   the key
+     * @param count the count
+     */
+    public void add(Object key, long count) {
+        if (count < 0)
+            throw new IllegalArgumentException(
+                    "Wrong Count !!! - key = " + key + ", count = " + count);
+        long hash1 = mix(key.hashCode() ^ seed);
+        long hash2 = mix(hash1) | 1;
+        if (isConservative)
+            synchronized (locks[(int) (hash1 & (LOCK_STRIPES - 1))]) {
+                long target = estimateCount(hash1, hash2) + count;
+                for (int row = 0; row < depth; row++)
+                    counters.accumulateAndGet(
+                            buildCounterIndex(hash1, hash2, row), target,
+                            Math::max);
+            }
+        else
+            for (int row = 0; row < depth; row++)
+                counters.addAndGet(buildCounterIndex(hash1, hash2, row),
+                        count);
+        totalCount.add(count);
+    }
+
+    /**
+     * Add all.
+     *
+     * @param countMap the count map such as a JMCountMap
+     */
+    public void addAll(Map<?, ? extends Number> countMap) {
+        countMap.forEach((key, count) -> add(key, count.longValue()));
+    }
+
+    /**
+     * Estimate count long.
+     *
+     * @param key the key
+     * @return the estimated count, never under the true count
+     */
+    public long estimateCount(Object key) {
+        long hash1 = mix(key.hashCode() ^ seed);
+        return estimateCount(hash1, mix(hash1) | 1);
+    }
+
+    private long estimateCount(long hash1, long hash2) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++)
+            min = Math.min(min,
+                    counters.get(buildCounterIndex(hash1, hash2, row)));
+        return min;
+    }
+
+    /**
+     * Merge count min sketch.
+     *
+     * @param other the other with the same width, depth and seed
+     * @return this count min sketch
+     */
+    public CountMinSketch merge(CountMinSketch other) {
+        if (width != other.width || depth != other.depth ||
+                seed != other.seed)
+            throw new IllegalArgumentException(
+                    "Wrong Sketch Layout !!! - width = " + other.width +
+                            ", depth = " + other.depth + ", expected width = " +
+                            width + ", depth = " + depth);
+        for (int i = 0; i < counters.length(); i++)
+            counters.addAndGet(i, other.counters.get(i));
+        totalCount.add(other.getTotalCount());
+        return this;
+    }
+
+    /**
+     * To bytes byte [ ].
+     * <p>
+     * The counters are written as variable length longs, so a sparse or
+     * lightly loaded sketch takes about one byte per counter.
+     *
+     * @return the byte [ ]
+     */
+    public byte[] toBytes() {
+        ByteBuffer byteBuffer =
+                ByteBuffer.allocate(31 + counters.length() * 10);
+        byteBuffer.putInt(MAGIC).put((byte) (isConservative ? 1 : 0))
+                .putInt(width).putInt(depth).putLong(seed);
+        writeVarLong(byteBuffer, getTotalCount());
+        for (int i = 0; i < counters.length(); i++)
+            writeVarLong(byteBuffer, counters.get(i));
+        return Arrays.copyOf(byteBuffer.array(), byteBuffer.position());
+    }
+
+    /**
+     * Gets total count.
+     *
+     * @return the total count
+     */
+    public long getTotalCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * Gets error bound.
+     *
+     * @return the overcount no estimate exceeds with probability 1 - delta
+     */
+    public long getErrorBound() {
+        return (long) Math.ceil(Math.E / width * getTotalCount());
+    }
+
+    /**
+     * Gets width.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets depth.
+     *
+     * @return the depth
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Is conservative boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isConservative() {
+        return isConservative;
+    }
+
+    @Override
+    public String toString() {
+        return "CountMinSketch{" + "width=" + width + ", depth=" + depth +
+                ", isConservative=" + isConservative + ", totalCount=" +
+                getTotalCount() + '}';
+    }
+}
@@ -0,0 +1,198 @@
+package kr.jm.utils.stats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The type Latency histogram.
+ * <p>
+ * Lock-free log-linear histogram of non-negative long values: every power of
+ * two is split into 8 linear sub buckets, so any recorded value is reported
+ * within 12.5% relative error with a fixed footprint of 488 counters.
+ * Histograms with the same layout can always be merged.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT =
+            SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray bucketCounts;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final AtomicLong max;
+
+    private LatencyHistogram() {
+        this.bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Of latency histogram.
+     *
+     * @return the latency histogram
+     */
+    public static LatencyHistogram of() {
+        return new LatencyHistogram();
+    }
+
+    /**
+     * Record latency histogram.
+     *
+     * @param value the value
+     * @return the latency histogram
+     */
+    public LatencyHistogram record(long value) {
+        long positiveValue = Math.max(0, value);
+        bucketCounts.incrementAndGet(buildBucketIndex(positiveValue));
+        count.increment();
+        sum.add(positiveValue);
+        max.accumulateAndGet(positiveValue, Math::max);
+        return this;
+    }
+
+    /**
+     * Merge latency histogram.
+     *
+     * @param other the other
+     * @return the latency histogram
+     */
+    public LatencyHistogram merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long bucketCount = other.bucketCounts.get(i);
+            if (bucketCount > 0)
+                bucketCounts.addAndGet(i, bucketCount);
+        }
+        count.add(other.getCount());
+        sum.add(other.getSum());
+        max.accumulateAndGet(other.getMax(), Math::max);
+        return this;
+    }
+
+    /**
+     * Copy latency histogram.
+     *
+     * @return the latency histogram
+     */
+    public LatencyHistogram copy() {
+        return of().merge(this);
+    }
+
+    /**
+     * Reset.
+     */
+    synchronized public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++)
+            bucketCounts.set(i, 0);
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /**
+     * Gets count.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count.longValue();
+    }
+
+    /**
+     * Gets sum.
+     *
+     * @return the sum
+     */
+    public long getSum() {
+        return sum.longValue();
+    }
+
+    /**
+     * Gets max.
+     *
+     * @return the max
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets mean.
+     *
+     * @return the mean
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getSum() / count;
+    }
+
+    /**
+     * Gets percentile.
+     *
+     * @param percentile the percentile (0 ~ 100)
+     * @return the upper bound of the bucket holding the percentile
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = new long[BUCKET_COUNT];
+        long totalCount = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+            totalCount += counts[i] = bucketCounts.get(i);
+        if (totalCount == 0)
+            return 0;
+        long targetCount = Math.max(1, (long) Math
+                .ceil(Math.min(100, Math.max(0, percentile)) / 100 *
+                        totalCount));
+        long accumulatedCount = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+            if ((accumulatedCount += counts[i]) >= targetCount)
+                return Math.min(getMax(), buildBucketUpperBound(i));
+        return getMax();
+    }
+
+    /**
+     * Build percentile map map.
+     *
+     * @param percentiles the percentiles
+     * @return the map
+     */
+    public Map<String, Long> buildPercentileMap(double... percentiles) {
+        Map<String, Long> percentileMap = new LinkedHashMap<>();
+        for (double percentile : percentiles)
+            percentileMap.put("p" + (percentile == (long) percentile ?
+                            String.valueOf((long) percentile) :
+                            String.valueOf(percentile)),
+                    getPercentile(percentile));
+        return percentileMap;
+    }
+
+    static int buildBucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT +
+                (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+    }
+
+    static long buildBucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT)
+            return index;
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        long lowerBound = (SUB_BUCKET_COUNT + subBucket) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{" + "count=" + getCount() + ", mean=" +
+                getMean() + ", max=" + getMax() + ", percentiles=" +
+                buildPercentileMap(50, 90, 99, 99.9) + '}';
+    }
+}
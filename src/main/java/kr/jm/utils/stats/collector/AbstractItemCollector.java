@@ -11,6 +11,23 @@ import java.util.Map;
  */
 public abstract class AbstractItemCollector<Item> extends
         JMListMap<String, Item> {
+
+    /**
+     * Instantiates a new Abstract item collector.
+     */
+    protected AbstractItemCollector() {
+        super();
+    }
+
+    /**
+     * Instantiates a new Abstract item collector.
+     *
+     * @param isChunkedList true for the lock-free chunked list mode
+     */
+    protected AbstractItemCollector(boolean isChunkedList) {
+        super(isChunkedList);
+    }
+
     /**
      * Extract collecting map map.
      *
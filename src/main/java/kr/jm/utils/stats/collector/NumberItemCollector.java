@@ -12,6 +12,22 @@ import java.util.Map;
  */
 public class NumberItemCollector extends AbstractItemCollector<Number> {
 
+    /**
+     * Instantiates a new Number item collector.
+     */
+    public NumberItemCollector() {
+        super();
+    }
+
+    /**
+     * Instantiates a new Number item collector.
+     *
+     * @param isChunkedList true for the lock-free chunked list mode
+     */
+    public NumberItemCollector(boolean isChunkedList) {
+        super(isChunkedList);
+    }
+
     /**
      * Extract collecting stats map map.
      *
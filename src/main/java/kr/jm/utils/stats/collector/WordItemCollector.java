@@ -1,19 +1,258 @@
 package kr.jm.utils.stats.collector;
 
+import kr.jm.utils.collections.JMListMap;
+import kr.jm.utils.collections.JMTopKCountMap;
 import kr.jm.utils.datastructure.JMMap;
+import kr.jm.utils.stats.CountMinSketch;
 import kr.jm.utils.stats.generator.WordCountGenerator;
 
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * The type Word item collector.
+ * <p>
+ * By default every word is kept and counted exactly on extraction. The
+ * sketch mode keeps no words: each key counts into a {@link CountMinSketch}
+ * and a {@link JMTopKCountMap} of {@link #CANDIDATE_FACTOR} times top k
+ * candidate words, so its memory is fixed however many distinct words
+ * arrive, and only the top k words are extracted with their estimated
+ * counts. The map view of the sketch mode follows the sketches: its keys
+ * are the keys of the sketches, removing or clearing a key drops its
+ * sketch, and as no word list is kept, every value is an empty immutable
+ * list.
  */
 public class WordItemCollector extends AbstractItemCollector<String> {
 
+    /**
+     * The constant CANDIDATE_FACTOR, the number of candidate words tracked
+     * per extracted word.
+     */
+    public static final int CANDIDATE_FACTOR = 8;
+
+    private final Map<String, WordSketch> wordSketchMap;
+    private final double epsilon;
+    private final double delta;
+    private final int topK;
+
+    /**
+     * Instantiates a new Word item collector counting exactly.
+     */
+    public WordItemCollector() {
+        this(false);
+    }
+
+    /**
+     * Instantiates a new Word item collector counting exactly.
+     *
+     * @param isChunkedList true for the lock-free chunked list mode
+     */
+    public WordItemCollector(boolean isChunkedList) {
+        super(isChunkedList);
+        this.wordSketchMap = null;
+        this.epsilon = 0;
+        this.delta = 0;
+        this.topK = 0;
+    }
+
+    /**
+     * Instantiates a new Word item collector in the sketch mode.
+     *
+     * @param epsilon the relative error of a count over the total count
+     * @param delta   the probability of a count exceeding that error
+     * @param topK    the number of words extracted per key
+     */
+    public WordItemCollector(double epsilon, double delta, int topK) {
+        // fails fast on a wrong error bound
+        CountMinSketch.of(epsilon, delta);
+        if (topK < 1)
+            throw new IllegalArgumentException(
+                    "Wrong Top K !!! - topK = " + topK);
+        this.wordSketchMap = new ConcurrentHashMap<>();
+        this.epsilon = epsilon;
+        this.delta = delta;
+        this.topK = topK;
+    }
+
+    /**
+     * Is sketch mode boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isSketchMode() {
+        return wordSketchMap != null;
+    }
+
+    private WordSketch getOrPutGetNewWordSketch(String key) {
+        WordSketch wordSketch = wordSketchMap.get(key);
+        return wordSketch != null ? wordSketch : wordSketchMap
+                .computeIfAbsent(key, k -> new WordSketch(
+                        CountMinSketch.of(epsilon, delta),
+                        new JMTopKCountMap<>(topK * CANDIDATE_FACTOR)));
+    }
+
+    /**
+     * Gets count min sketch.
+     *
+     * @param key the key
+     * @return the count min sketch of the key, null if not in the sketch
+     * mode or nothing was added for the key
+     */
+    public CountMinSketch getCountMinSketch(String key) {
+        WordSketch wordSketch =
+                wordSketchMap == null ? null : wordSketchMap.get(key);
+        return wordSketch == null ? null : wordSketch.countMinSketch;
+    }
+
+    @Override
+    public boolean add(String key, String word) {
+        if (wordSketchMap == null)
+            return super.add(key, word);
+        getOrPutGetNewWordSketch(key).add(word);
+        return true;
+    }
+
+    @Override
+    public boolean addAll(String key, List<String> wordList) {
+        if (wordSketchMap == null)
+            return super.addAll(key, wordList);
+        WordSketch wordSketch = getOrPutGetNewWordSketch(key);
+        wordList.forEach(wordSketch::add);
+        return !wordList.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return wordSketchMap == null ? super.size() : wordSketchMap.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return wordSketchMap == null ? super.isEmpty() :
+                wordSketchMap.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return wordSketchMap == null ? super.containsKey(key) :
+                wordSketchMap.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return wordSketchMap == null ? super.containsValue(value) :
+                Collections.emptyList().equals(value) &&
+                        !wordSketchMap.isEmpty();
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        if (wordSketchMap == null)
+            return super.get(key);
+        return key != null && wordSketchMap.containsKey(key) ?
+                Collections.emptyList() : null;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return wordSketchMap == null ? super.keySet() :
+                wordSketchMap.keySet();
+    }
+
+    @Override
+    public Collection<List<String>> values() {
+        return wordSketchMap == null ? super.values() :
+                Collections.nCopies(wordSketchMap.size(),
+                        Collections.emptyList());
+    }
+
+    // a snapshot of the sketched keys with their empty word lists
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        if (wordSketchMap == null)
+            return super.entrySet();
+        Set<Entry<String, List<String>>> entrySet = new LinkedHashSet<>();
+        wordSketchMap.keySet().forEach(key -> entrySet.add(
+                new AbstractMap.SimpleImmutableEntry<>(key,
+                        Collections.emptyList())));
+        return Collections.unmodifiableSet(entrySet);
+    }
+
+    @Override
+    public List<String> remove(Object key) {
+        if (wordSketchMap != null)
+            wordSketchMap.remove(key);
+        return super.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        if (wordSketchMap != null)
+            wordSketchMap.clear();
+        super.clear();
+    }
+
+    @Override
+    public JMListMap<String, String> merge(
+            JMListMap<String, String> jmListMap) {
+        boolean isOtherSketchMode = jmListMap instanceof WordItemCollector &&
+                ((WordItemCollector) jmListMap).isSketchMode();
+        if (wordSketchMap == null) {
+            if (isOtherSketchMode)
+                throw new IllegalArgumentException(
+                        "Can't Merge Sketch Into Exact Counts !!!");
+            return super.merge(jmListMap);
+        }
+        jmListMap.forEach(this::addAll);
+        if (isOtherSketchMode)
+            ((WordItemCollector) jmListMap).wordSketchMap.forEach(
+                    (key, wordSketch) -> getOrPutGetNewWordSketch(key)
+                            .merge(wordSketch));
+        return this;
+    }
+
     @Override
     public Map<String, Map<String, Long>> extractCollectingMap() {
-        return JMMap
-                .newChangedValueMap(this, WordCountGenerator::buildCountMap);
+        return wordSketchMap == null ? JMMap.newChangedValueMap(this,
+                WordCountGenerator::buildCountMap) :
+                JMMap.newChangedValueMap(wordSketchMap,
+                        wordSketch -> wordSketch.buildTopKCountMap(topK));
+    }
+
+    private static class WordSketch {
+        private final CountMinSketch countMinSketch;
+        private final JMTopKCountMap<String> candidateCountMap;
+
+        private WordSketch(CountMinSketch countMinSketch,
+                JMTopKCountMap<String> candidateCountMap) {
+            this.countMinSketch = countMinSketch;
+            this.candidateCountMap = candidateCountMap;
+        }
+
+        private void add(String word) {
+            countMinSketch.add(word);
+            candidateCountMap.offer(word);
+        }
+
+        private void merge(WordSketch wordSketch) {
+            countMinSketch.merge(wordSketch.countMinSketch);
+            candidateCountMap.merge(wordSketch.candidateCountMap);
+        }
+
+        // both counts are upper bounds, so the smaller one is kept
+        private Map<String, Long> buildTopKCountMap(int topK) {
+            return candidateCountMap.getTopK(candidateCountMap.getCapacity())
+                    .stream().collect(Collectors.toMap(
+                            JMTopKCountMap.TopKEntry::getValue,
+                            entry -> Math.min(entry.getCount(), countMinSketch
+                                    .estimateCount(entry.getValue()))))
+                    .entrySet().stream().sorted(Map.Entry
+                            .<String, Long>comparingByValue().reversed())
+                    .limit(topK).collect(Collectors.toMap(Map.Entry::getKey,
+                            Map.Entry::getValue, (a, b) -> a,
+                            LinkedHashMap::new));
+        }
     }
 
 }
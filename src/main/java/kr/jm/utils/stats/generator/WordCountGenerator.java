@@ -1,6 +1,7 @@
 package kr.jm.utils.stats.generator;
 
 import kr.jm.utils.helper.JMFiles;
+import kr.jm.utils.stats.CountMinSketch;
 
 import java.nio.file.Path;
 import java.util.List;
@@ -60,6 +61,22 @@ public class WordCountGenerator {
         return countBy(wordStream);
     }
 
+    /**
+     * Build count min sketch count min sketch.
+     *
+     * @param epsilon    the epsilon
+     * @param delta      the delta
+     * @param wordStream the word stream
+     * @return the count min sketch using a fixed memory for any number of
+     * distinct words
+     */
+    public static CountMinSketch buildCountMinSketch(double epsilon,
+            double delta, Stream<String> wordStream) {
+        CountMinSketch countMinSketch = CountMinSketch.of(epsilon, delta);
+        wordStream.forEach(countMinSketch::add);
+        return countMinSketch;
+    }
+
     /**
      * Build count map map.
      *
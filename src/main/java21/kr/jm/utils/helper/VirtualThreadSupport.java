@@ -0,0 +1,33 @@
+package kr.jm.utils.helper;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The type Virtual thread support.
+ * <p>
+ * Java 21 version: every task runs on its own virtual thread.
+ */
+class VirtualThreadSupport {
+
+    /**
+     * Is supported boolean.
+     *
+     * @return the boolean
+     */
+    static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * New thread per task executor executor service.
+     *
+     * @param namePrefix the name prefix
+     * @return the executor service
+     */
+    static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        return Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name(namePrefix, 0).factory());
+    }
+
+}
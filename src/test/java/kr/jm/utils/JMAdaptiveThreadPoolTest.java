@@ -0,0 +1,31 @@
+package kr.jm.utils;
+
+import kr.jm.utils.helper.JMThread;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JMAdaptiveThreadPoolTest {
+
+    @Test
+    public void testResize() throws Exception {
+        JMAdaptiveThreadPool threadPool =
+                new JMAdaptiveThreadPool(1, 4, 0, 1000, 10, 100, 2);
+        for (int i = 0; i < 200; i++)
+            threadPool.execute(() -> JMThread.sleep(10));
+        JMThread.sleep(1000);
+        System.out.println(threadPool.getResizeDecisionList());
+        assertTrue(threadPool.getCorePoolSize() > 1);
+        JMThread.sleep(1500);
+        System.out.println(threadPool.getResizeDecisionList());
+        assertEquals(1, threadPool.getCorePoolSize());
+        assertTrue(threadPool.getResizeDecisionList().stream()
+                .anyMatch(decision -> decision.getToSize() <
+                        decision.getFromSize()));
+        threadPool.shutdown();
+        assertTrue(threadPool.awaitTermination(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,110 @@
+package kr.jm.utils;
+
+import kr.jm.utils.helper.JMThread;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class JMAsyncPollerTest {
+
+    @Test
+    public void testSignal() throws Exception {
+        JMAsyncPoller asyncPoller = new JMAsyncPoller(
+                JMThread.getTimingWheelScheduler(), 1000, 1000);
+        AtomicReference<String> reference = new AtomicReference<>();
+        AtomicInteger otherPollCount = new AtomicInteger();
+        CompletableFuture<String> future = asyncPoller
+                .pollWhenNull(Long.MAX_VALUE, reference::get, "reference");
+        CompletableFuture<Object> otherFuture =
+                asyncPoller.pollWhenNull(Long.MAX_VALUE, () -> {
+                    otherPollCount.incrementAndGet();
+                    return null;
+                }, "other");
+        assertEquals(2, asyncPoller.getWaiterCount());
+        JMThread.sleep(50);
+        long startMillis = System.currentTimeMillis();
+        reference.set("done");
+        asyncPoller.signal("reference");
+        assertEquals("done", future.get(1, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - startMillis < 300);
+        // the waiter of another key is not polled
+        assertEquals(1, otherPollCount.get());
+        assertEquals(1, asyncPoller.getWaiterCount());
+        asyncPoller.signal("other");
+        JMThread.sleep(100);
+        assertEquals(2, otherPollCount.get());
+        assertTrue(otherFuture.cancel(false));
+        assertEquals(0, asyncPoller.getWaiterCount());
+    }
+
+    @Test
+    public void testSignalResetsBackoff() {
+        JMAsyncPoller asyncPoller = new JMAsyncPoller();
+        AtomicInteger pollCount = new AtomicInteger();
+        CompletableFuture<Object> future =
+                asyncPoller.pollWhenNull(Long.MAX_VALUE, () -> {
+                    pollCount.incrementAndGet();
+                    return null;
+                }, "backoff");
+        // backed off to about 1 s between polls
+        JMThread.sleep(1500);
+        int count = pollCount.get();
+        asyncPoller.signal("backoff");
+        JMThread.sleep(100);
+        System.out.println(count + " " + pollCount.get());
+        // polled right away, then again at the initial interval
+        assertTrue(pollCount.get() - count >= 3);
+        assertTrue(future.cancel(false));
+    }
+
+    @Test
+    public void testBackoffAndDeadline() throws Exception {
+        AtomicInteger pollCount = new AtomicInteger();
+        CompletableFuture<Object> future =
+                JMThread.suspendWhenNullAsync(500, () -> {
+                    pollCount.incrementAndGet();
+                    return null;
+                });
+        try {
+            future.get(2, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        System.out.println(pollCount.get());
+        // 10, 20, 40, ... ms with jitter instead of a fixed interval
+        assertTrue(pollCount.get() > 3 && pollCount.get() < 20);
+        // a large finite timeout must not overflow into a timeout
+        AtomicInteger largeTimeoutCounter = new AtomicInteger();
+        assertEquals(Integer.valueOf(2), JMThread.suspendWhenNullAsync(
+                Long.MAX_VALUE - 1, () -> largeTimeoutCounter
+                        .incrementAndGet() < 2 ? null :
+                        largeTimeoutCounter.get()).get(2, TimeUnit.SECONDS));
+        AtomicInteger counter = new AtomicInteger();
+        assertEquals(Integer.valueOf(3), JMThread.suspendWhenNullAsync(
+                () -> counter.incrementAndGet() < 3 ? null : counter.get())
+                .get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancel() {
+        AtomicInteger pollCount = new AtomicInteger();
+        CompletableFuture<Object> future =
+                JMThread.getAsyncPoller().pollWhenNull(() -> {
+                    pollCount.incrementAndGet();
+                    return null;
+                });
+        JMThread.sleep(100);
+        assertTrue(future.cancel(false));
+        int count = pollCount.get();
+        JMThread.sleep(300);
+        assertEquals(count, pollCount.get());
+    }
+}
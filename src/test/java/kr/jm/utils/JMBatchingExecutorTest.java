@@ -0,0 +1,93 @@
+package kr.jm.utils;
+
+import kr.jm.utils.helper.JMThread;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JMBatchingExecutorTest {
+
+    @Test
+    public void testFlushBySizeAndLinger() {
+        List<List<Integer>> batchList =
+                Collections.synchronizedList(new ArrayList<>());
+        JMBatchingExecutor<Integer> batchingExecutor =
+                new JMBatchingExecutor<>(10, 50, 100, batchList::add);
+        IntStream.range(0, 95).forEach(batchingExecutor::submit);
+        JMThread.sleep(300);
+        Map<JMBatchingExecutor.FlushReason, Long> flushReasonCountMap =
+                batchingExecutor.getFlushReasonCountMap();
+        System.out.println(flushReasonCountMap);
+        System.out.println(batchingExecutor.getBatchSizeHistogram());
+        assertTrue(flushReasonCountMap
+                .get(JMBatchingExecutor.FlushReason.LINGER) >= 1);
+        assertTrue(batchList.stream().allMatch(batch -> batch.size() <= 10));
+        assertEquals(IntStream.range(0, 95).boxed()
+                        .collect(Collectors.toList()),
+                batchList.stream().flatMap(List::stream)
+                        .collect(Collectors.toList()));
+        assertEquals(95, batchingExecutor.getSubmittedCount());
+        assertEquals(95,
+                batchingExecutor.getBatchSizeHistogram().getSum());
+        batchingExecutor.close();
+        assertTrue(batchingExecutor.isClosed());
+    }
+
+    @Test
+    public void testBackpressureAndClose() {
+        List<Integer> resultList =
+                Collections.synchronizedList(new ArrayList<>());
+        JMBatchingExecutor<Integer> batchingExecutor =
+                new JMBatchingExecutor<>(5, 1000, 5, batch -> {
+                    JMThread.sleep(100);
+                    resultList.addAll(batch);
+                });
+        long startMillis = System.currentTimeMillis();
+        IntStream.range(0, 20).forEach(batchingExecutor::submit);
+        assertTrue(System.currentTimeMillis() - startMillis >= 100);
+        assertTrue(batchingExecutor.getBufferSize() <= 5);
+        batchingExecutor.trySubmit(20, 1000);
+        batchingExecutor.close();
+        assertEquals(21, resultList.size());
+        assertEquals(IntStream.range(0, 21).boxed()
+                .collect(Collectors.toList()), resultList);
+    }
+
+    @Test
+    public void testSubmitRacingClose() {
+        for (int round = 0; round < 20; round++) {
+            LongAdder flushedCount = new LongAdder();
+            JMBatchingExecutor<Integer> batchingExecutor =
+                    new JMBatchingExecutor<>(8, 1, 16,
+                            batch -> flushedCount.add(batch.size()));
+            LongAdder acceptedCount = new LongAdder();
+            CompletableFuture<?>[] submitters = IntStream.range(0, 4)
+                    .mapToObj(t -> CompletableFuture.runAsync(() -> {
+                        try {
+                            for (int i = 0; ; i++) {
+                                batchingExecutor.submit(i);
+                                acceptedCount.increment();
+                            }
+                        } catch (RejectedExecutionException e) {
+                        }
+                    })).toArray(CompletableFuture[]::new);
+            JMThread.sleep(5);
+            batchingExecutor.close();
+            CompletableFuture.allOf(submitters).join();
+            assertEquals(acceptedCount.sum(),
+                    batchingExecutor.getSubmittedCount());
+            assertEquals(acceptedCount.sum(), flushedCount.sum());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package kr.jm.utils;
+
+import kr.jm.utils.helper.JMThread;
+import kr.jm.utils.stats.LatencyHistogram;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class JMHedgedExecutorTest {
+
+    private static final int CLIENTS = 10;
+    private static final int CALLS_PER_CLIENT = 30;
+
+    // every 25th attempt is a 200 ms straggler
+    private static Supplier<Integer> buildStragglingService(
+            AtomicInteger attemptCounter) {
+        return () -> {
+            int attempt = attemptCounter.incrementAndGet();
+            JMThread.sleep(attempt % 25 == 0 ? 200 : 5);
+            return attempt;
+        };
+    }
+
+    private static LatencyHistogram runBenchmark(
+            Function<Supplier<Integer>, CompletableFuture<Integer>> caller) {
+        LatencyHistogram latencyMillisHistogram = LatencyHistogram.of();
+        AtomicInteger attemptCounter = new AtomicInteger();
+        Supplier<Integer> service = buildStragglingService(attemptCounter);
+        ExecutorService clientPool = JMThread.newThreadPool(CLIENTS);
+        List<CompletableFuture<Void>> clientList = IntStream.range(0, CLIENTS)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                    for (int j = 0; j < CALLS_PER_CLIENT; j++) {
+                        long startMillis = System.currentTimeMillis();
+                        caller.apply(service).join();
+                        latencyMillisHistogram.record(
+                                System.currentTimeMillis() - startMillis);
+                    }
+                }, clientPool)).collect(Collectors.toList());
+        clientList.forEach(CompletableFuture::join);
+        clientPool.shutdown();
+        return latencyMillisHistogram;
+    }
+
+    @Test
+    public void testHedgedTailLatencyBenchmark() {
+        ExecutorService threadPool = JMThread.newThreadPool(32);
+        LatencyHistogram plainHistogram = runBenchmark(
+                service -> JMThread.supplyAsync(service, threadPool));
+        JMHedgedExecutor hedgedExecutor =
+                JMHedgedExecutor.ofPercentile(threadPool, 20);
+        LatencyHistogram hedgedHistogram =
+                runBenchmark(hedgedExecutor::supplyAsync);
+        System.out.println("plain  " + plainHistogram);
+        System.out.println("hedged " + hedgedHistogram);
+        System.out.println(hedgedExecutor);
+        assertTrue(hedgedExecutor.getHedgeWinCount() > 0);
+        assertTrue(hedgedHistogram.getPercentile(99) * 2 <
+                plainHistogram.getPercentile(99));
+        threadPool.shutdownNow();
+    }
+
+    @Test
+    public void testHedgeAfterFailure() throws Exception {
+        ExecutorService threadPool = JMThread.newThreadPool(2);
+        AtomicInteger attemptCounter = new AtomicInteger();
+        assertEquals(Integer.valueOf(2), JMThread.supplyAsyncWithHedge(() -> {
+            if (attemptCounter.incrementAndGet() == 1)
+                throw new IllegalStateException("first attempt");
+            return attemptCounter.get();
+        }, 1000, threadPool).get(500, TimeUnit.MILLISECONDS));
+        CompletableFuture<Object> failedFuture =
+                JMThread.supplyAsyncWithHedge(() -> {
+                    throw new IllegalStateException("always");
+                }, 1000, threadPool);
+        try {
+            failedFuture.get(500, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        threadPool.shutdownNow();
+    }
+
+    @Test
+    public void testDeadline() throws Exception {
+        ExecutorService threadPool = JMThread.newSingleThreadPool();
+        threadPool.execute(() -> JMThread.sleep(200));
+        AtomicBoolean isRun = new AtomicBoolean();
+        CompletableFuture<Boolean> expiredFuture = JMThread
+                .supplyAsyncWithDeadline(() -> isRun.getAndSet(true), 50,
+                        threadPool);
+        try {
+            expiredFuture.get(1, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        JMThread.sleep(250);
+        assertFalse(isRun.get());
+        assertFalse(JMThread.getDeadlineRemainingMillis().isPresent());
+        ExecutorService nestedPool = JMThread.newThreadPool(2);
+        long remainingMillis = JMThread.supplyAsyncWithDeadline(
+                () -> JMThread.supplyAsyncWithDeadline(
+                        () -> JMThread.getDeadlineRemainingMillis()
+                                .getAsLong(), 10000, nestedPool).join(), 500,
+                threadPool).get(1, TimeUnit.SECONDS);
+        // the nested call inherits the earlier deadline of its caller
+        assertTrue(remainingMillis <= 500);
+        threadPool.shutdownNow();
+        nestedPool.shutdownNow();
+    }
+}
@@ -0,0 +1,60 @@
+package kr.jm.utils;
+
+import kr.jm.utils.helper.JMThread;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JMKeyedExecutorTest {
+
+    @Test
+    public void testPerKeyOrder() {
+        JMKeyedExecutor<String> keyedExecutor = new JMKeyedExecutor<>(8, 4);
+        Map<String, List<Integer>> resultMap = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> futureList = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String key = "key" + (i % 10);
+            int sequence = i;
+            futureList.add(keyedExecutor.runAsync(key,
+                    () -> resultMap.computeIfAbsent(key,
+                            k -> Collections.synchronizedList(
+                                    new ArrayList<>())).add(sequence)));
+        }
+        CompletableFuture.allOf(futureList.toArray(new CompletableFuture[0]))
+                .join();
+        assertEquals(10, resultMap.size());
+        resultMap.forEach((key, sequenceList) -> {
+            assertEquals(100, sequenceList.size());
+            assertEquals(sequenceList.stream().sorted()
+                    .collect(Collectors.toList()), sequenceList);
+        });
+        assertEquals(Integer.valueOf(3),
+                keyedExecutor.supplyAsync("key", () -> 3).join());
+        keyedExecutor.close();
+    }
+
+    @Test
+    public void testBoundedLane() {
+        JMKeyedExecutor<Integer> keyedExecutor = new JMKeyedExecutor<>(2, 2,
+                0, JMThread.newThreadPool(2));
+        int laneIndex = keyedExecutor.getLaneIndex(1);
+        long startMillis = System.currentTimeMillis();
+        IntStream.range(0, 5).forEach(
+                i -> keyedExecutor.execute(1, () -> JMThread.sleep(100)));
+        System.out.println(keyedExecutor.getLaneQueueSizeList());
+        assertTrue(keyedExecutor.getLaneQueueSize(laneIndex) <= 2);
+        assertTrue(System.currentTimeMillis() - startMillis >= 150);
+        keyedExecutor.close();
+        assertEquals(0, keyedExecutor.getLaneQueueSize(laneIndex));
+    }
+}
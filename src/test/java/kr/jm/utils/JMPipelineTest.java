@@ -0,0 +1,96 @@
+package kr.jm.utils;
+
+import kr.jm.utils.helper.JMThread;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class JMPipelineTest {
+
+    @Test
+    public void testOrderedPipeline() {
+        String input = IntStream.range(0, 1000).mapToObj(String::valueOf)
+                .collect(Collectors.joining("\n"));
+        List<Integer> resultList = new ArrayList<>();
+        JMPipeline<Integer>.Execution execution = JMPipeline
+                .fromInputStream(new ByteArrayInputStream(
+                        input.getBytes(StandardCharsets.UTF_8)))
+                .withQueueSize(16).map("parse", 4, Integer::valueOf)
+                .map("dropOdd", 3, i -> {
+                    if (i % 100 == 0)
+                        JMThread.sleep(5);
+                    return i % 2 == 0 ? i : null;
+                }).ordered().start("collect", resultList::add);
+        assertTrue(execution.awaitCompletion(5000));
+        assertEquals(IntStream.range(0, 1000).filter(i -> i % 2 == 0)
+                .boxed().collect(Collectors.toList()), resultList);
+        List<JMPipeline.StageStats> stageStatsList =
+                execution.getStageStatsList();
+        System.out.println(stageStatsList);
+        assertEquals(4, stageStatsList.size());
+        assertEquals(1000, stageStatsList.get(0).getProcessedCount());
+        assertEquals(500, stageStatsList.get(3).getProcessedCount());
+        assertTrue(stageStatsList.stream().allMatch(
+                stageStats -> stageStats.getOutputQueueHighWaterMark() <=
+                        16));
+    }
+
+    @Test
+    public void testUnorderedBackpressure() throws Exception {
+        Path path = Files.createTempFile("JMPipelineTest", ".txt");
+        Files.write(path, IntStream.range(0, 200).mapToObj(String::valueOf)
+                .collect(Collectors.toList()));
+        List<String> resultList =
+                Collections.synchronizedList(new ArrayList<>());
+        JMPipeline<String>.Execution execution =
+                JMPipeline.fromFileLines(path).withQueueSize(4)
+                        .map("fail", 2, line -> {
+                            if (line.equals("7"))
+                                throw new IllegalStateException(line);
+                            return line;
+                        }).start("slowSink", line -> {
+                    JMThread.sleep(1);
+                    resultList.add(line);
+                });
+        JMThread.sleep(50);
+        // the slow sink holds the source back through the bounded queues
+        assertTrue(execution.getStageStatsList().get(0).getProcessedCount() <
+                200);
+        assertTrue(execution.awaitCompletion(5000));
+        assertEquals(199, resultList.size());
+        assertFalse(resultList.contains("7"));
+        assertEquals(1, execution.getStageStatsList().get(1).getFailedCount());
+        execution.close();
+        Files.delete(path);
+    }
+
+    @Test
+    public void testOrderedReorderWindow() {
+        List<Integer> resultList = new ArrayList<>();
+        JMPipeline<Integer>.Execution execution = JMPipeline
+                .fromSource("range", () -> IntStream.range(0, 200).boxed())
+                .withQueueSize(4).map("stallFirst", 3, i -> {
+                    if (i == 0)
+                        JMThread.sleep(300);
+                    return i;
+                }).ordered().start("collect", resultList::add);
+        JMThread.sleep(150);
+        // the stalled first item holds the source at the window of 4 * 3
+        assertTrue(execution.getStageStatsList().get(0).getProcessedCount() <=
+                12);
+        assertTrue(resultList.isEmpty());
+        assertTrue(execution.awaitCompletion(5000));
+        assertEquals(IntStream.range(0, 200).boxed()
+                .collect(Collectors.toList()), resultList);
+    }
+}
@@ -0,0 +1,79 @@
+package kr.jm.utils;
+
+import kr.jm.utils.JMPriorityExecutor.Priority;
+import kr.jm.utils.helper.JMThread;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JMPriorityExecutorTest {
+
+    @Test
+    public void testPriority() throws Exception {
+        JMPriorityExecutor priorityExecutor =
+                JMThread.newPriorityThreadPool(1, 100);
+        IntStream.range(0, 40).forEach(i -> priorityExecutor
+                .execute(() -> JMThread.sleep(5), Priority.LOW));
+        CompletableFuture<?>[] highFutures = IntStream.range(0, 5)
+                .mapToObj(i -> JMThread.runAsync(() -> JMThread.sleep(5),
+                        priorityExecutor.asExecutor(Priority.HIGH)))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(highFutures).get(1, TimeUnit.SECONDS);
+        assertTrue(priorityExecutor.getQueueSize(Priority.LOW) > 20);
+        priorityExecutor.shutdown();
+        assertTrue(priorityExecutor.awaitTermination(2, TimeUnit.SECONDS));
+        Map<Priority, Long> p90Map =
+                priorityExecutor.buildQueueWaitMillisPercentileMap(90);
+        System.out.println(p90Map);
+        assertTrue(p90Map.get(Priority.HIGH) < p90Map.get(Priority.LOW));
+        assertEquals(40, priorityExecutor.getSubmittedCount(Priority.LOW));
+        assertEquals(0, priorityExecutor.getQueueSize(Priority.LOW));
+    }
+
+    @Test
+    public void testShutdownNow() throws Exception {
+        JMPriorityExecutor priorityExecutor =
+                JMThread.newPriorityThreadPool(1, 100);
+        CountDownLatch startedLatch = new CountDownLatch(1);
+        priorityExecutor.execute(() -> {
+            startedLatch.countDown();
+            JMThread.sleep(10000);
+        });
+        assertTrue(startedLatch.await(1, TimeUnit.SECONDS));
+        IntStream.range(0, 10).forEach(i -> priorityExecutor
+                .execute(() -> {}, Priority.values()[i % 3]));
+        assertEquals(10, priorityExecutor.shutdownNow().size());
+        assertTrue(priorityExecutor.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAging() throws Exception {
+        Map<Priority, Integer> maxQueueMap = new EnumMap<>(Priority.class);
+        maxQueueMap.put(Priority.HIGH, 10);
+        JMPriorityExecutor priorityExecutor =
+                new JMPriorityExecutor(1, 0, maxQueueMap, 50);
+        AtomicBoolean isLowDone = new AtomicBoolean();
+        priorityExecutor.execute(() -> JMThread.sleep(5), Priority.HIGH);
+        priorityExecutor.execute(() -> isLowDone.set(true), Priority.LOW);
+        long startMillis = System.currentTimeMillis();
+        // a saturating stream of high priority work
+        while (!isLowDone.get() &&
+                System.currentTimeMillis() - startMillis < 2000)
+            priorityExecutor.execute(() -> JMThread.sleep(5), Priority.HIGH);
+        System.out.println(System.currentTimeMillis() - startMillis);
+        assertTrue(isLowDone.get());
+        assertEquals(1, priorityExecutor.getAgedCount(Priority.LOW));
+        assertTrue(priorityExecutor.getQueueSize(Priority.HIGH) <= 10);
+        priorityExecutor.shutdownNow();
+        assertTrue(priorityExecutor.awaitTermination(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,129 @@
+package kr.jm.utils;
+
+import kr.jm.utils.helper.JMThread;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class JMRateLimiterTest {
+
+    @Test
+    public void testTokenBucket() {
+        JMRateLimiter rateLimiter = JMRateLimiter.ofTokenBucket(100, 10);
+        assertEquals(10, IntStream.range(0, 20)
+                .filter(i -> rateLimiter.tryAcquire()).count());
+        long startMillis = System.currentTimeMillis();
+        for (int i = 0; i < 20; i++)
+            rateLimiter.acquire();
+        long elapsedMillis = System.currentTimeMillis() - startMillis;
+        System.out.println(elapsedMillis);
+        assertTrue(elapsedMillis >= 180 && elapsedMillis < 400);
+        assertFalse(rateLimiter.tryAcquire());
+        assertTrue(rateLimiter.tryAcquire(1, 50));
+    }
+
+    @Test
+    public void testLeakyBucketAndWarmup() {
+        JMRateLimiter leakyBucket = JMThread.newRateLimiter(50);
+        assertTrue(leakyBucket.tryAcquire());
+        assertFalse(leakyBucket.tryAcquire());
+        JMRateLimiter warmingUp = JMThread.newRateLimiter(100, 10, 500);
+        long startMillis = System.currentTimeMillis();
+        for (int i = 0; i < 10; i++)
+            warmingUp.acquire();
+        long coldMillis = System.currentTimeMillis() - startMillis;
+        System.out.println(coldMillis);
+        // a cold limiter ignores the burst and runs below the stable rate
+        assertTrue(coldMillis >= 200);
+    }
+
+    @Test
+    public void testRateLimitedExecutorService() throws Exception {
+        ExecutorService threadPool = JMThread.newThreadPool(2);
+        JMRateLimitedExecutorService rateLimitedExecutorService =
+                JMThread.rateLimit(threadPool, 100);
+        ConcurrentLinkedQueue<Long> startNanosQueue =
+                new ConcurrentLinkedQueue<>();
+        long startMillis = System.currentTimeMillis();
+        List<Future<?>> futureList = IntStream.range(0, 30)
+                .mapToObj(i -> rateLimitedExecutorService
+                        .submit(() -> startNanosQueue.add(System.nanoTime())))
+                .collect(Collectors.toList());
+        assertTrue(System.currentTimeMillis() - startMillis < 100);
+        for (Future<?> future : futureList)
+            future.get(2, TimeUnit.SECONDS);
+        long elapsedMillis = System.currentTimeMillis() - startMillis;
+        System.out.println(elapsedMillis);
+        assertTrue(elapsedMillis >= 280);
+        assertEquals(30, startNanosQueue.size());
+        JMRateLimitedExecutorService boundedExecutorService =
+                new JMRateLimitedExecutorService(threadPool,
+                        JMRateLimiter.ofLeakyBucket(10), 150,
+                        JMThread.getTimingWheelScheduler());
+        try {
+            for (int i = 0; i < 5; i++)
+                boundedExecutorService.execute(() -> {});
+            fail();
+        } catch (RejectedExecutionException e) {
+            assertTrue(boundedExecutorService.getDelayedCount() <= 2);
+        }
+        rateLimitedExecutorService.shutdown();
+        assertTrue(rateLimitedExecutorService
+                .awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRateLimitedShutdownNow() throws Exception {
+        LongAdder runCount = new LongAdder();
+        JMRateLimitedExecutorService rateLimitedExecutorService =
+                JMThread.rateLimit(JMThread.newThreadPool(2), 10);
+        for (int i = 0; i < 10; i++)
+            rateLimitedExecutorService.execute(runCount::increment);
+        assertTrue(rateLimitedExecutorService.getDelayedCount() >= 8);
+        List<Runnable> remainingList =
+                rateLimitedExecutorService.shutdownNow();
+        // the delayed tasks are cancelled and returned, not run later
+        assertTrue(remainingList.size() >= 8);
+        assertEquals(0, rateLimitedExecutorService.getDelayedCount());
+        assertTrue(rateLimitedExecutorService
+                .awaitTermination(1, TimeUnit.SECONDS));
+        JMThread.sleep(1100);
+        assertEquals(10, runCount.intValue() + remainingList.size());
+    }
+
+    @Test
+    public void testRateLimitedExecuteRacingShutdown() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            LongAdder runCount = new LongAdder();
+            LongAdder rejectedCount = new LongAdder();
+            JMRateLimitedExecutorService rateLimitedExecutorService =
+                    JMThread.rateLimit(JMThread.newThreadPool(2), 1000);
+            Thread submitter = new Thread(() -> {
+                for (int i = 0; i < 50; i++)
+                    try {
+                        rateLimitedExecutorService
+                                .execute(runCount::increment);
+                    } catch (RejectedExecutionException e) {
+                        rejectedCount.increment();
+                    }
+            });
+            submitter.start();
+            rateLimitedExecutorService.shutdown();
+            submitter.join();
+            assertTrue(rateLimitedExecutorService
+                    .awaitTermination(1, TimeUnit.SECONDS));
+            // every task either ran or was rejected to its submitter
+            assertEquals(50, runCount.intValue() + rejectedCount.intValue());
+        }
+    }
+}
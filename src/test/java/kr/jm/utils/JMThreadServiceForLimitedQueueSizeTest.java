@@ -0,0 +1,98 @@
+package kr.jm.utils;
+
+import kr.jm.utils.helper.JMThread;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class JMThreadServiceForLimitedQueueSizeTest {
+
+    @Test
+    public void testAdmissionGate() throws Exception {
+        JMThreadServiceForLimitedQueueSize threadService =
+                new JMThreadServiceForLimitedQueueSize(2, 4, true);
+        assertTrue(threadService.isAdmissionGateMode());
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger maxInFlight = new AtomicInteger();
+        for (int i = 0; i < 4; i++)
+            threadService.submit(() -> {
+                maxInFlight.accumulateAndGet(
+                        threadService.getInFlightCount(), Math::max);
+                latch.await();
+                return true;
+            });
+        assertEquals(4, threadService.getInFlightCount());
+        assertFalse(threadService.trySubmit(() -> {}, 100).isPresent());
+        assertEquals(1, threadService.getRejectedCount());
+        assertTrue(threadService.getBlockedMillis() >= 90);
+        latch.countDown();
+        assertTrue(threadService.trySubmit(() -> {}, 1000).isPresent());
+        for (int i = 0; i < 100; i++)
+            threadService.execute(() -> JMThread.sleep(1));
+        JMThread.sleep(500);
+        System.out.println(threadService.getBlockedCount() + " blocked, " +
+                threadService.getBlockedMillis() + " ms, high water mark = "
+                + threadService.getQueueHighWaterMark());
+        assertEquals(0, threadService.getInFlightCount());
+        assertTrue(maxInFlight.get() <= 4);
+        assertTrue(threadService.getQueueHighWaterMark() <= 4);
+    }
+
+    @Test
+    public void testPolling() throws Exception {
+        JMThreadServiceForLimitedQueueSize threadService =
+                new JMThreadServiceForLimitedQueueSize(1, 10, 1);
+        assertFalse(threadService.isAdmissionGateMode());
+        assertEquals(3, threadService.submit(() -> 3).get().intValue());
+    }
+
+    @Test
+    public void testCancelledAndDroppedTasksRelease() throws Exception {
+        JMThreadServiceForLimitedQueueSize threadService =
+                new JMThreadServiceForLimitedQueueSize(1, 4, false);
+        CountDownLatch latch = new CountDownLatch(1);
+        threadService.submit(() -> {
+            latch.await();
+            return true;
+        });
+        // queued behind the blocked worker, cancelled before running
+        for (int round = 0; round < 3; round++) {
+            Future<?>[] futures = new Future<?>[3];
+            for (int i = 0; i < 3; i++)
+                futures[i] = threadService.submit(() -> {});
+            assertEquals(4, threadService.getInFlightCount());
+            for (Future<?> future : futures)
+                assertTrue(future.cancel(false));
+            assertEquals(1, threadService.getInFlightCount());
+        }
+        assertTrue(threadService.trySubmit(() -> {}, 1000).isPresent());
+        latch.countDown();
+        assertEquals(Boolean.TRUE, threadService.submit(() -> true)
+                .get(1, TimeUnit.SECONDS));
+
+        CountDownLatch startedLatch = new CountDownLatch(1);
+        CountDownLatch shutdownLatch = new CountDownLatch(1);
+        threadService.execute(() -> {
+            startedLatch.countDown();
+            try {
+                shutdownLatch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        // the cancelled tasks are drained before the blocking one runs
+        assertTrue(startedLatch.await(1, TimeUnit.SECONDS));
+        threadService.submit(() -> {});
+        threadService.execute(() -> {});
+        List<Runnable> droppedTaskList = threadService.shutdownNow();
+        assertEquals(2, droppedTaskList.size());
+        JMThread.sleep(100);
+        assertEquals(0, threadService.getInFlightCount());
+    }
+}
@@ -0,0 +1,98 @@
+package kr.jm.utils;
+
+import kr.jm.utils.helper.JMThread;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class JMTimingWheelSchedulerTest {
+
+    private JMTimingWheelScheduler timingWheelScheduler;
+
+    @Before
+    public void setUp() {
+        // 4 buckets x 3 levels, so delays over 16 ticks cascade down
+        this.timingWheelScheduler = new JMTimingWheelScheduler(5, 4, 3,
+                JMThread.newThreadPool(2));
+    }
+
+    @After
+    public void tearDown() {
+        timingWheelScheduler.shutdownNow();
+    }
+
+    @Test
+    public void testSchedule() throws Exception {
+        long startMillis = System.currentTimeMillis();
+        ScheduledFuture<Long> shortFuture = timingWheelScheduler
+                .schedule(System::currentTimeMillis, 20, TimeUnit.MILLISECONDS);
+        ScheduledFuture<Long> longFuture = timingWheelScheduler
+                .schedule(System::currentTimeMillis, 300,
+                        TimeUnit.MILLISECONDS);
+        assertTrue(shortFuture.compareTo(longFuture) < 0);
+        long shortMillis = shortFuture.get(1, TimeUnit.SECONDS) - startMillis;
+        long longMillis = longFuture.get(1, TimeUnit.SECONDS) - startMillis;
+        System.out.println(shortMillis + " " + longMillis);
+        assertTrue(shortMillis >= 20 && shortMillis < 200);
+        assertTrue(longMillis >= 300 && longMillis < 500);
+    }
+
+    @Test
+    public void testCancel() {
+        AtomicInteger count = new AtomicInteger();
+        List<ScheduledFuture<?>> futureList = new ArrayList<>();
+        for (int i = 0; i < 10000; i++)
+            futureList.add(timingWheelScheduler
+                    .schedule(count::incrementAndGet, 50 + i % 100,
+                            TimeUnit.MILLISECONDS));
+        for (int i = 0; i < futureList.size(); i += 2)
+            assertTrue(futureList.get(i).cancel(false));
+        JMThread.sleep(400);
+        assertEquals(5000, count.get());
+        assertTrue(futureList.get(0).isCancelled());
+        assertTrue(futureList.get(1).isDone());
+    }
+
+    @Test
+    public void testPeriodic() {
+        AtomicInteger fixedRateCount = new AtomicInteger();
+        AtomicInteger fixedDelayCount = new AtomicInteger();
+        ScheduledFuture<?> fixedRateFuture = timingWheelScheduler
+                .scheduleAtFixedRate(fixedRateCount::incrementAndGet, 0, 20,
+                        TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> fixedDelayFuture = timingWheelScheduler
+                .scheduleWithFixedDelay(fixedDelayCount::incrementAndGet, 0,
+                        20, TimeUnit.MILLISECONDS);
+        JMThread.sleep(300);
+        fixedRateFuture.cancel(false);
+        fixedDelayFuture.cancel(false);
+        int fixedRate = fixedRateCount.get();
+        System.out.println(fixedRate + " " + fixedDelayCount.get());
+        assertTrue(fixedRate >= 10 && fixedRate <= 17);
+        assertTrue(fixedDelayCount.get() >= 8);
+        JMThread.sleep(100);
+        assertEquals(fixedRate, fixedRateCount.get());
+    }
+
+    @Test
+    public void testRunWithTimingWheel() throws Exception {
+        assertEquals("done", JMThread.runWithTimingWheel(30, () -> "done")
+                .get(1, TimeUnit.SECONDS));
+        timingWheelScheduler.shutdown();
+        assertTrue(timingWheelScheduler.awaitTermination(1, TimeUnit.SECONDS));
+        try {
+            timingWheelScheduler.schedule(() -> {}, 1, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (Exception e) {
+            assertTrue(timingWheelScheduler.isShutdown());
+        }
+    }
+}
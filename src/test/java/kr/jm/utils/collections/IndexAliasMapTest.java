@@ -0,0 +1,140 @@
+package kr.jm.utils.collections;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class IndexAliasMapTest {
+
+    private static List<String> buildAliasList(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "column" + i)
+                .collect(Collectors.toList());
+    }
+
+    private static long lookUp(Map<String, Integer> map,
+            List<String> aliasList, int rounds) {
+        long startNanos = System.nanoTime();
+        long sum = 0;
+        for (int round = 0; round < rounds; round++)
+            for (String alias : aliasList)
+                sum += map.get(alias);
+        assertTrue(sum > 0);
+        return System.nanoTime() - startNanos;
+    }
+
+    @Test
+    public void testIndexAliasMap() {
+        IndexAliasMap<String> indexAliasMap = new IndexAliasMap<>(
+                Arrays.asList("a", "b", "c"), Arrays.asList("1", "2", "3"));
+        assertEquals(3, indexAliasMap.size());
+        assertEquals("2", indexAliasMap.get("b"));
+        assertEquals("3", indexAliasMap.get(2));
+        indexAliasMap.putAlias("first", 0);
+        assertEquals("1", indexAliasMap.get("first"));
+        assertNull(indexAliasMap.addWithAlias("d", "4"));
+        assertEquals(4, indexAliasMap.size());
+    }
+
+    @Test
+    public void testFreeze() {
+        IndexAliasMap<String> indexAliasMap = new IndexAliasMap<>(
+                Arrays.asList("a", "b", "c"), Arrays.asList("1", "2", "3"));
+        indexAliasMap.putAlias("first", 0);
+        FrozenIndexAliasMap<String> frozenMap = indexAliasMap.freeze();
+        assertEquals(3, frozenMap.size());
+        assertEquals("1", frozenMap.get("first"));
+        assertEquals("1", frozenMap.get("a"));
+        assertEquals("3", frozenMap.get("c"));
+        assertEquals("2", frozenMap.get(1));
+        assertNull(frozenMap.get("none"));
+        assertNull(frozenMap.get(null));
+        assertTrue(frozenMap.containsKey("b"));
+        assertFalse(frozenMap.containsKey("none"));
+        assertTrue(frozenMap.containsValue("3"));
+        assertEquals(Arrays.asList("1", "2", "3"),
+                frozenMap.values().stream().collect(Collectors.toList()));
+        assertEquals(4, frozenMap.entrySet().size());
+        assertTrue(frozenMap.getAliasIndex().isPerfect());
+        try {
+            frozenMap.put("d", "4");
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+
+        // records of the same layout share the alias index
+        AliasIndex aliasIndex = frozenMap.getAliasIndex();
+        IndexAliasMap<String> otherMap = new IndexAliasMap<>(
+                Arrays.asList("a", "b", "c"), Arrays.asList("x", "y", "z"));
+        otherMap.putAlias("first", 0);
+        FrozenIndexAliasMap<String> otherFrozenMap =
+                otherMap.freeze(aliasIndex);
+        assertSame(aliasIndex, otherFrozenMap.getAliasIndex());
+        assertEquals("x", otherFrozenMap.get("first"));
+        assertEquals("z",
+                aliasIndex.newMap(Arrays.asList("x", "y", "z")).get("c"));
+        try {
+            otherMap.addWithAlias("d", "4");
+            otherMap.freeze(aliasIndex);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            aliasIndex.newMap(Arrays.asList("x", "y"));
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testAliasIndex() {
+        List<String> aliasList = buildAliasList(64);
+        AliasIndex aliasIndex = AliasIndex.of(aliasList);
+        assertTrue(aliasIndex.isPerfect());
+        for (int i = 0; i < aliasList.size(); i++)
+            assertEquals(i, aliasIndex.indexOf(aliasList.get(i)));
+        assertEquals(-1, aliasIndex.indexOf("column64"));
+        assertEquals(aliasIndex, AliasIndex.of(aliasList));
+
+        // "Aa" and "BB" have the same hash code
+        AliasIndex collidingIndex =
+                AliasIndex.of(Arrays.asList("Aa", "BB", "C"));
+        assertFalse(collidingIndex.isPerfect());
+        assertEquals(0, collidingIndex.indexOf("Aa"));
+        assertEquals(1, collidingIndex.indexOf("BB"));
+        assertEquals(2, collidingIndex.indexOf("C"));
+        assertEquals(-1, collidingIndex.indexOf("D"));
+        try {
+            AliasIndex.of(Arrays.asList("a", "a"));
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testFrozenLookUp() {
+        List<String> aliasList = buildAliasList(32);
+        // equal but distinct alias strings, as parsed from input
+        List<String> lookUpAliasList = aliasList.stream().map(String::new)
+                .collect(Collectors.toList());
+        List<Integer> dataList = IntStream.range(1, 33).boxed()
+                .collect(Collectors.toList());
+        IndexAliasMap<Integer> indexAliasMap =
+                new IndexAliasMap<>(aliasList, dataList);
+        FrozenIndexAliasMap<Integer> frozenMap = indexAliasMap.freeze();
+        for (String alias : lookUpAliasList)
+            assertEquals(indexAliasMap.get(alias), frozenMap.get(alias));
+        lookUp(indexAliasMap, lookUpAliasList, 100000);
+        lookUp(frozenMap, lookUpAliasList, 100000);
+        long mutableNanos = lookUp(indexAliasMap, lookUpAliasList, 300000);
+        long frozenNanos = lookUp(frozenMap, lookUpAliasList, 300000);
+        System.out.println("mutable " + mutableNanos / 1000000 +
+                " ms, frozen " + frozenNanos / 1000000 + " ms");
+    }
+
+}
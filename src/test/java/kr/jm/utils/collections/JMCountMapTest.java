@@ -0,0 +1,62 @@
+package kr.jm.utils.collections;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class JMCountMapTest {
+
+    private static long countConcurrently(int threads, int countPerThread,
+            Consumer<String> counter) {
+        long startNanos = System.nanoTime();
+        CompletableFuture.allOf(IntStream.range(0, threads).mapToObj(
+                t -> CompletableFuture.runAsync(
+                        () -> IntStream.range(0, countPerThread)
+                                .forEach(i -> counter.accept("key" + i % 8))))
+                .toArray(CompletableFuture[]::new)).join();
+        return System.nanoTime() - startNanos;
+    }
+
+    @Test
+    public void testLongAdderMode() {
+        JMCountMap<String> adderCountMap = JMCountMap.ofLongAdder();
+        JMCountMap<String> lockCountMap = new JMCountMap<>();
+        assertTrue(adderCountMap.isLongAdderMode());
+        int threads = Runtime.getRuntime().availableProcessors();
+        long lockNanos = countConcurrently(threads, 200000,
+                lockCountMap::incrementAndGet);
+        long adderNanos = countConcurrently(threads, 200000,
+                adderCountMap::increment);
+        System.out.println("lock " + lockNanos / 1000000 + " ms, longAdder " +
+                adderNanos / 1000000 + " ms");
+        assertEquals(8, adderCountMap.size());
+        assertEquals(threads * 25000L, adderCountMap.getCount("key0"));
+        assertEquals(lockCountMap.getCount("key7"),
+                adderCountMap.getCount("key7"));
+        assertEquals(Long.valueOf(threads * 25000L),
+                adderCountMap.get("key3"));
+        assertEquals(threads * 200000L,
+                adderCountMap.values().stream().mapToLong(Long::longValue)
+                        .sum());
+
+        adderCountMap.merge(lockCountMap);
+        assertEquals(threads * 50000L, adderCountMap.getCount("key1"));
+        assertEquals(threads * 50000L + 1,
+                adderCountMap.incrementAndGet("key1"));
+        assertEquals(Long.valueOf(threads * 50000L + 1),
+                adderCountMap.put("key1", 5L));
+        assertEquals(6, adderCountMap.incrementAndGet("key1"));
+        assertEquals(0, adderCountMap.getCount("none"));
+        assertNull(adderCountMap.remove("none"));
+        for (Map.Entry<String, Long> entry : adderCountMap.entrySet())
+            assertEquals(adderCountMap.getCount(entry.getKey()),
+                    entry.getValue().longValue());
+        adderCountMap.clear();
+        assertTrue(adderCountMap.isEmpty());
+    }
+}
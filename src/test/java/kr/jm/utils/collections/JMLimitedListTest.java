@@ -5,10 +5,14 @@ import kr.jm.utils.helper.JMStream;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class JMLimitedListTest {
 
@@ -40,4 +44,51 @@ public class JMLimitedListTest {
         System.out.println(JMCollections.buildList(jmLimitedList));
     }
 
+    @Test
+    public void testIndexAndSubListView() {
+        JMStream.numberRange(1, 10, 1).forEach(jmLimitedList::add);
+        assertEquals(Optional.of(8), jmLimitedList.get(1));
+        assertEquals(Optional.empty(), jmLimitedList.get(3));
+        assertEquals(Optional.empty(), jmLimitedList.get(-1));
+        List<Integer> subList = jmLimitedList.subList(1, 3);
+        assertEquals(Arrays.asList(8, 9), subList);
+        jmLimitedList.add(10);
+        // the view still points at 8 and 9, now at index 0 and 1
+        assertEquals(Arrays.asList(8, 9), subList);
+        jmLimitedList.add(11);
+        try {
+            subList.get(0);
+            fail();
+        } catch (ConcurrentModificationException e) {
+            assertEquals(Integer.valueOf(9), subList.get(1));
+        }
+        assertTrue(jmLimitedList.remove(10));
+        assertEquals(Arrays.asList(9, 11),
+                JMCollections.buildList(jmLimitedList));
+        assertEquals(1, jmLimitedList.getCurrentIndex());
+        assertTrue(jmLimitedList.addAll(Arrays.asList(12)));
+        assertFalse(jmLimitedList.addAll(Arrays.asList(13)));
+        assertTrue(jmLimitedList.retainAll(Arrays.asList(11, 12)));
+        assertEquals(Arrays.asList(11, 12),
+                JMCollections.buildList(jmLimitedList));
+        jmLimitedList.clear();
+        assertEquals(-1, jmLimitedList.getCurrentIndex());
+        assertEquals(Optional.empty(), jmLimitedList.getFirst());
+    }
+
+    @Test
+    public void testConcurrentReadWhileWriting() {
+        JMLimitedList<Integer> limitedList = new JMLimitedList<>(1000);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(
+                () -> IntStream.range(0, 200000).forEach(limitedList::add));
+        while (!writer.isDone()) {
+            int size = limitedList.size();
+            // elements are consecutive, so any two reads stay ordered
+            limitedList.get(size / 2).ifPresent(middle -> limitedList
+                    .getLast().ifPresent(last -> assertTrue(middle <= last)));
+        }
+        writer.join();
+        assertEquals(Optional.of(199000), limitedList.getFirst());
+        assertEquals(Optional.of(199999), limitedList.getCurrent());
+    }
 }
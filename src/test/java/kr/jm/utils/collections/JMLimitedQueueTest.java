@@ -2,13 +2,17 @@ package kr.jm.utils.collections;
 
 import kr.jm.utils.datastructure.JMCollections;
 import kr.jm.utils.helper.JMStream;
+import kr.jm.utils.helper.JMThread;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.IntStream;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class JMLimitedQueueTest {
     private int capacity = 3;
@@ -34,4 +38,52 @@ public class JMLimitedQueueTest {
         assertEquals(Optional.empty(), jmLimitedQueue.peek());
         System.out.println(jmLimitedQueue.peek());
     }
+
+    @Test
+    public void testOverwriteAndSnapshot() {
+        JMStream.numberRange(1, 10, 1).forEach(jmLimitedQueue::add);
+        assertEquals(3, jmLimitedQueue.size());
+        assertEquals(Arrays.asList(7, 8, 9),
+                JMCollections.buildList(jmLimitedQueue));
+        assertArrayEquals(new Integer[]{7, 8, 9},
+                jmLimitedQueue.toArray(new Integer[0]));
+        assertTrue(jmLimitedQueue.contains(8));
+        assertFalse(jmLimitedQueue.contains(6));
+        jmLimitedQueue.clear();
+        assertTrue(jmLimitedQueue.isEmpty());
+        jmLimitedQueue.add(10);
+        assertEquals(Optional.of(10), jmLimitedQueue.poll());
+    }
+
+    @Test
+    public void testConcurrentProducersAndConsumers() {
+        int producers = 8;
+        int count = 20000;
+        JMLimitedQueue<Integer> limitedQueue = new JMLimitedQueue<>(100);
+        Set<Integer> polledSet = ConcurrentHashMap.newKeySet();
+        ExecutorService threadPool = JMThread.newThreadPool(producers + 2);
+        CompletableFuture<?>[] producerFutures = IntStream.range(0, producers)
+                .mapToObj(p -> CompletableFuture.runAsync(
+                        () -> IntStream.range(0, count)
+                                .forEach(i -> limitedQueue.add(p * count + i)),
+                        threadPool)).toArray(CompletableFuture[]::new);
+        CompletableFuture<?>[] consumerFutures = IntStream.range(0, 2)
+                .mapToObj(c -> CompletableFuture.runAsync(() -> {
+                    while (!CompletableFuture.allOf(producerFutures).isDone())
+                        limitedQueue.poll().ifPresent(
+                                i -> assertTrue(polledSet.add(i)));
+                }, threadPool)).toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(consumerFutures).join();
+        List<Integer> remainingList = JMCollections.buildList(limitedQueue);
+        assertTrue(remainingList.size() <= 100);
+        assertEquals(limitedQueue.size(), remainingList.size());
+        // every producer's elements stay in its own insertion order
+        Map<Integer, Integer> lastMap = new HashMap<>();
+        for (Integer i : remainingList) {
+            assertFalse(polledSet.contains(i));
+            Integer last = lastMap.put(i / count, i);
+            assertTrue(last == null || last < i);
+        }
+        threadPool.shutdown();
+    }
 }
@@ -5,10 +5,14 @@ import kr.jm.utils.helper.JMStream;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class JMLimitedStackTest {
     private int capacity = 3;
@@ -35,4 +39,71 @@ public class JMLimitedStackTest {
         System.out.println(jmLimitedStack.peek());
     }
 
+    @Test
+    public void testSingleWriterEvictionAndRemove() {
+        JMLimitedStack<Integer> limitedStack = JMLimitedStack.ofSingleWriter(3);
+        assertFalse(limitedStack.isConcurrent());
+        JMStream.numberRange(1, 10, 1).forEach(limitedStack::add);
+        assertEquals(Arrays.asList(7, 8, 9),
+                JMCollections.buildList(limitedStack));
+        assertTrue(limitedStack.remove(8));
+        assertEquals(Optional.of(9), limitedStack.pop());
+        limitedStack.add(10);
+        limitedStack.add(11);
+        assertEquals(Arrays.asList(7, 10, 11),
+                JMCollections.buildList(limitedStack));
+        assertTrue(limitedStack.retainAll(Arrays.asList(10)));
+        assertEquals(Optional.of(10), limitedStack.peek());
+        limitedStack.clear();
+        assertEquals(Optional.empty(), limitedStack.pop());
+    }
+
+    @Test
+    public void testConcurrentPush() {
+        JMLimitedStack<Integer> limitedStack = new JMLimitedStack<>(100);
+        CompletableFuture.allOf(IntStream.range(0, 4).mapToObj(
+                t -> CompletableFuture.runAsync(() -> IntStream.range(0, 10000)
+                        .forEach(limitedStack::add)))
+                .toArray(CompletableFuture[]::new)).join();
+        assertEquals(100, limitedStack.size());
+        assertEquals(100, limitedStack.toArray().length);
+    }
+
+    private static long measureNanos(IntConsumer pusher, Runnable popper) {
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < 2_000_000; i++) {
+            pusher.accept(i);
+            if (i % 4 == 0)
+                popper.run();
+        }
+        return System.nanoTime() - startNanos;
+    }
+
+    @Test
+    public void testBenchmarkAgainstLinkedBlockingDeque() {
+        int capacity = 1024;
+        LinkedBlockingDeque<Integer> deque =
+                new LinkedBlockingDeque<>(capacity);
+        // the former JMLimitedStack push
+        IntConsumer dequePusher = i -> {
+            if (capacity <= deque.size())
+                deque.removeFirst();
+            deque.add(i);
+        };
+        JMLimitedStack<Integer> concurrentStack =
+                new JMLimitedStack<>(capacity);
+        JMLimitedStack<Integer> singleWriterStack =
+                JMLimitedStack.ofSingleWriter(capacity);
+        long dequeNanos = 0, concurrentNanos = 0, singleWriterNanos = 0;
+        for (int round = 0; round < 3; round++) {
+            dequeNanos = measureNanos(dequePusher, deque::pollLast);
+            concurrentNanos = measureNanos(concurrentStack::add,
+                    concurrentStack::pop);
+            singleWriterNanos = measureNanos(singleWriterStack::add,
+                    singleWriterStack::pop);
+        }
+        System.out.println("linkedBlockingDeque " + dequeNanos / 1000000 +
+                " ms, concurrent " + concurrentNanos / 1000000 +
+                " ms, singleWriter " + singleWriterNanos / 1000000 + " ms");
+    }
 }
@@ -0,0 +1,88 @@
+package kr.jm.utils.collections;
+
+import kr.jm.utils.helper.JMThread;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class JMListMapTest {
+
+    private static final int THREADS = 16;
+    private static final int ADDS_PER_THREAD = 100000;
+    private static final String[] KEYS = {"key0", "key1", "key2", "key3"};
+
+    private static long ingest(JMListMap<String, Integer> listMap) {
+        ExecutorService threadPool = JMThread.newThreadPool(THREADS);
+        long startNanos = System.nanoTime();
+        CompletableFuture.allOf(IntStream.range(0, THREADS).mapToObj(
+                t -> CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < ADDS_PER_THREAD; i++)
+                        listMap.add(KEYS[i % 4], t * ADDS_PER_THREAD + i);
+                }, threadPool)).toArray(CompletableFuture[]::new)).join();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        threadPool.shutdown();
+        return elapsedNanos;
+    }
+
+    @Test
+    public void testChunkedListIngestionBenchmark() {
+        long defaultNanos = Long.MAX_VALUE, chunkedNanos = Long.MAX_VALUE;
+        JMListMap<String, Integer> chunkedListMap = null;
+        // the best of a few rounds, to leave warm up and gc pauses out
+        for (int round = 0; round < 5; round++) {
+            defaultNanos = Math.min(defaultNanos, ingest(new JMListMap<>()));
+            chunkedListMap = new JMListMap<>(true);
+            chunkedNanos = Math.min(chunkedNanos, ingest(chunkedListMap));
+        }
+        System.out.println(THREADS + " threads, synchronizedList " +
+                defaultNanos / 1000000 + " ms, chunkedList " +
+                chunkedNanos / 1000000 + " ms");
+        assertTrue(chunkedListMap.isChunkedList());
+        assertEquals(THREADS * ADDS_PER_THREAD,
+                chunkedListMap.values().stream().mapToInt(List::size).sum());
+        assertEquals(IntStream.range(0, THREADS * ADDS_PER_THREAD)
+                        .filter(i -> i % ADDS_PER_THREAD % 4 == 1).sum(),
+                chunkedListMap.get("key1").stream().mapToInt(i -> i).sum());
+    }
+
+    @Test
+    public void testChunkedList() {
+        JMChunkedList<Integer> chunkedList = new JMChunkedList<>();
+        assertFalse(chunkedList.addAll(new ArrayList<>()));
+        List<Integer> expectedList = IntStream.range(0, 1000).boxed()
+                .collect(Collectors.toList());
+        chunkedList.addAll(expectedList.subList(0, 10));
+        expectedList.subList(10, 1000).forEach(chunkedList::add);
+        assertEquals(expectedList, chunkedList);
+        assertEquals(Integer.valueOf(999), chunkedList.get(999));
+        try {
+            chunkedList.get(1000);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            System.out.println(e.getMessage());
+        }
+        try {
+            chunkedList.add(null);
+            fail();
+        } catch (NullPointerException e) {
+            assertEquals(1000, chunkedList.size());
+        }
+        JMListMap<String, Integer> listMap = new JMListMap<>(true);
+        JMListMap<String, Integer> otherListMap = new JMListMap<>(true);
+        listMap.addAll("a", Arrays.asList(1, 2));
+        otherListMap.addAll("a", Arrays.asList(3));
+        otherListMap.add("b", 4);
+        listMap.merge(otherListMap);
+        assertEquals(Arrays.asList(1, 2, 3), listMap.get("a"));
+        assertEquals(Arrays.asList(4), listMap.get("b"));
+        assertTrue(listMap.get("a") instanceof JMChunkedList);
+    }
+}
@@ -4,8 +4,13 @@ import kr.jm.utils.helper.JMThread;
 import kr.jm.utils.time.JMTimeUtil;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static kr.jm.utils.helper.JMConsumer.getSOPL;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class JMListTimeSeriesTest {
 
@@ -32,4 +37,19 @@ public class JMListTimeSeriesTest {
         System.out.println(jmListTimeSeries);
     }
 
+    @Test
+    public void testLateAdd() {
+        List<List<String>> evictedList = new ArrayList<>();
+        JMListTimeSeries<String> jmListTimeSeries = new JMListTimeSeries<>(1,
+                2, (keyTimestamp, list) -> evictedList.add(list));
+        jmListTimeSeries.addAll(5000L, Arrays.asList("a", "b"));
+        jmListTimeSeries.add(4000L, "c");
+        assertTrue(evictedList.isEmpty());
+        // older than the retention, evicted with its object
+        jmListTimeSeries.add(1000L, "late");
+        assertEquals(Arrays.asList(Arrays.asList("late")), evictedList);
+        assertEquals(Arrays.asList("a", "b"), jmListTimeSeries.get(5000L));
+        assertEquals(2, jmListTimeSeries.size());
+    }
+
 }
@@ -0,0 +1,122 @@
+package kr.jm.utils.collections;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class JMNestedMapTest {
+
+    private static long buildUsedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // the keys are boxed beforehand, so only the structure is measured
+    private static long measureFootprint(JMNestedMap<Integer, Integer,
+            Integer> jmNestedMap, Integer[] keys) {
+        long startMemory = buildUsedMemory();
+        for (Integer key : keys) {
+            jmNestedMap.put(key, keys[0], key);
+            jmNestedMap.put(key, keys[1], key);
+        }
+        long footprint = buildUsedMemory() - startMemory;
+        assertEquals(keys.length * 2, jmNestedMap.getEntryCount());
+        return footprint;
+    }
+
+    @Test
+    public void testFlatMode() {
+        JMNestedMap<String, String, Integer> flatMap = JMNestedMap.ofFlat();
+        assertTrue(flatMap.isFlat());
+        assertFalse(new JMNestedMap<>().isFlat());
+        assertTrue(flatMap.isEmpty());
+        IntStream.range(0, 100).forEach(i -> flatMap
+                .put("row" + i % 10, "column" + i / 10, i));
+        assertEquals(Integer.valueOf(23), flatMap.get("row3", "column2"));
+        assertNull(flatMap.get("row3", "none"));
+        assertEquals(Integer.valueOf(23),
+                flatMap.put("row3", "column2", -23));
+        assertEquals(Integer.valueOf(-23),
+                flatMap.getOrPutGetNew("row3", "column2", () -> 0));
+        assertEquals(Integer.valueOf(7),
+                flatMap.getOrPutGetNew("row3", "new", () -> 7));
+        assertEquals(101, flatMap.getEntryCount());
+        assertFalse(flatMap.isEmpty());
+
+        Map<String, Integer> row = flatMap.getOrPutGetNew("row5");
+        assertEquals(Integer.valueOf(15), row.get("column1"));
+        row.put("added", 1);
+        assertEquals(Integer.valueOf(1), flatMap.get("row5", "added"));
+        assertEquals(11, row.size());
+        assertEquals(Integer.valueOf(1), row.remove("added"));
+        assertNull(flatMap.get("row5", "added"));
+
+        assertEquals(10, flatMap.size());
+        assertTrue(flatMap.containsKey("row9"));
+        assertFalse(flatMap.containsKey("none"));
+        assertNull(flatMap.get("none"));
+        assertEquals(11, flatMap.get("row3").size());
+        Map<String, Integer> removedRow = flatMap.remove("row3");
+        assertEquals(11, removedRow.size());
+        assertEquals(Integer.valueOf(-23), removedRow.get("column2"));
+        assertFalse(flatMap.containsKey("row3"));
+        assertEquals(90, flatMap.getEntryCount());
+
+        Map<String, Integer> newRow = new HashMap<>();
+        newRow.put("a", 1);
+        newRow.put("b", 2);
+        assertEquals(10, flatMap.put("row0", newRow).size());
+        assertEquals(newRow, flatMap.get("row0"));
+        assertEquals(82, flatMap.getEntryCount());
+        assertEquals(9, flatMap.keySet().size());
+        assertEquals(82, flatMap.values().stream().mapToInt(Map::size)
+                .sum());
+
+        // removing the last entry of a row removes the row
+        flatMap.get("row0").remove("a");
+        flatMap.get("row0").remove("b");
+        assertFalse(flatMap.containsKey("row0"));
+        flatMap.clear();
+        assertTrue(flatMap.isEmpty());
+        assertEquals(0, flatMap.size());
+        assertNull(flatMap.get("row1", "column1"));
+    }
+
+    @Test
+    public void testLazyRowIndex() {
+        CompositeKeyTable<Integer, Integer, Integer> table =
+                new CompositeKeyTable<>();
+        IntStream.range(0, 1000).forEach(i -> table.put(i % 100, i, i));
+        IntStream.range(0, 500).forEach(i -> table.remove(i % 100, i));
+        assertFalse(table.isRowIndexed());
+        assertEquals(500, table.size());
+        assertEquals(Integer.valueOf(999), table.get(99, 999));
+        assertNull(table.get(0, 0));
+        assertEquals(100, table.getRowCount());
+        assertTrue(table.isRowIndexed());
+        // the index is kept up to date once built
+        table.put(100, 0, 0);
+        assertEquals(101, table.getRowCount());
+        assertEquals(5, table.buildColumnKeyList(7).size());
+        assertEquals(5, table.removeRow(7).size());
+        assertFalse(table.containsRow(7));
+        assertEquals(496, table.size());
+    }
+
+    @Test
+    public void testFlatModeFootprint() {
+        Integer[] keys = IntStream.range(0, 200000).boxed()
+                .toArray(Integer[]::new);
+        long flatFootprint = measureFootprint(JMNestedMap.ofFlat(), keys);
+        long nestedFootprint = measureFootprint(new JMNestedMap<>(), keys);
+        System.out.println("flat " + flatFootprint / 1024 + " KB, nested " +
+                nestedFootprint / 1024 + " KB");
+    }
+
+}
@@ -0,0 +1,146 @@
+package kr.jm.utils.collections;
+
+import kr.jm.utils.enums.OS;
+import kr.jm.utils.helper.JMThread;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class JMRingBlockingQueueTest {
+
+    @Test
+    public void testQueue() throws Exception {
+        JMRingBlockingQueue<Integer> queue = new JMRingBlockingQueue<>(3);
+        assertEquals(4, JMRingBlockingQueue.buildPowerOfTwo(3));
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertTrue(queue.offer(3));
+        assertFalse(queue.offer(4));
+        assertFalse(queue.offer(4, 10, TimeUnit.MILLISECONDS));
+        assertEquals(3, queue.size());
+        assertEquals(0, queue.remainingCapacity());
+        assertEquals(Integer.valueOf(1), queue.peek());
+        assertEquals("[1, 2, 3]", new ArrayList<>(queue).toString());
+        assertEquals(Integer.valueOf(1), queue.poll());
+        assertTrue(queue.offer(4));
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, queue.drainTo(drained));
+        assertEquals("[2, 3, 4]", drained.toString());
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        JMRingBlockingQueue<Integer> queue = new JMRingBlockingQueue<>(4);
+        for (int i = 1; i <= 4; i++)
+            queue.offer(i);
+        assertTrue(queue.remove(1));
+        assertTrue(queue.remove(3));
+        assertFalse(queue.remove(3));
+        assertFalse(queue.remove(5));
+        assertEquals(Integer.valueOf(2), queue.peek());
+        assertEquals("[2, 4]", new ArrayList<>(queue).toString());
+        // the removed slots are freed once polled past
+        assertFalse(queue.offer(5));
+        assertEquals(Integer.valueOf(2), queue.poll());
+        assertEquals(Integer.valueOf(4), queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.offer(5));
+        assertEquals(Integer.valueOf(5), queue.take());
+
+        // an element is either polled or removed, never both
+        int items = 20000;
+        BlockingQueue<Integer> racingQueue = JMThread
+                .getRingBufferLimitedBlockingQueue(64,
+                        JMRingBlockingQueue.WaitStrategy.PARK);
+        LongAdder removedCount = new LongAdder();
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < items; i++) {
+                racingQueue.offer(i);
+                if (i % 2 == 0 && racingQueue.remove(i))
+                    removedCount.increment();
+            }
+            racingQueue.offer(-1);
+        });
+        producer.start();
+        int polledCount = 0;
+        for (Integer i = racingQueue.take(); i >= 0; i = racingQueue.take())
+            polledCount++;
+        producer.join();
+        System.out.println("polled " + polledCount + ", removed " +
+                removedCount);
+        assertEquals(items, polledCount + removedCount.intValue());
+    }
+
+    @Test
+    public void testMaxQueueThreadPool() throws Exception {
+        ExecutorService threadPool = JMThread.newMaxQueueThreadPool(2, 4,
+                JMRingBlockingQueue.WaitStrategy.PARK);
+        LongAdder count = new LongAdder();
+        for (int i = 0; i < 100; i++)
+            threadPool.execute(() -> {
+                JMThread.sleep(1);
+                count.increment();
+            });
+        assertTrue(JMThread.getThreadQueue(threadPool).size() <= 4);
+        threadPool.shutdown();
+        assertTrue(threadPool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(100, count.intValue());
+    }
+
+    @Test
+    public void testBenchmark() throws Exception {
+        int itemsPerRun = 200_000;
+        for (int producers : new int[]{1, 4, 16}) {
+            long linkedNanos = runProducersAndConsumer(producers, itemsPerRun,
+                    () -> JMThread.getLimitedBlockingQueue(1024));
+            for (JMRingBlockingQueue.WaitStrategy waitStrategy :
+                    JMRingBlockingQueue.WaitStrategy.values()) {
+                // busy spinning only pays off with a core per thread
+                if (waitStrategy == JMRingBlockingQueue.WaitStrategy.SPIN &&
+                        producers >= OS.getAvailableProcessors())
+                    continue;
+                long ringNanos = runProducersAndConsumer(producers,
+                        itemsPerRun, () -> JMThread
+                                .getRingBufferLimitedBlockingQueue(1024,
+                                        waitStrategy));
+                System.out.printf(
+                        "producers = %2d, LinkedBlockingQueue = %4d ns/op, JMRingBlockingQueue(%s) = %4d ns/op%n",
+                        producers, linkedNanos / itemsPerRun, waitStrategy,
+                        ringNanos / itemsPerRun);
+            }
+        }
+    }
+
+    private long runProducersAndConsumer(int producers, int items,
+            Supplier<BlockingQueue<Integer>> queueSupplier) throws Exception {
+        BlockingQueue<Integer> queue = queueSupplier.get();
+        int itemsPerProducer = items / producers;
+        List<Thread> threadList = new ArrayList<>();
+        for (int p = 0; p < producers; p++)
+            threadList.add(new Thread(() -> {
+                for (int i = 0; i < itemsPerProducer; i++)
+                    queue.offer(i);
+            }));
+        long startNanos = System.nanoTime();
+        threadList.forEach(Thread::start);
+        long sum = 0;
+        for (int i = 0; i < itemsPerProducer * producers; i++)
+            sum += queue.take();
+        long tookNanos = System.nanoTime() - startNanos;
+        for (Thread thread : threadList)
+            thread.join();
+        assertEquals((long) producers * itemsPerProducer *
+                (itemsPerProducer - 1) / 2, sum);
+        return tookNanos;
+    }
+}
@@ -4,8 +4,15 @@ import kr.jm.utils.helper.JMThread;
 import kr.jm.utils.time.JMTimeUtil;
 import org.junit.Test;
 
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
 import static kr.jm.utils.helper.JMConsumer.getSOPL;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class JMTimeSeriesTest {
 
@@ -34,4 +41,181 @@ public class JMTimeSeriesTest {
 
     }
 
+    @Test
+    public void testRetentionBounded() {
+        List<Long> evictedList = new ArrayList<>();
+        JMTimeSeries<Long> jmTimeSeries = new JMTimeSeries<>(1, 4,
+                (keyTimestamp, value) -> evictedList.add(keyTimestamp));
+        assertTrue(jmTimeSeries.isRetentionBounded());
+        assertEquals(4, jmTimeSeries.getRetentionCount());
+        assertFalse(new JMTimeSeries<>(1).isRetentionBounded());
+        for (long second = 0; second < 4; second++)
+            jmTimeSeries.put(second * 1000 + 500, second);
+        assertEquals(4, jmTimeSeries.size());
+        assertEquals(Long.valueOf(2), jmTimeSeries.get(2999L));
+        assertEquals(Long.valueOf(2), jmTimeSeries.put(2000L, 22L));
+        assertTrue(evictedList.isEmpty());
+
+        // moving to the 6th second resets the 1st and the 2nd
+        assertNull(jmTimeSeries.put(5000L, 5L));
+        assertEquals(Arrays.asList(0L, 1000L), evictedList);
+        assertNull(jmTimeSeries.get(1000L));
+        assertFalse(jmTimeSeries.containsKey(0L));
+        assertEquals(Long.valueOf(22), jmTimeSeries.get(2000L));
+        assertEquals(3, jmTimeSeries.size());
+        assertEquals(Arrays.asList(5000L, 3000L, 2000L),
+                jmTimeSeries.getTimestampKeyList());
+
+        // older than the retention, evicted right away
+        assertNull(jmTimeSeries.put(1500L, 1L));
+        assertEquals(1000L, evictedList.get(2).longValue());
+        assertNull(jmTimeSeries.get(1500L));
+        assertNull(jmTimeSeries.getOrPutGetNew(1500L, () -> -1L));
+        assertEquals(3, evictedList.size());
+        assertEquals(3, jmTimeSeries.size());
+
+        assertEquals(Long.valueOf(4),
+                jmTimeSeries.getOrPutGetNew(4000L, () -> 4L));
+        assertEquals(Long.valueOf(4),
+                jmTimeSeries.getOrPutGetNew(4999L, () -> -4L));
+        assertEquals(Long.valueOf(3), jmTimeSeries.remove(3000L));
+        assertEquals(3, jmTimeSeries.size());
+        for (Map.Entry<Long, Long> entry : jmTimeSeries.entrySet())
+            assertEquals(jmTimeSeries.get(entry.getKey()), entry.getValue());
+
+        // a jump over the whole retention evicts everything left
+        evictedList.clear();
+        jmTimeSeries.put(100000L, 100L);
+        assertEquals(3, evictedList.size());
+        assertEquals(1, jmTimeSeries.size());
+        jmTimeSeries.clear();
+        assertTrue(jmTimeSeries.isEmpty());
+    }
+
+    @Test
+    public void testRetentionBoundedConcurrently() {
+        Map<Long, Long> evictedCountMap = new ConcurrentHashMap<>();
+        JMTimeSeries<LongAdder> jmTimeSeries = new JMTimeSeries<>(1, 8,
+                (keyTimestamp, count) -> evictedCountMap
+                        .merge(keyTimestamp, count.sum(), Long::sum));
+        AtomicLong clock = new AtomicLong();
+        CompletableFuture.allOf(IntStream.range(0, 4).mapToObj(
+                t -> CompletableFuture.runAsync(() -> IntStream
+                        .range(0, 10000).forEach(i -> jmTimeSeries
+                                .update(clock.getAndIncrement(),
+                                        LongAdder::new,
+                                        LongAdder::increment))))
+                .toArray(CompletableFuture[]::new)).join();
+        // an evicted interval never comes back, a late update being
+        // evicted on its own
+        assertEquals(8, jmTimeSeries.size());
+        assertEquals(32, evictedCountMap.size());
+        jmTimeSeries.keySet().forEach(
+                keyTimestamp -> assertFalse(
+                        evictedCountMap.containsKey(keyTimestamp)));
+        long count = evictedCountMap.values().stream()
+                .mapToLong(Long::longValue).sum() + jmTimeSeries.values()
+                .stream().mapToLong(LongAdder::sum).sum();
+        // a writer preempted for a whole retention may count into an
+        // evicted bucket
+        assertTrue(count <= 40000);
+        System.out.println("counted " + count + " of 40000");
+    }
+
+    @Test
+    public void testSubSeriesAndLatest() {
+        JMTimeSeries<Long> jmTimeSeries = new JMTimeSeries<>(1);
+        JMTimeSeries<Long> ringTimeSeries = new JMTimeSeries<>(1, 8);
+        for (long second = 0; second < 20; second += 2) {
+            jmTimeSeries.put(second * 1000 + 10, second);
+            ringTimeSeries.put(second * 1000 + 10, second);
+        }
+        for (JMTimeSeries<Long> timeSeries : Arrays
+                .asList(jmTimeSeries, ringTimeSeries)) {
+            NavigableMap<Long, Long> subSeries =
+                    timeSeries.subSeries(14500, 18000);
+            assertEquals(Arrays.asList(14000L, 16000L),
+                    new ArrayList<>(subSeries.keySet()));
+            assertEquals(Long.valueOf(16), subSeries.lastEntry().getValue());
+            assertEquals(Arrays.asList(16000L, 18000L),
+                    new ArrayList<>(timeSeries.latest(2).keySet()));
+            assertTrue(timeSeries.subSeries(30000, 40000).isEmpty());
+            assertTrue(timeSeries.subSeries(18000, 18000).isEmpty());
+            assertTrue(timeSeries.latest(0).isEmpty());
+            assertEquals(Long.valueOf(18000),
+                    timeSeries.getTimestampKeyList().get(0));
+        }
+        assertEquals(10, jmTimeSeries.latest(100).size());
+        assertEquals(Long.valueOf(0),
+                jmTimeSeries.getNavigableSeries().firstKey());
+        // the ring keeps the latest 8 seconds, 12 to 19
+        assertEquals(4, ringTimeSeries.latest(100).size());
+        assertEquals(Long.valueOf(12000),
+                ringTimeSeries.getNavigableSeries().firstKey());
+
+        // sub series views follow the time series, latest is a snapshot
+        NavigableMap<Long, Long> latest = jmTimeSeries.latest(1);
+        NavigableMap<Long, Long> subSeries = jmTimeSeries.subSeries(0, 30000);
+        jmTimeSeries.put(25000L, 25L);
+        assertEquals(Collections.singletonMap(18000L, 18L), latest);
+        assertEquals(Collections.singletonMap(25000L, 25L),
+                jmTimeSeries.latest(1));
+        assertEquals(11, subSeries.size());
+        try {
+            subSeries.put(26000L, 26L);
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
+    @Test
+    public void testSubSeriesBenchmark() {
+        int bucketCount = 100000;
+        JMTimeSeries<Long> jmTimeSeries = new JMTimeSeries<>(1);
+        Map<Long, Long> hashMap = new ConcurrentHashMap<>();
+        for (long second = 0; second < bucketCount; second++) {
+            jmTimeSeries.put(second * 1000, second);
+            hashMap.put(second * 1000, second);
+        }
+        long fromTimestamp = (bucketCount - 300) * 1000L;
+        long toTimestamp = bucketCount * 1000L;
+        for (int i = 0; i < 5; i++) {
+            sumBySorting(hashMap, fromTimestamp, toTimestamp);
+            sumBySubSeries(jmTimeSeries, fromTimestamp, toTimestamp);
+        }
+        int rounds = 20;
+        long startNanos = System.nanoTime();
+        long sortedSum = 0;
+        for (int i = 0; i < rounds; i++)
+            sortedSum = sumBySorting(hashMap, fromTimestamp, toTimestamp);
+        long sortingNanos = System.nanoTime() - startNanos;
+        startNanos = System.nanoTime();
+        long subSeriesSum = 0;
+        for (int i = 0; i < rounds; i++)
+            subSeriesSum =
+                    sumBySubSeries(jmTimeSeries, fromTimestamp, toTimestamp);
+        long subSeriesNanos = System.nanoTime() - startNanos;
+        assertEquals(sortedSum, subSeriesSum);
+        assertEquals(300, jmTimeSeries.latest(300).size());
+        System.out.println("last 300 of " + bucketCount + " buckets: sort " +
+                sortingNanos / rounds / 1000 + " us, subSeries " +
+                subSeriesNanos / rounds / 1000 + " us");
+    }
+
+    // the last five minutes as found before the navigable index
+    private static long sumBySorting(Map<Long, Long> hashMap,
+            long fromTimestamp, long toTimestamp) {
+        List<Long> keyList = new ArrayList<>(hashMap.keySet());
+        keyList.sort(Comparator.reverseOrder());
+        return keyList.stream()
+                .filter(key -> key >= fromTimestamp && key < toTimestamp)
+                .mapToLong(hashMap::get).sum();
+    }
+
+    private static long sumBySubSeries(JMTimeSeries<Long> jmTimeSeries,
+            long fromTimestamp, long toTimestamp) {
+        return jmTimeSeries.subSeries(fromTimestamp, toTimestamp).values()
+                .stream().mapToLong(Long::longValue).sum();
+    }
+
 }
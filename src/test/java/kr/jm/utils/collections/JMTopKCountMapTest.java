@@ -0,0 +1,88 @@
+package kr.jm.utils.collections;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class JMTopKCountMapTest {
+
+    // key i is drawn with a weight of 1 / (i + 1), a zipf like stream
+    private static int[] buildZipfStream(int keys, int length, long seed) {
+        double[] cumulative = new double[keys];
+        double sum = 0;
+        for (int i = 0; i < keys; i++)
+            cumulative[i] = sum += 1.0 / (i + 1);
+        Random random = new Random(seed);
+        return IntStream.range(0, length).map(n -> {
+            int index = Arrays.binarySearch(cumulative,
+                    random.nextDouble() * cumulative[keys - 1]);
+            return index < 0 ? -index - 1 : index;
+        }).toArray();
+    }
+
+    @Test
+    public void testErrorBound() {
+        int[] stream = buildZipfStream(100000, 500000, 7);
+        JMCountMap<Integer> exactCountMap = new JMCountMap<>();
+        JMTopKCountMap<Integer> topKCountMap = new JMTopKCountMap<>(200);
+        for (int key : stream) {
+            exactCountMap.increment(key);
+            topKCountMap.offer(key);
+        }
+        assertEquals(200, topKCountMap.size());
+        assertEquals(stream.length, topKCountMap.getTotalCount());
+        assertTrue(topKCountMap.getErrorBound() <= stream.length / 200);
+        List<JMTopKCountMap.TopKEntry<Integer>> topKList =
+                topKCountMap.getTopK(10);
+        System.out.println(topKList);
+        for (JMTopKCountMap.TopKEntry<Integer> entry : topKCountMap
+                .getTopK(200)) {
+            long exactCount = exactCountMap.getCount(entry.getValue());
+            assertTrue(entry.getLowerBound() <= exactCount);
+            assertTrue(exactCount <= entry.getCount());
+        }
+        assertEquals(IntStream.range(0, 10).boxed()
+                        .collect(Collectors.toSet()),
+                topKList.stream().map(JMTopKCountMap.TopKEntry::getValue)
+                        .collect(Collectors.toSet()));
+        assertFalse(topKCountMap.getGuaranteedTopK(5).isEmpty());
+        assertEquals(200, topKCountMap.buildCountMap().size());
+    }
+
+    @Test
+    public void testMergePerThreadSummaries() {
+        int threads = 4;
+        List<JMTopKCountMap<Integer>> summaryList = IntStream
+                .range(0, threads).mapToObj(t -> CompletableFuture
+                        .supplyAsync(() -> {
+                            JMTopKCountMap<Integer> summary =
+                                    new JMTopKCountMap<>(100);
+                            for (int key : buildZipfStream(50000, 100000, t))
+                                summary.offer(key);
+                            return summary;
+                        })).collect(Collectors.toList()).stream()
+                .map(CompletableFuture::join).collect(Collectors.toList());
+        JMTopKCountMap<Integer> merged = new JMTopKCountMap<>(100);
+        summaryList.forEach(merged::merge);
+        JMCountMap<Integer> exactCountMap = new JMCountMap<>();
+        for (int t = 0; t < threads; t++)
+            for (int key : buildZipfStream(50000, 100000, t))
+                exactCountMap.increment(key);
+        assertEquals(threads * 100000L, merged.getTotalCount());
+        assertTrue(merged.getErrorBound() <= merged.getTotalCount() / 100);
+        for (JMTopKCountMap.TopKEntry<Integer> entry : merged.getTopK(100)) {
+            long exactCount = exactCountMap.getCount(entry.getValue());
+            assertTrue(entry.getLowerBound() <= exactCount);
+            assertTrue(exactCount <= entry.getCount());
+        }
+        assertEquals(Integer.valueOf(0),
+                merged.getTopK(1).get(0).getValue());
+    }
+}
@@ -0,0 +1,83 @@
+package kr.jm.utils.destroy;
+
+import kr.jm.utils.helper.JMThread;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static kr.jm.utils.destroy.DestroyCoordinator.CleanUpStatus.*;
+import static org.junit.Assert.*;
+
+public class DestroyCoordinatorTest {
+
+    @Test
+    public void testCleanUpOrderAndParallelism() {
+        List<String> orderList = Collections.synchronizedList(new ArrayList<>());
+        DestroyCoordinator destroyCoordinator = new DestroyCoordinator();
+        ExecutorService threadPool = JMThread.newThreadPool(2);
+        threadPool.execute(() -> JMThread.sleep(100));
+        destroyCoordinator.register("pool", threadPool)
+                .register("appender1", () -> {
+                    JMThread.sleep(200);
+                    orderList.add("appender1");
+                }, "pool")
+                .register("appender2", () -> {
+                    JMThread.sleep(200);
+                    orderList.add("appender2");
+                }, "pool")
+                .register("consumer", () -> orderList.add("consumer"),
+                        "appender1", "appender2");
+        long startMillis = System.currentTimeMillis();
+        Map<String, DestroyCoordinator.CleanUpResult> resultMap =
+                destroyCoordinator.cleanUp(2000);
+        long elapsedMillis = System.currentTimeMillis() - startMillis;
+        System.out.println(elapsedMillis + " " + resultMap.values());
+        assertEquals("consumer", orderList.get(0));
+        assertEquals(3, orderList.size());
+        assertEquals("pool", new ArrayList<>(resultMap.keySet()).get(3));
+        assertTrue(resultMap.values().stream()
+                .allMatch(result -> result.getStatus() == COMPLETED));
+        assertTrue(resultMap.get("appender1").getElapsedMillis() >= 200);
+        // both appenders are cleaned up at the same time
+        assertTrue(elapsedMillis < 500);
+        assertTrue(threadPool.isTerminated());
+    }
+
+    @Test
+    public void testDeadlineEscalation() {
+        ExecutorService stuckPool = JMThread.newSingleThreadPool();
+        stuckPool.execute(() -> JMThread.sleep(10000));
+        AtomicBoolean isLastCleanedUp = new AtomicBoolean();
+        DestroyCoordinator destroyCoordinator = new DestroyCoordinator()
+                .register("stuck", stuckPool)
+                .register("slow", () -> JMThread.sleep(10000), "last")
+                .register("failing", () -> {
+                    throw new RuntimeException("fail");
+                })
+                .register("last", () -> isLastCleanedUp.set(true));
+        long startMillis = System.currentTimeMillis();
+        Map<String, DestroyCoordinator.CleanUpResult> resultMap =
+                destroyCoordinator.cleanUp(300);
+        System.out.println(resultMap.values());
+        assertTrue(System.currentTimeMillis() - startMillis < 1000);
+        assertEquals(ESCALATED, resultMap.get("stuck").getStatus());
+        assertEquals(ESCALATED, resultMap.get("slow").getStatus());
+        assertEquals(FAILED, resultMap.get("failing").getStatus());
+        assertEquals(SKIPPED, resultMap.get("last").getStatus());
+        assertTrue(stuckPool.isShutdown());
+        // the interrupted slow clean up must not start its dependent late
+        JMThread.sleep(200);
+        assertFalse(isLastCleanedUp.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDependencyCycle() {
+        new DestroyCoordinator().register("a", () -> {}, "b")
+                .register("b", () -> {}, "a").cleanUp(100);
+    }
+}
@@ -1,5 +1,6 @@
 package kr.jm.utils.helper;
 
+import kr.jm.utils.JMInstrumentedExecutorService;
 import kr.jm.utils.time.JMTimeUtil;
 import org.junit.Before;
 import org.junit.Test;
@@ -8,6 +9,7 @@ import java.time.ZonedDateTime;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
 
 import static org.junit.Assert.assertEquals;
@@ -95,4 +97,28 @@ public class JMThreadTest {
         assertEquals(2, count.intValue());
     }
 
+    @Test
+    public void testInstrumentedThreadPool() throws Exception {
+        JMInstrumentedExecutorService executorService =
+                JMThread.newInstrumentedThreadPool(2);
+        for (int i = 0; i < 10; i++)
+            executorService.submit(() -> JMThread.sleep(20));
+        executorService.submit(() -> 1 / 0);
+        executorService.execute(executorService::sampleQueueDepth);
+        executorService.shutdown();
+        executorService.awaitTermination(5, TimeUnit.SECONDS);
+        JMInstrumentedExecutorService.Snapshot snapshot =
+                executorService.snapshot();
+        System.out.println(snapshot);
+        assertEquals(12, snapshot.getSubmittedCount());
+        assertEquals(12, snapshot.getCompletedCount());
+        assertEquals(1, snapshot.getFailedCount());
+        assertEquals(0, snapshot.getQueueDepth());
+        assertEquals(1, snapshot.getQueueDepthSampleList().size());
+        assertTrue(snapshot.getRunNanosHistogram().getPercentile(90) >=
+                TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(snapshot.getQueueWaitNanosHistogram().getMax() >=
+                TimeUnit.MILLISECONDS.toNanos(80));
+    }
+
 }
@@ -0,0 +1,62 @@
+package kr.jm.utils.helper;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests run from target/classes, where the Java 21 overlay of the
+ * Multi-Release JAR is not applied, so this compares the platform pool with
+ * the cached pool fallback unless the classes come from the jar on Java 21.
+ * {@link VirtualThreadSupportIT} checks the virtual threads of the jar.
+ */
+public class VirtualThreadBenchmarkTest {
+
+    private static final int TASK_COUNT = 1000;
+    private static final long BLOCKING_MILLIS = 10;
+
+    @Test
+    public void testBlockingThroughput() {
+        boolean isVirtualThreadSupported =
+                JMThread.isVirtualThreadSupported();
+        System.out.println("Virtual Thread Supported = " +
+                isVirtualThreadSupported);
+        ExecutorService platformPool = JMThread.newThreadPool(100);
+        ExecutorService threadPerTaskExecutor =
+                JMThread.newVirtualThreadPerTaskExecutor();
+        double platformThroughput =
+                measureThroughput("newThreadPool(100)", platformPool);
+        double threadPerTaskThroughput = measureThroughput(
+                "newVirtualThreadPerTaskExecutor" +
+                        (isVirtualThreadSupported ? "" :
+                                " (cached pool fallback)"),
+                threadPerTaskExecutor);
+        System.out.printf("Speed Up = %.1fx%n",
+                threadPerTaskThroughput / platformThroughput);
+        platformPool.shutdown();
+        threadPerTaskExecutor.shutdown();
+        assertEquals(Integer.valueOf(1),
+                JMThread.supplyAsyncOnVirtualThread(() -> 1).join());
+    }
+
+    private double measureThroughput(String name, ExecutorService executor) {
+        long startMillis = System.currentTimeMillis();
+        List<CompletableFuture<Void>> futureList =
+                IntStream.range(0, TASK_COUNT).mapToObj(i -> JMThread
+                        .runAsync(() -> JMThread.sleep(BLOCKING_MILLIS),
+                                executor)).collect(Collectors.toList());
+        CompletableFuture.allOf(futureList.toArray(new CompletableFuture[0]))
+                .join();
+        long tookMillis = Math.max(1, System.currentTimeMillis() - startMillis);
+        double throughput = TASK_COUNT * 1000d / tookMillis;
+        System.out.printf("%s - %d blocking tasks took %d ms, %.0f tasks/s%n",
+                name, TASK_COUNT, tookMillis, throughput);
+        return throughput;
+    }
+}
@@ -0,0 +1,21 @@
+package kr.jm.utils.helper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Run by the java21-overlay profile against the Multi-Release JAR, whose
+ * Java 21 version is the only one running on virtual threads.
+ */
+public class VirtualThreadSupportIT {
+
+    @Test
+    public void testVirtualThreadSupported() {
+        assertTrue(JMThread.isVirtualThreadSupported());
+        String threadName = JMThread.supplyAsyncOnVirtualThread(
+                () -> Thread.currentThread().toString()).join();
+        System.out.println(threadName);
+        assertTrue(threadName.startsWith("VirtualThread"));
+    }
+}
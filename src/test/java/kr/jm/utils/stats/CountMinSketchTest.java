@@ -0,0 +1,80 @@
+package kr.jm.utils.stats;
+
+import kr.jm.utils.collections.JMCountMap;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class CountMinSketchTest {
+
+    @Test
+    public void testErrorBound() {
+        CountMinSketch sketch = CountMinSketch.of(0.001, 0.01);
+        CountMinSketch conservativeSketch =
+                CountMinSketch.of(0.001, 0.01, true);
+        assertEquals(2719, sketch.getWidth());
+        assertEquals(5, sketch.getDepth());
+        JMCountMap<String> exactCountMap = new JMCountMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 200000; i++) {
+            String word = "word" + (int) Math.abs(random.nextGaussian() * 5000);
+            sketch.add(word);
+            conservativeSketch.add(word);
+            exactCountMap.increment(word);
+        }
+        long errorBound = sketch.getErrorBound();
+        long overCount = 0, conservativeOverCount = 0, outOfBound = 0;
+        for (String word : exactCountMap.keySet()) {
+            long exactCount = exactCountMap.getCount(word);
+            long estimate = sketch.estimateCount(word);
+            long conservativeEstimate = conservativeSketch.estimateCount(word);
+            assertTrue(estimate >= exactCount);
+            assertTrue(conservativeEstimate >= exactCount);
+            assertTrue(conservativeEstimate <= estimate);
+            overCount += estimate - exactCount;
+            conservativeOverCount += conservativeEstimate - exactCount;
+            if (estimate - exactCount > errorBound)
+                outOfBound++;
+        }
+        System.out.println(sketch + " errorBound=" + errorBound +
+                " overCount=" + overCount + " conservativeOverCount=" +
+                conservativeOverCount);
+        assertTrue(outOfBound <= exactCountMap.size() * 0.01);
+        assertTrue(conservativeOverCount < overCount);
+    }
+
+    @Test
+    public void testConcurrentMergeAndBytes() {
+        CountMinSketch merged = CountMinSketch.of(0.01, 0.01, true);
+        IntStream.range(0, 4)
+                .mapToObj(t -> CompletableFuture.supplyAsync(() -> {
+                    CountMinSketch sketch =
+                            CountMinSketch.of(0.01, 0.01, true);
+                    IntStream.range(0, 10000).forEach(i -> sketch.add("hot"));
+                    return sketch;
+                })).map(CompletableFuture::join).forEach(merged::merge);
+        CompletableFuture.allOf(IntStream.range(0, 4).mapToObj(
+                t -> CompletableFuture.runAsync(() -> IntStream.range(0, 10000)
+                        .forEach(i -> merged.add("hot"))))
+                .toArray(CompletableFuture[]::new)).join();
+        assertEquals(80000, merged.getTotalCount());
+        assertEquals(80000, merged.estimateCount("hot"));
+        assertEquals(0, merged.estimateCount("cold"));
+        byte[] bytes = merged.toBytes();
+        assertTrue(bytes.length < merged.getWidth() * merged.getDepth() * 2);
+        CountMinSketch restored = CountMinSketch.fromBytes(bytes);
+        assertTrue(restored.isConservative());
+        assertEquals(80000, restored.estimateCount("hot"));
+        assertEquals(merged.getTotalCount(), restored.getTotalCount());
+        try {
+            merged.merge(CountMinSketch.of(0.1, 0.01));
+            fail();
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
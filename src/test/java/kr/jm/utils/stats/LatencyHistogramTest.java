@@ -0,0 +1,49 @@
+package kr.jm.utils.stats;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testRecordAndMerge() {
+        LatencyHistogram histogram = LatencyHistogram.of();
+        for (long i = 1; i <= 1000; i++)
+            histogram.record(i);
+        System.out.println(histogram);
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 0);
+        long p50 = histogram.getPercentile(50);
+        assertTrue(p50 >= 500 && p50 <= 500 * 1.125);
+        long p99 = histogram.getPercentile(99);
+        assertTrue(p99 >= 990 && p99 <= 1000);
+
+        LatencyHistogram other = LatencyHistogram.of();
+        for (long i = 0; i < 1000; i++)
+            other.record(1_000_000);
+        LatencyHistogram merged = histogram.copy().merge(other);
+        System.out.println(merged.buildPercentileMap(50, 99.9));
+        assertEquals(2000, merged.getCount());
+        assertEquals(1000, histogram.getCount());
+        assertTrue(merged.getPercentile(99.9) >= 1_000_000);
+        assertEquals(1_000_000, merged.getMax());
+
+        merged.reset();
+        assertEquals(0, merged.getCount());
+        assertEquals(0, merged.getPercentile(99));
+    }
+
+    @Test
+    public void testBucketIndex() {
+        for (long value : new long[]{0, 7, 8, 9, 15, 16, 1023, 1 << 20,
+                Long.MAX_VALUE}) {
+            int index = LatencyHistogram.buildBucketIndex(value);
+            assertTrue(LatencyHistogram.buildBucketUpperBound(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram
+                    .buildBucketUpperBound(index - 1) < value);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package kr.jm.utils.stats.collector;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class WordItemCollectorTest {
+
+    @Test
+    public void testSketchMode() {
+        WordItemCollector exactCollector = new WordItemCollector();
+        WordItemCollector sketchCollector =
+                new WordItemCollector(0.001, 0.01, 3);
+        WordItemCollector otherSketchCollector =
+                new WordItemCollector(0.001, 0.01, 3);
+        for (int i = 0; i < 5000; i++) {
+            String word = i % 2 == 0 ? "a" : i % 3 == 0 ? "b" :
+                    i % 5 == 0 ? "c" : "rare" + i;
+            exactCollector.add("key", word);
+            sketchCollector.add("key", word);
+        }
+        otherSketchCollector.addAll("key", Arrays.asList("b", "b"));
+        sketchCollector.merge(otherSketchCollector);
+        exactCollector.addAll("key", Arrays.asList("b", "b"));
+        assertTrue(sketchCollector.isSketchMode());
+        assertEquals(1, sketchCollector.size());
+        assertTrue(sketchCollector.containsKey("key"));
+        assertEquals(1, sketchCollector.keySet().size());
+        assertEquals(Collections.emptyList(), sketchCollector.get("key"));
+        assertNull(sketchCollector.get("none"));
+        assertEquals(1, sketchCollector.entrySet().size());
+        assertEquals(1, sketchCollector.values().size());
+        assertEquals(Collections.singletonMap("key", Collections.emptyList()),
+                new HashMap<>(sketchCollector));
+        Map<String, Long> exactCountMap =
+                exactCollector.extractCollectingMap().get("key");
+        Map<String, Long> topKCountMap =
+                sketchCollector.extractCollectingMap().get("key");
+        System.out.println(topKCountMap);
+        assertEquals(Arrays.asList("a", "b", "c"),
+                Arrays.asList(topKCountMap.keySet().toArray()));
+        for (String word : topKCountMap.keySet())
+            assertTrue(topKCountMap.get(word) >= exactCountMap.get(word));
+        assertEquals(exactCountMap.get("a"), topKCountMap.get("a"));
+        otherSketchCollector.remove("key");
+        assertTrue(otherSketchCollector.isEmpty());
+        assertNull(otherSketchCollector.getCountMinSketch("key"));
+        sketchCollector.clear();
+        assertTrue(sketchCollector.isEmpty());
+        assertTrue(sketchCollector.extractCollectingMap().isEmpty());
+        try {
+            exactCollector.merge(sketchCollector);
+            fail();
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}